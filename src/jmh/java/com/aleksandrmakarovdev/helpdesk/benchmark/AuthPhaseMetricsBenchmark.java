@@ -0,0 +1,91 @@
+package com.aleksandrmakarovdev.helpdesk.benchmark;
+
+import com.aleksandrmakarovdev.helpdesk.invalidation.InvalidationPublisher;
+import com.aleksandrmakarovdev.helpdesk.security.AuthPhaseMetrics;
+import com.aleksandrmakarovdev.helpdesk.security.TokenRevocationService;
+import com.aleksandrmakarovdev.helpdesk.security.WebUserDetails;
+import com.aleksandrmakarovdev.helpdesk.user.model.Token;
+import com.aleksandrmakarovdev.helpdesk.user.service.DefaultTokenService;
+import com.aleksandrmakarovdev.helpdesk.user.util.JwtUtil;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Measures the cost of timing a login phase, using access token creation as the instrumented phase.
+ * The timers are backed by a Prometheus registry with percentile histograms, as configured in production.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthPhaseMetricsBenchmark {
+
+    private WebUserDetails userDetails;
+    private DefaultTokenService tokenService;
+    private AuthPhaseMetrics authPhaseMetrics;
+
+    @Setup
+    public void setUp() {
+        userDetails = new WebUserDetails(
+                UUID.randomUUID(), "agent@example.com", null, null, List.of("ROLE_USER", "ROLE_ADMIN")
+        );
+
+        // Issuing an access token does not touch the refresh token repository, only the revocation watermarks
+        TokenRevocationService revocationService = new TokenRevocationService(
+                mock(JdbcTemplate.class), mock(InvalidationPublisher.class), 1000, 0.01, new SimpleMeterRegistry()
+        );
+        tokenService = new DefaultTokenService(null, new JwtUtil(JwtParseBenchmark.SECRET), null, revocationService, null, null);
+
+        PrometheusMeterRegistry meterRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        meterRegistry.config().meterFilter(new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                return DistributionStatisticConfig.builder().percentilesHistogram(true).build().merge(config);
+            }
+        });
+
+        authPhaseMetrics = new AuthPhaseMetrics(meterRegistry);
+    }
+
+    @Benchmark
+    public Token untimed() {
+        return tokenService.createAccessToken(userDetails);
+    }
+
+    @Benchmark
+    public Token timed() {
+        long startedAt = System.nanoTime();
+        Token token = tokenService.createAccessToken(userDetails);
+        authPhaseMetrics.record(AuthPhaseMetrics.Phase.LOGIN_ACCESS_TOKEN_ISSUE, startedAt);
+        return token;
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Token untimedConcurrent() {
+        return tokenService.createAccessToken(userDetails);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Token timedConcurrent() {
+        long startedAt = System.nanoTime();
+        Token token = tokenService.createAccessToken(userDetails);
+        authPhaseMetrics.record(AuthPhaseMetrics.Phase.LOGIN_ACCESS_TOKEN_ISSUE, startedAt);
+        return token;
+    }
+}
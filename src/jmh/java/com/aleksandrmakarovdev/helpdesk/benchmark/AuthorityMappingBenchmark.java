@@ -0,0 +1,69 @@
+package com.aleksandrmakarovdev.helpdesk.benchmark;
+
+import com.aleksandrmakarovdev.helpdesk.invalidation.InvalidationPublisher;
+import com.aleksandrmakarovdev.helpdesk.security.TokenRevocationService;
+import com.aleksandrmakarovdev.helpdesk.security.WebUserDetails;
+import com.aleksandrmakarovdev.helpdesk.user.model.Token;
+import com.aleksandrmakarovdev.helpdesk.user.service.DefaultTokenService;
+import com.aleksandrmakarovdev.helpdesk.user.util.JwtUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Measures mapping a user's roles to authorities and turning them into an access token.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthorityMappingBenchmark {
+
+    private WebUserDetails userDetails;
+    private DefaultTokenService tokenService;
+
+    @Setup
+    public void setUp() {
+        userDetails = new WebUserDetails(
+                UUID.randomUUID(), "agent@example.com", null, null, List.of("ROLE_USER", "ROLE_ADMIN")
+        );
+
+        // Issuing an access token does not touch the refresh token repository, only the revocation watermarks
+        TokenRevocationService revocationService = new TokenRevocationService(
+                mock(JdbcTemplate.class), mock(InvalidationPublisher.class), 1000, 0.01, new SimpleMeterRegistry()
+        );
+        tokenService = new DefaultTokenService(null, new JwtUtil(JwtParseBenchmark.SECRET), null, revocationService, null, null);
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return userDetails.getAuthorities();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Collection<? extends GrantedAuthority> getAuthoritiesConcurrent() {
+        return userDetails.getAuthorities();
+    }
+
+    @Benchmark
+    public Token createAccessToken() {
+        return tokenService.createAccessToken(userDetails);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Token createAccessTokenConcurrent() {
+        return tokenService.createAccessToken(userDetails);
+    }
+}
@@ -0,0 +1,79 @@
+package com.aleksandrmakarovdev.helpdesk.benchmark;
+
+import com.aleksandrmakarovdev.helpdesk.user.model.TokenClaims;
+import com.aleksandrmakarovdev.helpdesk.user.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cost of reading subject, expiration and roles from an access token
+ * the way the filter did before {@link JwtUtil#parse(String)} existed against a single parse.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtParseBenchmark {
+
+    static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret";
+
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil(SECRET);
+        token = jwtUtil.issue(Map.of(
+                "sub", UUID.randomUUID().toString(),
+                "username", "agent@example.com",
+                "roles", List.of("ROLE_USER", "ROLE_ADMIN")
+        ), JwtUtil.ACCESS_TOKEN_LIFETIME).token();
+    }
+
+    /**
+     * Baseline: a new key and parser per accessor and one signature verification per claim.
+     */
+    @Benchmark
+    public void perAccessorParsing(Blackhole blackhole) {
+        blackhole.consume(parseWithFreshParser().getSubject());
+        blackhole.consume(parseWithFreshParser().getExpiration());
+        blackhole.consume(parseWithFreshParser().get("roles", List.class));
+    }
+
+    /**
+     * Shared parser, but still one signature verification per claim.
+     */
+    @Benchmark
+    public void sharedParserPerAccessor(Blackhole blackhole) {
+        blackhole.consume(jwtUtil.getUsername(token));
+        blackhole.consume(jwtUtil.getExpiration(token));
+        blackhole.consume(jwtUtil.getRoles(token));
+    }
+
+    /**
+     * Shared parser and a single verification for all claims.
+     */
+    @Benchmark
+    public TokenClaims parseOnce() {
+        return jwtUtil.parse(token);
+    }
+
+    private Claims parseWithFreshParser() {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+}
@@ -0,0 +1,181 @@
+package com.aleksandrmakarovdev.helpdesk.benchmark;
+
+import com.aleksandrmakarovdev.helpdesk.user.util.TokenHasher;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares refresh token inserts and lookups against the original layout, a unique {@code varchar(512)}
+ * holding the full JWT, and the current one, a unique SHA-256 {@code bytea} plus indexes on {@code user_id}
+ * and {@code expires_at}.
+ * <p>
+ * Needs a PostgreSQL database given by the {@code BENCHMARK_JDBC_URL}, {@code BENCHMARK_JDBC_USER} and
+ * {@code BENCHMARK_JDBC_PASSWORD} environment variables. Both tables are filled with {@code rows} tokens
+ * of realistic length on the first run and reused afterwards; filling 10M rows takes several minutes.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RefreshTokenStorageBenchmark {
+
+    private static final String VARCHAR_TABLE = "bench_refresh_tokens_varchar";
+    private static final String HASH_TABLE = "bench_refresh_tokens_hash";
+
+    private static final int SAMPLE_SIZE = 10_000;
+
+    // A JWT-like token of about 200 characters that is unique for each number
+    private static final String TOKEN_SQL =
+            "'eyJhbGciOiJIUzI1NiJ9.' || md5(i::text) || repeat(md5((i * 31)::text), 5)";
+
+    @Param("10000000")
+    public int rows;
+
+    private Connection connection;
+    private PreparedStatement insertVarchar;
+    private PreparedStatement insertHash;
+    private PreparedStatement selectVarchar;
+    private PreparedStatement selectHash;
+
+    private List<String> sample;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(
+                System.getenv("BENCHMARK_JDBC_URL"),
+                System.getenv("BENCHMARK_JDBC_USER"),
+                System.getenv("BENCHMARK_JDBC_PASSWORD")
+        );
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    create table if not exists %s (
+                        id         uuid primary key default gen_random_uuid(),
+                        token      varchar(512) not null unique,
+                        created_at timestamp    not null,
+                        expires_at timestamp    not null,
+                        revoked_at timestamp,
+                        user_id    uuid         not null
+                    )""".formatted(VARCHAR_TABLE));
+            statement.execute("""
+                    create table if not exists %s (
+                        id         uuid primary key default gen_random_uuid(),
+                        token_hash bytea     not null,
+                        created_at timestamp not null,
+                        expires_at timestamp not null,
+                        revoked_at timestamp,
+                        user_id    uuid      not null
+                    )""".formatted(HASH_TABLE));
+            statement.execute("create unique index if not exists %1$s_token_hash_idx on %1$s (token_hash)".formatted(HASH_TABLE));
+            statement.execute("create index if not exists %1$s_user_id_idx on %1$s (user_id)".formatted(HASH_TABLE));
+            statement.execute("create index if not exists %1$s_expires_at_idx on %1$s (expires_at)".formatted(HASH_TABLE));
+
+            fill(statement, VARCHAR_TABLE, "token", TOKEN_SQL);
+            fill(statement, HASH_TABLE, "token_hash", "sha256(convert_to(" + TOKEN_SQL + ", 'UTF8'))");
+
+            statement.execute("vacuum analyze " + VARCHAR_TABLE);
+            statement.execute("vacuum analyze " + HASH_TABLE);
+
+            // Existing tokens spread over the whole table, looked up in random order
+            sample = new ArrayList<>(SAMPLE_SIZE);
+            try (ResultSet resultSet = statement.executeQuery(
+                    "select " + TOKEN_SQL + " from (select (1 + floor(random() * %d))::int as i from generate_series(1, %d)) t"
+                            .formatted(rows, SAMPLE_SIZE))) {
+                while (resultSet.next()) {
+                    sample.add(resultSet.getString(1));
+                }
+            }
+        }
+
+        insertVarchar = connection.prepareStatement(
+                "insert into " + VARCHAR_TABLE + " (token, created_at, expires_at, user_id) values (?, ?, ?, ?)");
+        insertHash = connection.prepareStatement(
+                "insert into " + HASH_TABLE + " (token_hash, created_at, expires_at, user_id) values (?, ?, ?, ?)");
+        selectVarchar = connection.prepareStatement(
+                "select user_id from " + VARCHAR_TABLE + " where token = ? and revoked_at is null");
+        selectHash = connection.prepareStatement(
+                "select user_id from " + HASH_TABLE + " where token_hash = ? and revoked_at is null");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public int insertVarchar() throws SQLException {
+        insertVarchar.setString(1, newToken());
+        return insert(insertVarchar);
+    }
+
+    @Benchmark
+    public int insertHash() throws SQLException {
+        insertHash.setBytes(1, TokenHasher.hash(newToken()));
+        return insert(insertHash);
+    }
+
+    @Benchmark
+    public Object lookupVarchar() throws SQLException {
+        selectVarchar.setString(1, randomSample());
+        return lookup(selectVarchar);
+    }
+
+    @Benchmark
+    public Object lookupHash() throws SQLException {
+        selectHash.setBytes(1, TokenHasher.hash(randomSample()));
+        return lookup(selectHash);
+    }
+
+    private void fill(Statement statement, String table, String column, String valueSql) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery("select count(*) from " + table)) {
+            resultSet.next();
+            if (resultSet.getLong(1) >= rows) {
+                return;
+            }
+        }
+
+        statement.execute("truncate " + table);
+        statement.execute("""
+                insert into %s (%s, created_at, expires_at, user_id)
+                select %s, now(), now() + interval '1 day', gen_random_uuid()
+                from generate_series(1, %d) i
+                """.formatted(table, column, valueSql, rows));
+    }
+
+    private int insert(PreparedStatement statement) throws SQLException {
+        long now = System.currentTimeMillis();
+        statement.setTimestamp(2, new Timestamp(now));
+        statement.setTimestamp(3, new Timestamp(now + TimeUnit.DAYS.toMillis(1)));
+        statement.setObject(4, UUID.randomUUID());
+        return statement.executeUpdate();
+    }
+
+    private static Object lookup(PreparedStatement statement) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery()) {
+            return resultSet.next() ? resultSet.getObject(1) : null;
+        }
+    }
+
+    private static String newToken() {
+        return "eyJhbGciOiJIUzI1NiJ9." + UUID.randomUUID() + UUID.randomUUID() + UUID.randomUUID()
+                + UUID.randomUUID() + UUID.randomUUID();
+    }
+
+    private String randomSample() {
+        return sample.get(ThreadLocalRandom.current().nextInt(sample.size()));
+    }
+}
@@ -0,0 +1,207 @@
+package com.aleksandrmakarovdev.helpdesk.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares fetching page {@code page} of the user directory with offset pagination and with keyset pagination
+ * over {@code (created_at, id)}, the way {@code UserDirectoryRepository} does it.
+ * <p>
+ * The {@code role} cases continue from the same position filtered by a rare role, held by one in
+ * {@value #RARE_ROLE_SPREAD} users: once with an {@code exists} probe for every user walked in the
+ * {@code (created_at, id)} index, and once seeking a {@code (role_id, user_created_at, user_id)} index.
+ * <p>
+ * Needs a PostgreSQL database given by the {@code BENCHMARK_JDBC_URL}, {@code BENCHMARK_JDBC_USER} and
+ * {@code BENCHMARK_JDBC_PASSWORD} environment variables. The table is filled with {@code rows} users
+ * on the first run and reused afterwards.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserDirectoryBenchmark {
+
+    private static final String TABLE = "bench_users";
+    private static final String ROLES_TABLE = "bench_users_roles";
+    private static final int RARE_ROLE_ID = 1;
+    private static final int RARE_ROLE_SPREAD = 10_000;
+    private static final int PAGE_SIZE = 50;
+
+    @Param("5000000")
+    public int rows;
+
+    @Param({"1", "100", "10000"})
+    public int page;
+
+    private Connection connection;
+    private PreparedStatement offsetPage;
+    private PreparedStatement keysetPage;
+    private PreparedStatement roleProbePage;
+    private PreparedStatement roleIndexPage;
+
+    private Timestamp afterCreatedAt;
+    private UUID afterId;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(
+                System.getenv("BENCHMARK_JDBC_URL"),
+                System.getenv("BENCHMARK_JDBC_USER"),
+                System.getenv("BENCHMARK_JDBC_PASSWORD")
+        );
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    create table if not exists %s (
+                        id         uuid primary key default gen_random_uuid(),
+                        email      varchar(320) not null,
+                        created_at timestamp    not null
+                    )""".formatted(TABLE));
+            statement.execute("create index if not exists %1$s_created_at_id_idx on %1$s (created_at, id)".formatted(TABLE));
+            statement.execute("""
+                    create table if not exists %s (
+                        user_id         uuid      not null,
+                        role_id         int       not null,
+                        user_created_at timestamp not null,
+                        unique (user_id, role_id)
+                    )""".formatted(ROLES_TABLE));
+            statement.execute(("create index if not exists %1$s_role_id_created_at_idx "
+                    + "on %1$s (role_id, user_created_at, user_id)").formatted(ROLES_TABLE));
+
+            fill(statement);
+            fillRoles(statement);
+
+            statement.execute("vacuum analyze " + TABLE);
+            statement.execute("vacuum analyze " + ROLES_TABLE);
+        }
+
+        offsetPage = connection.prepareStatement(
+                "select id, email, created_at from " + TABLE + " order by created_at desc, id desc offset ? limit ?");
+        keysetPage = connection.prepareStatement(
+                "select id, email, created_at from " + TABLE
+                        + " where (created_at, id) < (?, ?) order by created_at desc, id desc limit ?");
+        roleProbePage = connection.prepareStatement(
+                "select u.id, u.email, u.created_at from " + TABLE + " u"
+                        + " where exists (select 1 from " + ROLES_TABLE + " r where r.user_id = u.id and r.role_id = ?)"
+                        + " and (u.created_at, u.id) < (?, ?) order by u.created_at desc, u.id desc limit ?");
+        roleIndexPage = connection.prepareStatement(
+                "select u.id, u.email, u.created_at from " + ROLES_TABLE + " r join " + TABLE + " u on u.id = r.user_id"
+                        + " where r.role_id = ? and (r.user_created_at, r.user_id) < (?, ?)"
+                        + " order by r.user_created_at desc, r.user_id desc limit ?");
+
+        // The keyset page starts after the last row of the previous page
+        if (page > 1) {
+            offsetPage.setInt(1, (page - 1) * PAGE_SIZE - 1);
+            offsetPage.setInt(2, 1);
+
+            try (ResultSet resultSet = offsetPage.executeQuery()) {
+                resultSet.next();
+                afterId = resultSet.getObject(1, UUID.class);
+                afterCreatedAt = resultSet.getTimestamp(3);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public int offset() throws SQLException {
+        offsetPage.setInt(1, (page - 1) * PAGE_SIZE);
+        offsetPage.setInt(2, PAGE_SIZE);
+        return count(offsetPage);
+    }
+
+    @Benchmark
+    public int keyset() throws SQLException {
+        if (afterId == null) {
+            offsetPage.setInt(1, 0);
+            offsetPage.setInt(2, PAGE_SIZE);
+            return count(offsetPage);
+        }
+
+        keysetPage.setTimestamp(1, afterCreatedAt);
+        keysetPage.setObject(2, afterId);
+        keysetPage.setInt(3, PAGE_SIZE);
+        return count(keysetPage);
+    }
+
+    @Benchmark
+    public int roleProbe() throws SQLException {
+        return rolePage(roleProbePage);
+    }
+
+    @Benchmark
+    public int roleIndex() throws SQLException {
+        return rolePage(roleIndexPage);
+    }
+
+    private int rolePage(PreparedStatement statement) throws SQLException {
+        statement.setInt(1, RARE_ROLE_ID);
+
+        // The first page starts after the newest possible position
+        statement.setTimestamp(2, afterId != null ? afterCreatedAt : Timestamp.valueOf("9999-12-31 00:00:00"));
+        statement.setObject(3, afterId != null ? afterId : new UUID(-1L, -1L));
+        statement.setInt(4, PAGE_SIZE);
+        return count(statement);
+    }
+
+    private void fill(Statement statement) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery("select count(*) from " + TABLE)) {
+            resultSet.next();
+            if (resultSet.getLong(1) >= rows) {
+                return;
+            }
+        }
+
+        // Registrations spread over about three years, with occasional equal timestamps
+        statement.execute("truncate " + ROLES_TABLE + ", " + TABLE);
+        statement.execute("""
+                insert into %s (email, created_at)
+                select 'user' || i || '@example.com', timestamp '2022-01-01' + (i / 2) * interval '37 seconds'
+                from generate_series(1, %d) i
+                """.formatted(TABLE, rows));
+    }
+
+    private void fillRoles(Statement statement) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery("select exists (select 1 from " + ROLES_TABLE + ")")) {
+            resultSet.next();
+            if (resultSet.getBoolean(1)) {
+                return;
+            }
+        }
+
+        // Spread evenly over time, so the probe walks about RARE_ROLE_SPREAD users per row it returns
+        statement.execute("""
+                insert into %s (user_id, role_id, user_created_at)
+                select id, %d, created_at
+                from %s
+                where hashtext(email) %% %d = 0
+                """.formatted(ROLES_TABLE, RARE_ROLE_ID, TABLE, RARE_ROLE_SPREAD));
+    }
+
+    private static int count(PreparedStatement statement) throws SQLException {
+        int count = 0;
+
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+}
@@ -0,0 +1,167 @@
+package com.aleksandrmakarovdev.helpdesk.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares inserting {@code users} imported users with their role one statement per user, the way registration does,
+ * against {@code unnest} batches of {@code batchSize} users, the way {@code UserImportRepository} does it.
+ * Password hashing is left out, a fixed hash is inserted for every user.
+ * <p>
+ * Needs a PostgreSQL database given by the {@code BENCHMARK_JDBC_URL}, {@code BENCHMARK_JDBC_USER} and
+ * {@code BENCHMARK_JDBC_PASSWORD} environment variables. The tables are emptied before every iteration.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserImportBenchmark {
+
+    private static final String USERS_TABLE = "bench_import_users";
+    private static final String ROLES_TABLE = "bench_import_users_roles";
+    private static final String PASSWORD_HASH = "{bcrypt}$2a$10$abcdefghijklmnopqrstuu5Ds9t6mV0CqFQzhEoPnC8wSKOGUIEnW";
+
+    @Param("1000")
+    public int users;
+
+    @Param({"10", "100", "1000"})
+    public int batchSize;
+
+    private final UUID roleId = UUID.randomUUID();
+
+    private Connection connection;
+    private PreparedStatement singleInsert;
+    private PreparedStatement batchInsert;
+    private long run;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(
+                System.getenv("BENCHMARK_JDBC_URL"),
+                System.getenv("BENCHMARK_JDBC_USER"),
+                System.getenv("BENCHMARK_JDBC_PASSWORD")
+        );
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    create table if not exists %s (
+                        id            uuid primary key default gen_random_uuid(),
+                        username      varchar(254) not null unique,
+                        email         varchar(320) not null unique,
+                        password_hash varchar(72)  not null,
+                        created_at    timestamp    not null
+                    )""".formatted(USERS_TABLE));
+            statement.execute("""
+                    create table if not exists %s (
+                        id      uuid primary key default gen_random_uuid(),
+                        user_id uuid not null references %s (id),
+                        role_id uuid not null,
+                        unique (user_id, role_id)
+                    )""".formatted(ROLES_TABLE, USERS_TABLE));
+        }
+
+        singleInsert = connection.prepareStatement("""
+                with inserted_user as (
+                    insert into %s (username, email, password_hash, created_at)
+                    values (?, ?, ?, ?)
+                    returning id
+                )
+                insert into %s (user_id, role_id)
+                select id, ? from inserted_user
+                """.formatted(USERS_TABLE, ROLES_TABLE));
+        batchInsert = connection.prepareStatement("""
+                with inserted_users as (
+                    insert into %s (username, email, password_hash, created_at)
+                    select u.email, u.email, u.password_hash, ?
+                    from unnest(?::varchar[], ?::varchar[]) as u(email, password_hash)
+                    on conflict do nothing
+                    returning id, email
+                ), inserted_roles as (
+                    insert into %s (user_id, role_id)
+                    select id, ? from inserted_users
+                )
+                select count(*) from inserted_users
+                """.formatted(USERS_TABLE, ROLES_TABLE));
+    }
+
+    @Setup(Level.Iteration)
+    public void truncate() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("truncate " + ROLES_TABLE + ", " + USERS_TABLE);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public int perUser() throws SQLException {
+        long prefix = run++;
+        Timestamp createdAt = new Timestamp(System.currentTimeMillis());
+        int inserted = 0;
+
+        for (int i = 0; i < users; i++) {
+            String email = email(prefix, i);
+
+            singleInsert.setString(1, email);
+            singleInsert.setString(2, email);
+            singleInsert.setString(3, PASSWORD_HASH);
+            singleInsert.setTimestamp(4, createdAt);
+            singleInsert.setObject(5, roleId);
+            inserted += singleInsert.executeUpdate();
+        }
+
+        return inserted;
+    }
+
+    @Benchmark
+    public int unnestBatches() throws SQLException {
+        long prefix = run++;
+        Timestamp createdAt = new Timestamp(System.currentTimeMillis());
+        int inserted = 0;
+
+        for (int start = 0; start < users; start += batchSize) {
+            int size = Math.min(batchSize, users - start);
+            String[] emails = new String[size];
+            String[] hashes = new String[size];
+
+            for (int i = 0; i < size; i++) {
+                emails[i] = email(prefix, start + i);
+                hashes[i] = PASSWORD_HASH;
+            }
+
+            Array emailArray = connection.createArrayOf("varchar", emails);
+            Array hashArray = connection.createArrayOf("varchar", hashes);
+
+            batchInsert.setTimestamp(1, createdAt);
+            batchInsert.setArray(2, emailArray);
+            batchInsert.setArray(3, hashArray);
+            batchInsert.setObject(4, roleId);
+
+            try (ResultSet resultSet = batchInsert.executeQuery()) {
+                resultSet.next();
+                inserted += resultSet.getInt(1);
+            }
+        }
+
+        return inserted;
+    }
+
+    private static String email(long prefix, int i) {
+        return "user" + prefix + '-' + i + "@example.com";
+    }
+}
@@ -0,0 +1,150 @@
+package com.aleksandrmakarovdev.helpdesk.benchmark;
+
+import com.aleksandrmakarovdev.helpdesk.HelpdeskApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares handling a burst of logins on Tomcat's platform thread pool with virtual threads.
+ * <p>
+ * Starts the application on a random port, once per mode, and sends {@code requests} logins to
+ * {@code /api/users/login} over HTTP from {@code clients} concurrent clients. Every login loads the user
+ * and stores a refresh token, so requests compete for the {@code poolSize} connections of the pool,
+ * guarded by the connection limiter in virtual thread mode. BCrypt runs at strength 4 to keep the focus on
+ * threads and connections.
+ * <p>
+ * Needs a PostgreSQL database given by the {@code BENCHMARK_JDBC_URL}, {@code BENCHMARK_JDBC_USER} and
+ * {@code BENCHMARK_JDBC_PASSWORD} environment variables, which the application migrates on startup.
+ * The {@code virtual} mode needs Java 21: {@code ./mvnw -Pjava21,jmh test-compile exec:exec -Djmh.args="VirtualThreadLoadBenchmark"}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VirtualThreadLoadBenchmark {
+
+    private static final String PASSWORD = "benchmark-password";
+
+    @Param({"platform", "virtual"})
+    public String mode;
+
+    @Param({"2000"})
+    public int requests;
+
+    @Param({"50", "500"})
+    public int clients;
+
+    @Param({"10"})
+    public int poolSize;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private ExecutorService clientExecutor;
+    private URI loginUri;
+    private String loginBody;
+
+    @Setup
+    public void setUp() throws Exception {
+        boolean virtual = "virtual".equals(mode);
+
+        if (virtual && Runtime.version().feature() < 21) {
+            throw new UnsupportedOperationException("Virtual threads need Java 21, build with -Pjava21");
+        }
+
+        context = new SpringApplicationBuilder(HelpdeskApplication.class)
+                .properties(
+                        "server.port=0",
+                        "management.server.port=0",
+                        "spring.datasource.url=" + System.getenv("BENCHMARK_JDBC_URL"),
+                        "spring.datasource.username=" + System.getenv("BENCHMARK_JDBC_USER"),
+                        "spring.datasource.password=" + System.getenv("BENCHMARK_JDBC_PASSWORD"),
+                        "spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                        "spring.jpa.show-sql=false",
+                        "spring.threads.virtual.enabled=" + virtual,
+                        "jwt.secret=" + UUID.randomUUID() + UUID.randomUUID(),
+                        "security.password-encoder.strength=4",
+                        // Measure threads and connections, not hashing rejections or rate limits
+                        "security.password-hashing.queue-capacity=" + requests,
+                        "rate-limit.enabled=false"
+                )
+                .run();
+
+        String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        String email = "load-" + UUID.randomUUID() + "@example.com";
+
+        loginUri = URI.create(baseUrl + "/api/users/login");
+        loginBody = String.format("{\"email\": \"%s\", \"password\": \"%s\"}", email, PASSWORD);
+
+        httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        clientExecutor = Executors.newFixedThreadPool(clients);
+
+        HttpResponse<String> registered = post(URI.create(baseUrl + "/api/users/register"), loginBody);
+        if (registered.statusCode() != 200) {
+            throw new IllegalStateException("Failed to register the benchmark user: " + registered.body());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        clientExecutor.shutdownNow();
+        context.close();
+    }
+
+    @Benchmark
+    public int burst() throws Exception {
+        AtomicInteger remaining = new AtomicInteger(requests);
+        AtomicInteger failed = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>(clients);
+
+        for (int i = 0; i < clients; i++) {
+            futures.add(clientExecutor.submit(() -> {
+                while (remaining.getAndDecrement() > 0) {
+                    if (post(loginUri, loginBody).statusCode() != 200) {
+                        failed.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        for (Future<?> future : futures) {
+            future.get();
+        }
+
+        // Rejected logins finish early and would make an overloaded mode look fast
+        if (failed.get() > 0) {
+            throw new IllegalStateException(failed.get() + " of " + requests + " logins failed");
+        }
+
+        return requests;
+    }
+
+    private HttpResponse<String> post(URI uri, String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
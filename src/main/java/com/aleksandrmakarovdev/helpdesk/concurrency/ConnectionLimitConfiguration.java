@@ -0,0 +1,83 @@
+package com.aleksandrmakarovdev.helpdesk.concurrency;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Puts a {@link ConnectionLimitingDataSource} in front of every connection pool, enabled with
+ * {@code connection-limit.enabled}, which defaults to whether virtual threads are enabled.
+ * <p>
+ * With platform threads, Tomcat's thread pool bounds the number of threads waiting for a connection.
+ * Virtual threads remove that bound, so the limiter takes over. Each Hikari pool, the primary and the replica
+ * alike, gets its own limiter with as many permits as the pool has connections. Routing data sources
+ * in front of the pools are left alone, so a replica connection never takes a primary permit.
+ */
+@Configuration
+@ConditionalOnProperty(name = "connection-limit.enabled", havingValue = "true")
+public class ConnectionLimitConfiguration {
+
+    @Bean
+    public static BeanPostProcessor connectionLimitingDataSourcePostProcessor(Environment environment) {
+        Duration acquireTimeout = environment.getProperty("connection-limit.acquire-timeout", Duration.class, Duration.ofSeconds(1));
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // Hikari settings are bound before initialization, so the pool size is final here
+                if (bean instanceof HikariDataSource pool) {
+                    return new ConnectionLimitingDataSource(pool, pool.getMaximumPoolSize(), acquireTimeout);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder connectionLimitMetrics(List<DataSource> dataSources) throws SQLException {
+        // Routing data sources unwrap to the limiter of their primary pool, count every limiter once
+        Set<ConnectionLimitingDataSource> limiters = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        for (DataSource dataSource : dataSources) {
+            if (dataSource.isWrapperFor(ConnectionLimitingDataSource.class)) {
+                limiters.add(dataSource.unwrap(ConnectionLimitingDataSource.class));
+            }
+        }
+
+        return registry -> {
+            for (ConnectionLimitingDataSource limiter : limiters) {
+                String pool = poolName(limiter);
+
+                Gauge.builder("connection.limit.available", limiter, ConnectionLimitingDataSource::getAvailablePermits)
+                        .description("Number of connections that can be taken without waiting")
+                        .tag("pool", pool)
+                        .register(registry);
+                Gauge.builder("connection.limit.queued", limiter, ConnectionLimitingDataSource::getQueueLength)
+                        .description("Number of threads waiting for a connection permit")
+                        .tag("pool", pool)
+                        .register(registry);
+            }
+        };
+    }
+
+    private static String poolName(ConnectionLimitingDataSource limiter) {
+        try {
+            return limiter.unwrap(HikariDataSource.class).getPoolName();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Connection limiter does not wrap a Hikari pool.", e);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.aleksandrmakarovdev.helpdesk.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.stream.Collectors;
+
+/**
+ * Reports virtual threads that stay pinned to their carrier thread, enabled together with virtual threads.
+ * <p>
+ * A virtual thread is pinned when it blocks inside a {@code synchronized} block or a native frame,
+ * which takes a carrier thread out of the scheduler for the whole wait. In the {@code @Transactional}
+ * paths this would turn every JDBC wait into a blocked carrier, so application code must not hold a monitor
+ * across I/O. This monitor streams the {@code jdk.VirtualThreadPinned} JFR event, counts pinning as
+ * {@code virtual.threads.pinned} and logs the stack trace of each occurrence, so a regression shows up
+ * right away instead of as a throughput drop.
+ */
+@Component
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 16;
+
+    private final boolean enabled;
+    private final Duration threshold;
+    private final Counter pinnedCounter;
+
+    private volatile RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(
+            @Value("${spring.threads.virtual.enabled:false}") boolean enabled,
+            @Value("${virtual-threads.pinning.threshold:20ms}") Duration threshold,
+            MeterRegistry meterRegistry
+    ) {
+        this.enabled = enabled;
+        this.threshold = threshold;
+        this.pinnedCounter = Counter.builder("virtual.threads.pinned")
+                .description("Number of times a virtual thread stayed pinned to its carrier longer than the threshold")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled || Runtime.version().feature() < 21) {
+            return;
+        }
+
+        RecordingStream pinningStream = new RecordingStream();
+        pinningStream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        pinningStream.onEvent(PINNED_EVENT, this::onPinned);
+        pinningStream.startAsync();
+
+        stream = pinningStream;
+    }
+
+    @PreDestroy
+    public void stop() {
+        RecordingStream pinningStream = stream;
+        stream = null;
+
+        if (pinningStream != null) {
+            pinningStream.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinnedCounter.increment();
+
+        if (log.isWarnEnabled()) {
+            log.warn("Virtual thread pinned for {} ms:\n{}", event.getDuration().toMillis(), format(event.getStackTrace()));
+        }
+    }
+
+    private static String format(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "\t(no stack trace)";
+        }
+
+        return stackTrace.getFrames()
+                .stream()
+                .limit(LOGGED_FRAMES)
+                .map(VirtualThreadPinningMonitor::format)
+                .collect(Collectors.joining("\n"));
+    }
+
+    private static String format(RecordedFrame frame) {
+        return "\tat " + frame.getMethod().getType().getName() + '.' + frame.getMethod().getName()
+                + " (line " + frame.getLineNumber() + ')';
+    }
+}
@@ -0,0 +1,54 @@
+package com.aleksandrmakarovdev.helpdesk.datasource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Hands out replica connections for read-only transactions, or primary connections whenever
+ * the replica lags, is down, or the caller asked for read-your-writes.
+ */
+class ReplicaFallbackDataSource extends AbstractDataSource {
+
+    private final DataSource primaryDataSource;
+    private final DataSource replicaDataSource;
+    private final ReplicaLagMonitor replicaLagMonitor;
+
+    ReplicaFallbackDataSource(DataSource primaryDataSource, DataSource replicaDataSource, ReplicaLagMonitor replicaLagMonitor) {
+        this.primaryDataSource = primaryDataSource;
+        this.replicaDataSource = replicaDataSource;
+        this.replicaLagMonitor = replicaLagMonitor;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connect(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connect(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    private Connection connect(ConnectionFactory connectionFactory) throws SQLException {
+        if (ReplicaRouting.isPrimaryForced() || !replicaLagMonitor.isUsable()) {
+            return connectionFactory.connect(primaryDataSource);
+        }
+
+        try {
+            return connectionFactory.connect(replicaDataSource);
+        } catch (SQLException e) {
+            // Do not fail the read, the primary can serve it
+            replicaLagMonitor.markUnavailable(e);
+            return connectionFactory.connect(primaryDataSource);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConnectionFactory {
+
+        Connection connect(DataSource dataSource) throws SQLException;
+    }
+}
@@ -0,0 +1,93 @@
+package com.aleksandrmakarovdev.helpdesk.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Periodically measures the replication lag of the replica and decides whether it may serve reads.
+ * <p>
+ * The replica is used while its lag is at most {@code max-lag}. It is taken out of rotation when it lags further,
+ * when the check fails, or when a connection to it fails, and put back by the next successful check.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    // An idle primary sends no WAL, so a replica that has replayed everything it received is not lagging
+    private static final String LAG_SQL = """
+            select case
+                       when not pg_is_in_recovery() or pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0
+                       else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+                   end
+            """;
+
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final long maxLagMillis;
+
+    private volatile boolean usable;
+    private volatile long lagMillis = -1;
+
+    /**
+     * @param replicaDataSource The replica pool.
+     * @param maxLag            The maximum lag at which the replica still serves reads.
+     * @param meterRegistry     The registry for the lag gauges.
+     */
+    public ReplicaLagMonitor(DataSource replicaDataSource, Duration maxLag, MeterRegistry meterRegistry) {
+        this.replicaJdbcTemplate = new JdbcTemplate(replicaDataSource);
+        this.maxLagMillis = maxLag.toMillis();
+
+        Gauge.builder("datasource.replica.lag", this, monitor -> monitor.lagMillis / 1000.0)
+                .description("Replication lag of the replica in seconds, -1 if unknown")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("datasource.replica.usable", this, monitor -> monitor.usable ? 1 : 0)
+                .description("Whether read-only transactions are served by the replica")
+                .register(meterRegistry);
+    }
+
+    public boolean isUsable() {
+        return usable;
+    }
+
+    /**
+     * Measures the lag and updates whether the replica is usable.
+     */
+    @Scheduled(fixedDelayString = "${datasource.replica.check-interval:1s}")
+    public void check() {
+        try {
+            Long lag = replicaJdbcTemplate.queryForObject(LAG_SQL, Long.class);
+            lagMillis = lag != null ? lag : 0;
+
+            boolean wasUsable = usable;
+            usable = lagMillis <= maxLagMillis;
+
+            if (wasUsable != usable) {
+                log.info("Replica {} reads, lag {} ms", usable ? "serves" : "no longer serves", lagMillis);
+            }
+        } catch (RuntimeException e) {
+            markUnavailable(e);
+        }
+    }
+
+    /**
+     * Takes the replica out of rotation until the next successful check.
+     *
+     * @param cause The failure.
+     */
+    public void markUnavailable(Exception cause) {
+        lagMillis = -1;
+
+        if (usable) {
+            log.warn("Replica is unavailable, reading from the primary", cause);
+        }
+
+        usable = false;
+    }
+}
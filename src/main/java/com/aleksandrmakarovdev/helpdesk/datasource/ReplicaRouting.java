@@ -0,0 +1,75 @@
+package com.aleksandrmakarovdev.helpdesk.datasource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+/**
+ * Lets callers read from the primary although they run in a read-only transaction,
+ * which would otherwise go to the replica if {@code datasource.replica.enabled} is set.
+ * <p>
+ * Used for read-your-writes: a read that misses on the replica may be looking for a row
+ * committed on the primary moments ago, for example a login right after registration.
+ */
+@Component
+public class ReplicaRouting {
+
+    private static final ThreadLocal<Boolean> PRIMARY_FORCED = new ThreadLocal<>();
+
+    private final boolean enabled;
+    private final TransactionTemplate primaryReadTemplate;
+
+    public ReplicaRouting(
+            @Value("${datasource.replica.enabled:false}") boolean enabled,
+            PlatformTransactionManager transactionManager
+    ) {
+        this.enabled = enabled;
+
+        // A new transaction, so that the read gets its own connection instead of the replica one already bound
+        this.primaryReadTemplate = new TransactionTemplate(transactionManager);
+        this.primaryReadTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.primaryReadTemplate.setReadOnly(true);
+    }
+
+    /**
+     * @return {@code true} if read-only transactions may be served by a replica.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return {@code true} if the current thread must read from the primary.
+     */
+    static boolean isPrimaryForced() {
+        return PRIMARY_FORCED.get() != null;
+    }
+
+    /**
+     * Runs a read in a new read-only transaction on the primary.
+     * Without a replica it simply runs the read in the current transaction.
+     *
+     * @param read The read to run.
+     * @return The result of the read.
+     */
+    public <T> T readFromPrimary(Supplier<T> read) {
+        if (!enabled) {
+            return read.get();
+        }
+
+        Boolean previous = PRIMARY_FORCED.get();
+        PRIMARY_FORCED.set(Boolean.TRUE);
+
+        try {
+            return primaryReadTemplate.execute(status -> read.get());
+        } finally {
+            if (previous == null) {
+                PRIMARY_FORCED.remove();
+            }
+        }
+    }
+}
@@ -1,13 +1,17 @@
 package com.aleksandrmakarovdev.helpdesk.exception;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import io.swagger.v3.oas.annotations.Hidden;
 import jakarta.validation.ValidationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
 import org.springframework.security.core.AuthenticationException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -18,11 +22,18 @@ public class GlobalControllerExceptionAdvice {
 
     private static final Logger log = LoggerFactory.getLogger(GlobalControllerExceptionAdvice.class);
 
+    private final MeterRegistry meterRegistry;
+
+    public GlobalControllerExceptionAdvice(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     @ExceptionHandler(AuthenticationException.class)
     public ResponseEntity<ProblemDetail> handleAuthenticationException(final AuthenticationException e) {
         ProblemDetail problemDetail = ProblemDetail
                 .forStatusAndDetail(HttpStatus.UNAUTHORIZED, e.getMessage());
 
+        countError(e, problemDetail.getStatus());
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(problemDetail);
     }
 
@@ -31,6 +42,16 @@ public class GlobalControllerExceptionAdvice {
         ProblemDetail problemDetail = ProblemDetail
                 .forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getBindingResult().getAllErrors().get(0).getDefaultMessage());
 
+        countError(e, problemDetail.getStatus());
+        return ResponseEntity.status(problemDetail.getStatus()).body(problemDetail);
+    }
+
+    @ExceptionHandler({InvalidCursorException.class})
+    public ResponseEntity<ProblemDetail> handleInvalidCursorException(final InvalidCursorException e) {
+        ProblemDetail problemDetail = ProblemDetail
+                .forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
+
+        countError(e, problemDetail.getStatus());
         return ResponseEntity.status(problemDetail.getStatus()).body(problemDetail);
     }
 
@@ -39,6 +60,7 @@ public class GlobalControllerExceptionAdvice {
         ProblemDetail problemDetail = ProblemDetail
                 .forStatusAndDetail(HttpStatus.NOT_FOUND, e.getMessage());
 
+        countError(e, problemDetail.getStatus());
         return ResponseEntity.status(problemDetail.getStatus()).body(problemDetail);
     }
 
@@ -47,9 +69,34 @@ public class GlobalControllerExceptionAdvice {
         ProblemDetail problemDetail = ProblemDetail
                 .forStatusAndDetail(HttpStatus.CONFLICT, e.getMessage());
 
+        countError(e, problemDetail.getStatus());
         return ResponseEntity.status(problemDetail.getStatus()).body(problemDetail);
     }
 
+    @ExceptionHandler({PasswordHashingRejectedException.class})
+    public ResponseEntity<ProblemDetail> handlePasswordHashingRejectedException(final PasswordHashingRejectedException e) {
+        ProblemDetail problemDetail = ProblemDetail
+                .forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+
+        countError(e, problemDetail.getStatus());
+        return ResponseEntity.status(problemDetail.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfter().toSeconds()))
+                .body(problemDetail);
+    }
+
+    @ExceptionHandler({CannotCreateTransactionException.class, CannotGetJdbcConnectionException.class})
+    public ResponseEntity<ProblemDetail> handleConnectionUnavailableException(final Exception e) {
+        log.warn("No database connection available: {}", e.getMessage());
+
+        ProblemDetail problemDetail = ProblemDetail
+                .forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, "Server is busy, please try again later.");
+
+        countError(e, problemDetail.getStatus());
+        return ResponseEntity.status(problemDetail.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(problemDetail);
+    }
+
     @ExceptionHandler({Exception.class})
     public ResponseEntity<ProblemDetail> handleException(final Exception e) {
         log.error("Unexpected error occurred", e);
@@ -57,6 +104,20 @@ public class GlobalControllerExceptionAdvice {
         ProblemDetail problemDetail = ProblemDetail
                 .forStatusAndDetail(HttpStatus.INTERNAL_SERVER_ERROR, "Unexpected error occurred");
 
+        countError(e, problemDetail.getStatus());
         return ResponseEntity.status(problemDetail.getStatus()).body(problemDetail);
     }
+
+    /**
+     * Counts a handled exception as {@code api.errors}, tagged with the exception type and the response status.
+     *
+     * @param e      The handled exception.
+     * @param status The response status code.
+     */
+    private void countError(Exception e, int status) {
+        meterRegistry.counter("api.errors",
+                "exception", e.getClass().getSimpleName(),
+                "status", String.valueOf(status)
+        ).increment();
+    }
 }
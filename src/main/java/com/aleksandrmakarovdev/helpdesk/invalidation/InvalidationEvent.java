@@ -0,0 +1,41 @@
+package com.aleksandrmakarovdev.helpdesk.invalidation;
+
+/**
+ * A compact notification that cached state derived from the database has changed.
+ *
+ * @param type The kind of state that changed.
+ * @param key  What changed, its format depends on the type.
+ */
+public record InvalidationEvent(Type type, String key) {
+
+    public enum Type {
+
+        /**
+         * Password, roles or lockout state of the user with the username in the key.
+         */
+        USER,
+
+        /**
+         * The set of roles, the key is empty.
+         */
+        ROLES,
+
+        /**
+         * A single revoked access token, the key is {@code <jti>:<expiration in epoch milliseconds>}.
+         */
+        TOKEN,
+
+        /**
+         * All access tokens of a user, the key is {@code <user id>:<watermark in epoch milliseconds>}.
+         */
+        USER_TOKENS
+    }
+
+    public static InvalidationEvent user(String username) {
+        return new InvalidationEvent(Type.USER, username);
+    }
+
+    public static InvalidationEvent roles() {
+        return new InvalidationEvent(Type.ROLES, "");
+    }
+}
@@ -0,0 +1,21 @@
+package com.aleksandrmakarovdev.helpdesk.invalidation;
+
+/**
+ * Applies invalidation events published by other nodes to in-process state.
+ * Implementations are discovered as beans by the {@link InvalidationListener}.
+ */
+public interface InvalidationHandler {
+
+    /**
+     * Applies a single event. Events of types the handler does not care about are ignored.
+     *
+     * @param event The event published by another node.
+     */
+    void handle(InvalidationEvent event);
+
+    /**
+     * Brings the state back in line with the database after events may have been missed,
+     * for example while the listener was reconnecting.
+     */
+    void resync();
+}
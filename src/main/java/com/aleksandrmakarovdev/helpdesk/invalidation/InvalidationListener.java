@@ -0,0 +1,226 @@
+package com.aleksandrmakarovdev.helpdesk.invalidation;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Consumes invalidation events published by other nodes and dispatches them to all {@link InvalidationHandler}s.
+ * <p>
+ * Listens on a dedicated connection outside the pool, so it never holds a pooled connection.
+ * Notifications arriving close together are collected for a short window and deduplicated before dispatch.
+ * When the connection fails, the listener reconnects with exponential backoff and asks every handler to resync,
+ * because notifications sent while disconnected are lost. The same happens on startup.
+ */
+@Component
+public class InvalidationListener implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(InvalidationListener.class);
+
+    private final DataSourceProperties dataSourceProperties;
+    private final InvalidationPublisher publisher;
+    private final List<InvalidationHandler> handlers;
+    private final boolean enabled;
+    private final int pollTimeoutMillis;
+    private final int coalesceWindowMillis;
+    private final long validationIntervalMillis;
+    private final long minReconnectDelayMillis;
+    private final long maxReconnectDelayMillis;
+
+    private volatile boolean running;
+    private volatile Thread thread;
+    private volatile Connection connection;
+
+    public InvalidationListener(
+            DataSourceProperties dataSourceProperties,
+            InvalidationPublisher publisher,
+            List<InvalidationHandler> handlers,
+            @Value("${invalidation.enabled:true}") boolean enabled,
+            @Value("${invalidation.poll-timeout:500ms}") Duration pollTimeout,
+            @Value("${invalidation.coalesce-window:10ms}") Duration coalesceWindow,
+            @Value("${invalidation.validation-interval:30s}") Duration validationInterval,
+            @Value("${invalidation.min-reconnect-delay:1s}") Duration minReconnectDelay,
+            @Value("${invalidation.max-reconnect-delay:30s}") Duration maxReconnectDelay
+    ) {
+        this.dataSourceProperties = dataSourceProperties;
+        this.publisher = publisher;
+        this.handlers = handlers;
+        this.enabled = enabled;
+        this.pollTimeoutMillis = (int) pollTimeout.toMillis();
+        this.coalesceWindowMillis = (int) coalesceWindow.toMillis();
+        this.validationIntervalMillis = validationInterval.toMillis();
+        this.minReconnectDelayMillis = minReconnectDelay.toMillis();
+        this.maxReconnectDelayMillis = maxReconnectDelay.toMillis();
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+
+        running = true;
+
+        Thread listenerThread = new Thread(this::run, "invalidation-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+
+        thread = listenerThread;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+
+        Thread listenerThread = thread;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+
+        closeConnection();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        long reconnectDelay = minReconnectDelayMillis;
+
+        while (running) {
+            try {
+                connect();
+
+                // Anything may have changed while no one was listening
+                resync();
+                reconnectDelay = minReconnectDelayMillis;
+
+                listen();
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    break;
+                }
+                log.warn("Invalidation listener failed, reconnecting in {} ms", reconnectDelay, e);
+            } finally {
+                closeConnection();
+            }
+
+            try {
+                Thread.sleep(reconnectDelay);
+            } catch (InterruptedException e) {
+                break;
+            }
+
+            reconnectDelay = Math.min(reconnectDelay * 2, maxReconnectDelayMillis);
+        }
+    }
+
+    private void connect() throws SQLException {
+        Connection listenerConnection = DriverManager.getConnection(
+                dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(),
+                dataSourceProperties.determinePassword()
+        );
+        connection = listenerConnection;
+
+        try (Statement statement = listenerConnection.createStatement()) {
+            statement.execute("listen " + publisher.getChannel());
+        }
+
+        log.info("Listening for invalidation events on channel '{}'", publisher.getChannel());
+    }
+
+    private void listen() throws SQLException {
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        long lastValidatedAt = System.currentTimeMillis();
+
+        while (running) {
+            PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMillis);
+
+            if (notifications != null && notifications.length > 0) {
+                Set<InvalidationEvent> events = new LinkedHashSet<>();
+                collect(notifications, events);
+
+                // Give bursts, such as a flush of many lockouts, a moment to arrive and deduplicate them
+                collect(pgConnection.getNotifications(coalesceWindowMillis), events);
+
+                dispatch(events);
+                lastValidatedAt = System.currentTimeMillis();
+            } else if (System.currentTimeMillis() - lastValidatedAt > validationIntervalMillis) {
+
+                // A silently dropped connection would otherwise look like a quiet channel
+                if (!connection.isValid(5)) {
+                    throw new SQLException("Invalidation listener connection is no longer valid");
+                }
+                lastValidatedAt = System.currentTimeMillis();
+            }
+        }
+    }
+
+    private void collect(PGNotification[] notifications, Set<InvalidationEvent> events) {
+        if (notifications == null) {
+            return;
+        }
+
+        for (PGNotification notification : notifications) {
+            InvalidationPublisher.DecodedEvent decoded = InvalidationPublisher.decode(notification.getParameter());
+
+            if (decoded == null) {
+                log.warn("Ignoring malformed invalidation event '{}'", notification.getParameter());
+            } else if (!publisher.getNodeId().equals(decoded.nodeId())) {
+                // Events published by this node have been applied locally already
+                events.add(decoded.event());
+            }
+        }
+    }
+
+    private void dispatch(Set<InvalidationEvent> events) {
+        for (InvalidationEvent event : events) {
+            for (InvalidationHandler handler : handlers) {
+                try {
+                    handler.handle(event);
+                } catch (RuntimeException e) {
+                    log.error("Failed to handle invalidation event {}", event, e);
+                }
+            }
+        }
+    }
+
+    private void resync() {
+        for (InvalidationHandler handler : handlers) {
+            try {
+                handler.resync();
+            } catch (RuntimeException e) {
+                log.error("Failed to resync {}", handler.getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    private void closeConnection() {
+        Connection listenerConnection = connection;
+        connection = null;
+
+        if (listenerConnection != null) {
+            try {
+                listenerConnection.close();
+            } catch (SQLException e) {
+                log.debug("Failed to close invalidation listener connection", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.aleksandrmakarovdev.helpdesk.invalidation;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Publishes invalidation events to the other nodes through PostgreSQL {@code NOTIFY} on the regular datasource.
+ * <p>
+ * When called inside a transaction, the notification is delivered only if and when the transaction commits,
+ * so other nodes never reload state that was rolled back. The node publishing an event is expected
+ * to have applied it locally already.
+ */
+@Component
+public class InvalidationPublisher {
+
+    private static final String NOTIFY_SQL = "select pg_notify(?, ?)";
+    private static final String NOTIFY_ALL_SQL = "select pg_notify(?, payload) from unnest(?) as payload";
+    private static final RowCallbackHandler IGNORE_RESULT = resultSet -> {
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String channel;
+    private final boolean enabled;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public InvalidationPublisher(
+            JdbcTemplate jdbcTemplate,
+            @Value("${invalidation.channel:helpdesk_invalidation}") String channel,
+            @Value("${invalidation.enabled:true}") boolean enabled
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.channel = channel;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Notifies the other nodes of a change.
+     *
+     * @param event The invalidation event.
+     */
+    public void publish(InvalidationEvent event) {
+        if (enabled) {
+            jdbcTemplate.query(NOTIFY_SQL, IGNORE_RESULT, channel, encode(event));
+        }
+    }
+
+    /**
+     * Notifies the other nodes of several changes with a single statement.
+     *
+     * @param events The invalidation events.
+     */
+    public void publishAll(Collection<InvalidationEvent> events) {
+        if (!enabled || events.isEmpty()) {
+            return;
+        }
+
+        String[] payloads = events.stream().map(this::encode).toArray(String[]::new);
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(NOTIFY_ALL_SQL);
+            statement.setString(1, channel);
+            statement.setArray(2, connection.createArrayOf("text", payloads));
+            return statement;
+        }, IGNORE_RESULT);
+    }
+
+    /**
+     * The id of this node, used to skip notifications it published itself.
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    /**
+     * Encodes an event as {@code <node id>|<type>|<key>}, well below the 8000 byte payload limit of {@code NOTIFY}.
+     */
+    private String encode(InvalidationEvent event) {
+        return nodeId + '|' + event.type().name() + '|' + event.key();
+    }
+
+    /**
+     * Decodes a payload produced by {@link #encode(InvalidationEvent)}.
+     *
+     * @return The node id and the event, or {@code null} if the payload is malformed.
+     */
+    static DecodedEvent decode(String payload) {
+        String[] parts = payload.split("\\|", 3);
+
+        if (parts.length != 3) {
+            return null;
+        }
+
+        try {
+            return new DecodedEvent(parts[0], new InvalidationEvent(InvalidationEvent.Type.valueOf(parts[1]), parts[2]));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    record DecodedEvent(String nodeId, InvalidationEvent event) {
+    }
+}
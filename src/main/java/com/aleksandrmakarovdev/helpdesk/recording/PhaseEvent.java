@@ -0,0 +1,50 @@
+package com.aleksandrmakarovdev.helpdesk.recording;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event for one timed phase of a request, such as loading the user or issuing a token.
+ * Linked to its {@link RequestEvent} by the request id and committed right before it.
+ */
+@Name(PhaseEvent.NAME)
+@Label("Request Phase")
+@Description("A timed phase of login or registration")
+@Category({"Helpdesk", "Requests"})
+@StackTrace(false)
+public final class PhaseEvent extends Event {
+
+    static final String NAME = "helpdesk.Phase";
+
+    @Label("Request Id")
+    String requestId;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Phase Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    long phaseDuration;
+
+    /**
+     * Records a phase of the current request.
+     * The phase is buffered with the request and only committed if the request itself is recorded,
+     * so nothing is kept for requests below the threshold or outside a request. When no recording is running,
+     * this is a thread-local lookup and nothing is allocated.
+     *
+     * @param operation     The operation the phase belongs to.
+     * @param phase         The phase name.
+     * @param durationNanos The phase duration in nanoseconds.
+     */
+    public static void emit(String operation, String phase, long durationNanos) {
+        RequestRecordingFilter.bufferPhase(operation, phase, durationNanos);
+    }
+}
@@ -0,0 +1,33 @@
+package com.aleksandrmakarovdev.helpdesk.recording;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event spanning the handling of one HTTP request, emitted by {@link RequestRecordingFilter}.
+ */
+@Name(RequestEvent.NAME)
+@Label("HTTP Request")
+@Description("Handling of an HTTP request from the first filter to the response")
+@Category({"Helpdesk", "Requests"})
+@StackTrace(false)
+final class RequestEvent extends Event {
+
+    static final String NAME = "helpdesk.Request";
+
+    @Label("Request Id")
+    String requestId;
+
+    @Label("Method")
+    String method;
+
+    @Label("Path")
+    String path;
+
+    @Label("Status")
+    int status;
+}
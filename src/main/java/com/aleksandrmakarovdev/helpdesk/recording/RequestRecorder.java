@@ -0,0 +1,188 @@
+package com.aleksandrmakarovdev.helpdesk.recording;
+
+import com.aleksandrmakarovdev.helpdesk.recording.model.SlowRequest;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * Keeps an always-on JFR recording of the last requests and their phases, enabled with {@code request-recording.enabled}.
+ * <p>
+ * The recording only enables the application's own events, without stack traces. Requests faster than
+ * {@code request-threshold} are discarded when they end, together with the phases buffered for them,
+ * so only slow requests are written to the recording. Data older than {@code max-age} or beyond {@code max-size}
+ * is dropped by JFR.
+ */
+@Component
+public class RequestRecorder {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestRecorder.class);
+
+    private static final String RECORDING_NAME = "helpdesk-requests";
+
+    private final boolean enabled;
+    private final Duration requestThreshold;
+    private final Duration maxAge;
+    private final DataSize maxSize;
+
+    private volatile Recording recording;
+
+    public RequestRecorder(
+            @Value("${request-recording.enabled:true}") boolean enabled,
+            @Value("${request-recording.request-threshold:100ms}") Duration requestThreshold,
+            @Value("${request-recording.max-age:30m}") Duration maxAge,
+            @Value("${request-recording.max-size:64MB}") DataSize maxSize
+    ) {
+        this.enabled = enabled;
+        this.requestThreshold = requestThreshold;
+        this.maxAge = maxAge;
+        this.maxSize = maxSize;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+
+        Recording requestRecording = new Recording();
+        requestRecording.setName(RECORDING_NAME);
+        requestRecording.enable(RequestEvent.class).withThreshold(requestThreshold);
+
+        // Phases are only committed along with a request that passed the threshold, see RequestRecordingFilter
+        requestRecording.enable(PhaseEvent.class);
+
+        requestRecording.setToDisk(true);
+        requestRecording.setMaxAge(maxAge);
+        requestRecording.setMaxSize(maxSize.toBytes());
+        requestRecording.start();
+
+        recording = requestRecording;
+
+        log.info("Recording requests slower than {} for the last {}", requestThreshold, maxAge);
+    }
+
+    @PreDestroy
+    public void stop() {
+        Recording requestRecording = recording;
+        recording = null;
+
+        if (requestRecording != null) {
+            requestRecording.close();
+        }
+    }
+
+    /**
+     * Finds the slowest recorded requests of a recent time window.
+     * Requests below the recording's {@code request-threshold} are never recorded, whatever the given threshold.
+     *
+     * @param window    How far back to look.
+     * @param threshold The minimum request duration.
+     * @param limit     The maximum number of requests to return.
+     * @return The matching requests with their phases, slowest first.
+     * @throws IllegalStateException If request recording is disabled.
+     */
+    public List<SlowRequest> findSlowRequests(Duration window, Duration threshold, int limit) {
+        Recording requestRecording = recording;
+
+        if (requestRecording == null) {
+            throw new IllegalStateException("Request recording is disabled.");
+        }
+
+        Instant since = Instant.now().minus(window);
+
+        // The slowest requests seen so far, the fastest of them on top
+        PriorityQueue<RecordedEvent> slowest = new PriorityQueue<>(Comparator.comparing(RecordedEvent::getDuration));
+        Map<String, List<SlowRequest.Phase>> phases = new HashMap<>();
+
+        readEvents(requestRecording, event -> {
+            if (event.getStartTime().isBefore(since)) {
+                return;
+            }
+
+            String eventName = event.getEventType().getName();
+
+            if (PhaseEvent.NAME.equals(eventName) && event.getString("requestId") != null) {
+                // Phases are committed before their request, so keep them until all requests are known
+                phases.computeIfAbsent(event.getString("requestId"), requestId -> new ArrayList<>())
+                        .add(new SlowRequest.Phase(
+                                event.getString("operation"),
+                                event.getString("phase"),
+                                toMillis(event.getDuration("phaseDuration"))
+                        ));
+            } else if (RequestEvent.NAME.equals(eventName) && event.getDuration().compareTo(threshold) >= 0) {
+                slowest.add(event);
+
+                if (slowest.size() > limit) {
+                    slowest.poll();
+                }
+            }
+        });
+
+        return slowest.stream()
+                .sorted(Comparator.comparing(RecordedEvent::getDuration, Comparator.reverseOrder()))
+                .map(event -> new SlowRequest(
+                        event.getString("requestId"),
+                        event.getString("method"),
+                        event.getString("path"),
+                        event.getInt("status"),
+                        event.getStartTime(),
+                        toMillis(event.getDuration()),
+                        phases.getOrDefault(event.getString("requestId"), List.of())
+                ))
+                .toList();
+    }
+
+    /**
+     * Dumps the recording to a temporary file and streams its events to the consumer one at a time.
+     */
+    private static void readEvents(Recording requestRecording, Consumer<RecordedEvent> consumer) {
+        Path file = null;
+
+        try {
+            file = Files.createTempFile(RECORDING_NAME, ".jfr");
+            requestRecording.dump(file);
+
+            try (RecordingFile recordingFile = new RecordingFile(file)) {
+                while (recordingFile.hasMoreEvents()) {
+                    consumer.accept(recordingFile.readEvent());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read the request recording", e);
+        } finally {
+            if (file != null) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    log.debug("Failed to delete {}", file, e);
+                }
+            }
+        }
+    }
+
+    private static double toMillis(Duration duration) {
+        return duration.toNanos() / 1_000_000.0;
+    }
+}
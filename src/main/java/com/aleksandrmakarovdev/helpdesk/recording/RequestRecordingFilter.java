@@ -0,0 +1,142 @@
+package com.aleksandrmakarovdev.helpdesk.recording;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Assigns every request an id and records its handling as a {@link RequestEvent}.
+ * <p>
+ * The id is taken from the {@code X-Request-Id} header if the client sent a short alphanumeric one, otherwise generated.
+ * It is returned in the same header and available to {@link PhaseEvent}s emitted while the request is handled.
+ * Phases are buffered with the request while a recording is running and committed only if the request
+ * passes the recording threshold. Runs before all other filters, so the event covers security and rate limiting as well.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestRecordingFilter extends OncePerRequestFilter {
+
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+
+    private static final int MAX_REQUEST_ID_LENGTH = 64;
+
+    private static final ThreadLocal<CurrentRequest> CURRENT_REQUEST = new ThreadLocal<>();
+
+    /**
+     * @return The id of the request handled by the current thread, or {@code null} outside a request.
+     */
+    public static String currentRequestId() {
+        CurrentRequest currentRequest = CURRENT_REQUEST.get();
+        return currentRequest != null ? currentRequest.id : null;
+    }
+
+    /**
+     * Buffers a phase of the request handled by the current thread, see {@link PhaseEvent#emit}.
+     */
+    static void bufferPhase(String operation, String phase, long durationNanos) {
+        CurrentRequest currentRequest = CURRENT_REQUEST.get();
+
+        // Nothing to keep outside a request or while no recording is running
+        if (currentRequest == null || !currentRequest.recording) {
+            return;
+        }
+
+        if (currentRequest.phases == null) {
+            currentRequest.phases = new ArrayList<>();
+        }
+
+        currentRequest.phases.add(new BufferedPhase(operation, phase, durationNanos));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        String requestId = requestId(request);
+        RequestEvent event = new RequestEvent();
+
+        CurrentRequest currentRequest = new CurrentRequest(requestId, event.isEnabled());
+        CURRENT_REQUEST.set(currentRequest);
+        response.setHeader(REQUEST_ID_HEADER, requestId);
+
+        event.begin();
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            event.end();
+
+            // False unless a recording is running and the request took longer than its threshold
+            if (event.shouldCommit()) {
+                commitPhases(currentRequest);
+
+                event.requestId = requestId;
+                event.method = request.getMethod();
+                event.path = request.getRequestURI();
+                event.status = response.getStatus();
+                event.commit();
+            }
+
+            CURRENT_REQUEST.remove();
+        }
+    }
+
+    private static void commitPhases(CurrentRequest currentRequest) {
+        if (currentRequest.phases == null) {
+            return;
+        }
+
+        for (BufferedPhase bufferedPhase : currentRequest.phases) {
+            PhaseEvent phaseEvent = new PhaseEvent();
+            phaseEvent.requestId = currentRequest.id;
+            phaseEvent.operation = bufferedPhase.operation();
+            phaseEvent.phase = bufferedPhase.phase();
+            phaseEvent.phaseDuration = bufferedPhase.durationNanos();
+            phaseEvent.commit();
+        }
+    }
+
+    private static String requestId(HttpServletRequest request) {
+        String requestId = request.getHeader(REQUEST_ID_HEADER);
+
+        if (requestId == null || requestId.isEmpty() || requestId.length() > MAX_REQUEST_ID_LENGTH) {
+            return UUID.randomUUID().toString();
+        }
+
+        // The id is echoed in a header and shown in recordings, do not accept arbitrary client input
+        for (int i = 0; i < requestId.length(); i++) {
+            char c = requestId.charAt(i);
+
+            if (!Character.isLetterOrDigit(c) && c != '-' && c != '_' && c != '.') {
+                return UUID.randomUUID().toString();
+            }
+        }
+
+        return requestId;
+    }
+
+    private static final class CurrentRequest {
+
+        private final String id;
+        private final boolean recording;
+        private List<BufferedPhase> phases;
+
+        private CurrentRequest(String id, boolean recording) {
+            this.id = id;
+            this.recording = recording;
+        }
+    }
+
+    private record BufferedPhase(String operation, String phase, long durationNanos) {
+    }
+}
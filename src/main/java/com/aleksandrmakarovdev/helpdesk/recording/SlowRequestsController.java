@@ -0,0 +1,43 @@
+package com.aleksandrmakarovdev.helpdesk.recording;
+
+import com.aleksandrmakarovdev.helpdesk.recording.model.SlowRequest;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.List;
+
+@Tag(name = "Admin recordings", description = "Administrative endpoints for the request flight recorder")
+@RestController
+@RequestMapping("/api/admin/slow-requests")
+@RequiredArgsConstructor
+public class SlowRequestsController {
+
+    private final RequestRecorder requestRecorder;
+
+    /**
+     * Endpoint to list the slowest requests of the last minutes, with the time spent in each recorded phase.
+     *
+     * @param minutes     How many minutes back to look.
+     * @param thresholdMs The minimum request duration in milliseconds.
+     * @param limit       The maximum number of requests to return.
+     * @return A ResponseEntity containing the matching requests, slowest first.
+     */
+    @GetMapping
+    public ResponseEntity<List<SlowRequest>> getSlowRequests(
+            @RequestParam(defaultValue = "5") int minutes,
+            @RequestParam(defaultValue = "500") long thresholdMs,
+            @RequestParam(defaultValue = "100") int limit
+    ) {
+        return ResponseEntity.ok().body(requestRecorder.findSlowRequests(
+                Duration.ofMinutes(Math.max(minutes, 1)),
+                Duration.ofMillis(Math.max(thresholdMs, 0)),
+                Math.max(limit, 1)
+        ));
+    }
+}
@@ -0,0 +1,21 @@
+package com.aleksandrmakarovdev.helpdesk.recording.model;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A recorded request that took longer than the requested threshold, with the phases recorded during it.
+ */
+public record SlowRequest(
+        String requestId,
+        String method,
+        String path,
+        int status,
+        Instant startedAt,
+        double durationMillis,
+        List<Phase> phases
+) {
+
+    public record Phase(String operation, String phase, double durationMillis) {
+    }
+}
@@ -0,0 +1,66 @@
+package com.aleksandrmakarovdev.helpdesk.security;
+
+import com.aleksandrmakarovdev.helpdesk.recording.PhaseEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers for the phases of login and registration, published as {@code auth.phase}
+ * with the tags {@code operation} and {@code phase}.
+ * <p>
+ * All timers are registered up front and kept in an {@link EnumMap}, so recording a phase costs two
+ * {@link System#nanoTime()} calls and a timer update, without any registry lookup or allocation.
+ * Percentile histograms are enabled through {@code management.metrics.distribution.percentiles-histogram}.
+ * Each phase is also emitted as a {@link PhaseEvent}, so slow requests can be broken down individually.
+ */
+@Component
+public class AuthPhaseMetrics {
+
+    public enum Phase {
+        LOGIN_AUTHENTICATE("login", "authenticate"),
+        LOGIN_USER_LOAD("login", "user-load"),
+        LOGIN_REFRESH_TOKEN_ISSUE("login", "refresh-token-issue"),
+        LOGIN_REFRESH_TOKEN_INSERT("login", "refresh-token-insert"),
+        LOGIN_ACCESS_TOKEN_ISSUE("login", "access-token-issue"),
+        REGISTER_PASSWORD_HASH("register", "password-hash"),
+        REGISTER_USER_INSERT("register", "user-insert");
+
+        private final String operation;
+        private final String phase;
+
+        Phase(String operation, String phase) {
+            this.operation = operation;
+            this.phase = phase;
+        }
+    }
+
+    private final Map<Phase, Timer> timers = new EnumMap<>(Phase.class);
+
+    public AuthPhaseMetrics(MeterRegistry meterRegistry) {
+        for (Phase phase : Phase.values()) {
+            timers.put(phase, Timer.builder("auth.phase")
+                    .description("Time spent in a phase of login or registration")
+                    .tag("operation", phase.operation)
+                    .tag("phase", phase.phase)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Records a phase that started at the given time and ends now.
+     *
+     * @param phase     The phase.
+     * @param startedAt The start of the phase from {@link System#nanoTime()}.
+     */
+    public void record(Phase phase, long startedAt) {
+        long duration = System.nanoTime() - startedAt;
+
+        timers.get(phase).record(duration, TimeUnit.NANOSECONDS);
+        PhaseEvent.emit(phase.operation, phase.phase, duration);
+    }
+}
@@ -0,0 +1,50 @@
+package com.aleksandrmakarovdev.helpdesk.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+/**
+ * Picks a BCrypt strength for this machine by timing real hashes.
+ * Each strength step doubles the work, so the search stops as soon as the next step would exceed the target.
+ */
+public final class BCryptStrengthTuner {
+
+    private static final String SAMPLE_PASSWORD = "strength-tuning-sample";
+
+    private BCryptStrengthTuner() {
+    }
+
+    /**
+     * Finds the highest strength whose hash time stays within the target latency.
+     *
+     * @param target      The desired time to hash or verify one password.
+     * @param minStrength The lowest acceptable strength, returned even if it is slower than the target.
+     * @param maxStrength The highest strength to consider.
+     * @return The tuned strength.
+     */
+    public static int tune(Duration target, int minStrength, int maxStrength) {
+        long targetNanos = target.toNanos();
+
+        // Warm up the JIT so the first measurement is not dominated by interpretation
+        new BCryptPasswordEncoder(4).encode(SAMPLE_PASSWORD);
+
+        int strength = minStrength;
+        long elapsed = measure(strength);
+
+        while (strength < maxStrength && elapsed * 2 <= targetNanos) {
+            strength++;
+            elapsed = measure(strength);
+        }
+
+        return strength;
+    }
+
+    private static long measure(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+
+        long startedAt = System.nanoTime();
+        encoder.encode(SAMPLE_PASSWORD);
+        return System.nanoTime() - startedAt;
+    }
+}
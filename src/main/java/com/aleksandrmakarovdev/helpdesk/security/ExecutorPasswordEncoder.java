@@ -0,0 +1,59 @@
+package com.aleksandrmakarovdev.helpdesk.security;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.Future;
+
+/**
+ * Delegates hashing and verification to {@link PasswordHashingExecutor},
+ * so callers on request threads wait for a hashing thread instead of burning CPU themselves.
+ */
+@RequiredArgsConstructor
+public class ExecutorPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final PasswordHashingExecutor executor;
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return executor.encode(() -> delegate.encode(rawPassword));
+    }
+
+    /**
+     * Queues a password for hashing and returns without waiting, see {@link PasswordHashingExecutor#submitEncode}.
+     *
+     * @param rawPassword The password to hash.
+     * @return The pending hash, {@link #await(Future)} waits for it.
+     */
+    public Future<String> encodeAsync(CharSequence rawPassword) {
+        return executor.submitEncode(() -> delegate.encode(rawPassword));
+    }
+
+    /**
+     * Waits for a hash queued with {@link #encodeAsync(CharSequence)}.
+     *
+     * @param pendingHash The pending hash.
+     * @return The password hash.
+     */
+    public String await(Future<String> pendingHash) {
+        return executor.await(pendingHash);
+    }
+
+    /**
+     * @return The number of passwords that can be hashed at the same time.
+     */
+    public int getParallelism() {
+        return executor.getPoolSize();
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return executor.matches(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
@@ -0,0 +1,115 @@
+package com.aleksandrmakarovdev.helpdesk.security;
+
+import com.aleksandrmakarovdev.helpdesk.user.model.TokenClaims;
+import com.aleksandrmakarovdev.helpdesk.user.util.JwtUtil;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.UUID;
+
+@Component
+@RequiredArgsConstructor
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtUtil jwtUtil;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final TokenRevocationService tokenRevocationService;
+
+    /**
+     * Authenticates the request from the bearer access token, if one is present.
+     * The authentication is built from the token's claims alone, without a database lookup.
+     * Recently verified tokens are served from {@link VerifiedTokenCache} to skip signature verification,
+     * revocation is checked on every request. Requests with a missing, invalid or revoked token continue
+     * unauthenticated.
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+
+        if (header == null || !header.startsWith(BEARER_PREFIX)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String token = header.substring(BEARER_PREFIX.length());
+
+        Authentication authentication = verifiedTokenCache.get(token);
+
+        if (authentication == null) {
+            authentication = authenticate(token);
+        }
+
+        if (authentication != null && !isRevoked(authentication)) {
+            SecurityContext context = SecurityContextHolder.createEmptyContext();
+            context.setAuthentication(authentication);
+            SecurityContextHolder.setContext(context);
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Verifies the token and builds an authentication from its claims.
+     *
+     * @param token The raw bearer token.
+     * @return The authentication, or {@code null} if the token is not a valid access token.
+     */
+    private Authentication authenticate(String token) {
+        TokenClaims claims;
+
+        try {
+            claims = jwtUtil.parse(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+
+        // Refresh tokens carry only the subject and must not be accepted as access tokens
+        if (claims.username() == null || claims.roles() == null) {
+            return null;
+        }
+
+        // Revocation watermarks are compared against the issue time
+        if (claims.issuedAt() == null) {
+            return null;
+        }
+
+        // Credentials and lockout state are not part of the token, they were checked when it was issued
+        WebUserDetails userDetails = new WebUserDetails(
+                UUID.fromString(claims.subject()), claims.username(), null, null, claims.roles()
+        );
+
+        UsernamePasswordAuthenticationToken authentication = UsernamePasswordAuthenticationToken.authenticated(
+                userDetails, null, userDetails.getAuthorities()
+        );
+
+        // Keep the claims for revocation checks and logout
+        authentication.setDetails(claims);
+
+        verifiedTokenCache.put(token, authentication, claims.expiresAt());
+
+        return authentication;
+    }
+
+    private boolean isRevoked(Authentication authentication) {
+        WebUserDetails userDetails = (WebUserDetails) authentication.getPrincipal();
+        TokenClaims claims = (TokenClaims) authentication.getDetails();
+
+        return tokenRevocationService.isRevoked(claims.tokenId(), userDetails.getId(), claims.issuedAt().toEpochMilli());
+    }
+}
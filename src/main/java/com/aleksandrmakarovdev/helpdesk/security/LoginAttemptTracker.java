@@ -0,0 +1,337 @@
+package com.aleksandrmakarovdev.helpdesk.security;
+
+import com.aleksandrmakarovdev.helpdesk.invalidation.InvalidationEvent;
+import com.aleksandrmakarovdev.helpdesk.invalidation.InvalidationPublisher;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tracks failed logins of existing users and locks accounts out after too many consecutive failures.
+ * <p>
+ * Counters live in a {@link ConcurrentHashMap} and are updated with compare-and-set, so concurrent
+ * attempts never block each other. Locked accounts are rejected before the user is loaded or the password
+ * is hashed. A counter starts from the values stored in {@code users} when a user first fails on this node,
+ * so restarts do not reset it, and the number of tracked users is bounded.
+ * <p>
+ * Counter changes are added to {@code users.access_failed_count} in periodic batches instead of one write
+ * per attempt. The database sums the failures of all nodes, locks the account out once the sum reaches
+ * the maximum and returns the merged state, so a cluster allows about the maximum number of failures
+ * per account rather than that number per node. Other nodes learn about the lockout through the
+ * invalidated user, whose reloaded lockout state rejects the login.
+ */
+@Component
+public class LoginAttemptTracker {
+
+    private static final Logger log = LoggerFactory.getLogger(LoginAttemptTracker.class);
+
+    private static final String SELECT_SQL =
+            "select access_failed_count, lockout_expires_at, last_failed_at from users where username = ?";
+
+    // Failures of the batch are added to the stored count, unless a success or an expired window resets it first
+    private static final String FAILURES_SQL = """
+            case when d.reset or u.last_failed_at < ? then 0 else coalesce(u.access_failed_count, 0) end + d.failures""";
+
+    private static final String UPDATE_SQL = """
+            update users u
+            set access_failed_count = case when %1$s >= ? then 0 else %1$s end,
+                lockout_expires_at  = case when %1$s >= ? then greatest(u.lockout_expires_at, ?) else u.lockout_expires_at end,
+                last_failed_at      = case when d.failures > 0 then ? else u.last_failed_at end
+            from unnest(?::varchar[], ?::boolean[], ?::int[]) as d(username, reset, failures)
+            where u.username = d.username
+              and (d.failures > 0 or coalesce(u.access_failed_count, 0) <> 0)
+            returning u.username, u.access_failed_count, u.lockout_expires_at
+            """.formatted(FAILURES_SQL);
+
+    private static final AttemptState CLEARED = new AttemptState(0, 0, 0);
+
+    private static final PendingChange FAILURE = new PendingChange(false, 1);
+    private static final PendingChange RESET = new PendingChange(true, 0);
+
+    private final ConcurrentHashMap<String, AtomicReference<AttemptState>> attempts = new ConcurrentHashMap<>();
+
+    // Changes not yet written to the database, by username
+    private final ConcurrentHashMap<String, PendingChange> pending = new ConcurrentHashMap<>();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserDetailsCache userDetailsCache;
+    private final InvalidationPublisher invalidationPublisher;
+    private final int maxFailedAttempts;
+    private final long lockoutMillis;
+    private final long failureWindowMillis;
+    private final int batchSize;
+    private final int maxTrackedUsers;
+
+    public LoginAttemptTracker(
+            JdbcTemplate jdbcTemplate,
+            UserDetailsCache userDetailsCache,
+            InvalidationPublisher invalidationPublisher,
+            @Value("${security.lockout.max-failed-attempts:5}") int maxFailedAttempts,
+            @Value("${security.lockout.duration:15m}") Duration lockoutDuration,
+            @Value("${security.lockout.failure-window:15m}") Duration failureWindow,
+            @Value("${security.lockout.batch-size:500}") int batchSize,
+            @Value("${security.lockout.max-tracked-users:100000}") int maxTrackedUsers
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.userDetailsCache = userDetailsCache;
+        this.invalidationPublisher = invalidationPublisher;
+        this.maxFailedAttempts = maxFailedAttempts;
+        this.lockoutMillis = lockoutDuration.toMillis();
+        this.failureWindowMillis = failureWindow.toMillis();
+        this.batchSize = batchSize;
+        this.maxTrackedUsers = maxTrackedUsers;
+    }
+
+    /**
+     * Checks whether the account is locked out, without touching the database.
+     *
+     * @param username The username of the login attempt.
+     * @return {@code true} if the account is currently locked out.
+     */
+    public boolean isLocked(String username) {
+        AtomicReference<AttemptState> reference = attempts.get(username);
+
+        return reference != null && reference.get().lockedUntil() > System.currentTimeMillis();
+    }
+
+    /**
+     * Records a failed login of an existing user. The account is locked out once the failures reach
+     * the configured maximum, after which the failure counter starts over.
+     * Failed logins of unknown usernames must not be recorded, they would only grow the map.
+     *
+     * @param username The username of the login attempt.
+     */
+    public void recordFailure(String username) {
+        long now = System.currentTimeMillis();
+        AtomicReference<AttemptState> reference = track(username, now);
+
+        // Without local state the failure still counts, the database locks the account at the next flush
+        if (reference != null) {
+            AttemptState current;
+            AttemptState next;
+
+            do {
+                current = reference.get();
+
+                // Failures older than the window do not count towards a lockout
+                int failures = now - current.lastFailureAt() > failureWindowMillis ? 1 : current.failures() + 1;
+
+                next = failures >= maxFailedAttempts
+                        ? new AttemptState(0, now + lockoutMillis, now)
+                        : new AttemptState(failures, current.lockedUntil(), now);
+            } while (!reference.compareAndSet(current, next));
+        }
+
+        pending.merge(username, FAILURE, PendingChange::then);
+    }
+
+    /**
+     * Records a successful login and clears the failure counter, including the one stored in the database.
+     *
+     * @param username The username of the login attempt.
+     */
+    public void recordSuccess(String username) {
+        attempts.remove(username);
+
+        // Written only if the stored counter is not zero already
+        pending.put(username, RESET);
+    }
+
+    /**
+     * Returns the state of a user, starting from the stored counters the first time the user fails on this node.
+     *
+     * @return The state, or {@code null} if too many users are tracked already.
+     */
+    private AtomicReference<AttemptState> track(String username, long now) {
+        AtomicReference<AttemptState> reference = attempts.get(username);
+
+        if (reference != null) {
+            return reference;
+        }
+
+        if (attempts.size() >= maxTrackedUsers) {
+            evictIdle(now);
+
+            if (attempts.size() >= maxTrackedUsers) {
+                return null;
+            }
+        }
+
+        // Loaded outside of computeIfAbsent, which must not block on the database
+        AttemptState stored = load(username, now);
+
+        reference = attempts.putIfAbsent(username, new AtomicReference<>(stored));
+
+        return reference != null ? reference : attempts.get(username);
+    }
+
+    private AttemptState load(String username, long now) {
+        try {
+            List<AttemptState> states = jdbcTemplate.query(SELECT_SQL, (resultSet, rowNum) -> {
+                Timestamp lockoutExpiresAt = resultSet.getTimestamp("lockout_expires_at");
+                Timestamp lastFailedAt = resultSet.getTimestamp("last_failed_at");
+
+                long lastFailureAt = lastFailedAt != null ? lastFailedAt.getTime() : 0;
+                int failures = now - lastFailureAt > failureWindowMillis ? 0 : resultSet.getInt("access_failed_count");
+
+                return new AttemptState(failures, lockoutExpiresAt != null ? lockoutExpiresAt.getTime() : 0, lastFailureAt);
+            }, username);
+
+            return states.isEmpty() ? CLEARED : states.get(0);
+        } catch (RuntimeException e) {
+            // Counting from zero only delays the lockout, the database still sums all failures on flush
+            log.warn("Failed to load login attempt counters of '{}'", username, e);
+            return CLEARED;
+        }
+    }
+
+    /**
+     * Adds the changed counters to the database in batches, applies the merged state and forgets entries
+     * that are no longer relevant.
+     */
+    @Scheduled(fixedDelayString = "${security.lockout.flush-interval:1s}")
+    public void flush() {
+        long now = System.currentTimeMillis();
+        List<String> usernames = new ArrayList<>(Math.min(pending.size(), batchSize));
+        List<PendingChange> changes = new ArrayList<>(Math.min(pending.size(), batchSize));
+
+        Iterator<String> iterator = pending.keySet().iterator();
+
+        while (iterator.hasNext()) {
+            String username = iterator.next();
+            PendingChange change = pending.remove(username);
+
+            if (change == null) {
+                continue;
+            }
+
+            usernames.add(username);
+            changes.add(change);
+
+            if (usernames.size() == batchSize) {
+                write(usernames, changes, now);
+                usernames.clear();
+                changes.clear();
+            }
+        }
+
+        if (!usernames.isEmpty()) {
+            write(usernames, changes, now);
+        }
+
+        evictIdle(now);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void write(List<String> usernames, List<PendingChange> changes, long now) {
+        Boolean[] resets = changes.stream().map(PendingChange::reset).toArray(Boolean[]::new);
+        Integer[] failures = changes.stream().map(PendingChange::failures).toArray(Integer[]::new);
+        List<InvalidationEvent> changed = new ArrayList<>();
+
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(UPDATE_SQL);
+                Timestamp windowStart = new Timestamp(now - failureWindowMillis);
+
+                statement.setTimestamp(1, windowStart);
+                statement.setInt(2, maxFailedAttempts);
+                statement.setTimestamp(3, windowStart);
+                statement.setTimestamp(4, windowStart);
+                statement.setInt(5, maxFailedAttempts);
+                statement.setTimestamp(6, new Timestamp(now + lockoutMillis));
+                statement.setTimestamp(7, new Timestamp(now));
+                statement.setArray(8, connection.createArrayOf("varchar", usernames.toArray()));
+                statement.setArray(9, connection.createArrayOf("boolean", resets));
+                statement.setArray(10, connection.createArrayOf("integer", failures));
+                return statement;
+            }, resultSet -> {
+                String username = resultSet.getString("username");
+                Timestamp lockoutExpiresAt = resultSet.getTimestamp("lockout_expires_at");
+
+                apply(username, resultSet.getInt("access_failed_count"),
+                        lockoutExpiresAt != null ? lockoutExpiresAt.getTime() : 0, now);
+
+                // Cached snapshots carry the lockout state that has just changed
+                userDetailsCache.removeUserFromCache(username);
+                changed.add(InvalidationEvent.user(username));
+            });
+        } catch (RuntimeException e) {
+            // The in-memory state stays authoritative on this node, losing a batch only delays persistence
+            log.warn("Failed to persist {} login attempt counters", usernames.size(), e);
+        }
+
+        if (!changed.isEmpty()) {
+            publish(changed);
+        }
+    }
+
+    /**
+     * Applies the state merged from all nodes to the local counter of a user.
+     */
+    private void apply(String username, int storedFailures, long storedLockedUntil, long now) {
+        AtomicReference<AttemptState> reference = attempts.get(username);
+
+        if (reference == null) {
+            return;
+        }
+
+        reference.updateAndGet(current -> storedLockedUntil > now
+                ? new AttemptState(0, Math.max(current.lockedUntil(), storedLockedUntil), current.lastFailureAt())
+                : new AttemptState(Math.max(current.failures(), storedFailures), current.lockedUntil(), current.lastFailureAt()));
+    }
+
+    private void publish(List<InvalidationEvent> changed) {
+        try {
+            invalidationPublisher.publishAll(changed);
+        } catch (RuntimeException e) {
+            // Other nodes fall back to the expiry of their cached entries
+            log.warn("Failed to publish {} lockout changes", changed.size(), e);
+        }
+    }
+
+    /**
+     * Drops entries that are neither locked nor within the failure window, so that the map only holds
+     * users that are currently failing or locked out.
+     */
+    private void evictIdle(long now) {
+        for (Map.Entry<String, AtomicReference<AttemptState>> entry : attempts.entrySet()) {
+            AttemptState state = entry.getValue().get();
+
+            if (state.lockedUntil() <= now && now - state.lastFailureAt() > failureWindowMillis
+                    && !pending.containsKey(entry.getKey())) {
+                attempts.remove(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private record AttemptState(int failures, long lockedUntil, long lastFailureAt) {
+    }
+
+    /**
+     * Failures recorded since the last flush, after a reset of the stored counter if {@code reset} is set.
+     */
+    private record PendingChange(boolean reset, int failures) {
+
+        PendingChange then(PendingChange next) {
+            return next.reset() ? next : new PendingChange(reset, failures + next.failures());
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.aleksandrmakarovdev.helpdesk.security;
+
+import com.aleksandrmakarovdev.helpdesk.exception.PasswordHashingRejectedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs CPU-bound password hashing on a dedicated pool sized to the number of cores,
+ * so a burst of logins cannot occupy every request thread with hashing.
+ * When the bounded queue is full, new work is rejected immediately instead of queueing without limit.
+ */
+@Component
+public class PasswordHashingExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final Duration retryAfter;
+
+    private final Timer encodeWaitTimer;
+    private final Timer encodeTimer;
+    private final Timer matchesWaitTimer;
+    private final Timer matchesTimer;
+    private final Counter rejectedCounter;
+
+    public PasswordHashingExecutor(
+            @Value("${security.password-hashing.pool-size:0}") int poolSize,
+            @Value("${security.password-hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${security.password-hashing.retry-after:1s}") Duration retryAfter,
+            MeterRegistry meterRegistry
+    ) {
+        // Zero means one hashing thread per available core
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+
+        this.executor = new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new HashingThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.retryAfter = retryAfter;
+
+        Gauge.builder("password.hashing.queue.size", executor, e -> e.getQueue().size())
+                .description("Number of password hashing tasks waiting for a thread")
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Number of password hashing tasks currently running")
+                .register(meterRegistry);
+
+        this.encodeWaitTimer = waitTimer("encode", meterRegistry);
+        this.encodeTimer = hashTimer("encode", meterRegistry);
+        this.matchesWaitTimer = waitTimer("matches", meterRegistry);
+        this.matchesTimer = hashTimer("matches", meterRegistry);
+
+        this.rejectedCounter = Counter.builder("password.hashing.rejected")
+                .description("Number of password hashing tasks rejected because the queue was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Hashes a password on the hashing pool and waits for the result.
+     *
+     * @param task The hashing task.
+     * @return The password hash.
+     * @throws PasswordHashingRejectedException If the hashing queue is full.
+     */
+    public String encode(Supplier<String> task) {
+        return execute(task, encodeWaitTimer, encodeTimer);
+    }
+
+    /**
+     * Verifies a password on the hashing pool and waits for the result.
+     *
+     * @param task The verification task.
+     * @return Whether the password matches the hash.
+     * @throws PasswordHashingRejectedException If the hashing queue is full.
+     */
+    public boolean matches(Supplier<Boolean> task) {
+        return execute(task, matchesWaitTimer, matchesTimer);
+    }
+
+    /**
+     * Queues a password for hashing without waiting for the result, so that several passwords can be hashed in parallel.
+     *
+     * @param task The hashing task.
+     * @return The pending password hash, {@link #await(Future)} waits for it.
+     * @throws PasswordHashingRejectedException If the hashing queue is full.
+     */
+    public Future<String> submitEncode(Supplier<String> task) {
+        return submit(task, encodeWaitTimer, encodeTimer);
+    }
+
+    /**
+     * @return The number of hashing threads.
+     */
+    public int getPoolSize() {
+        return executor.getCorePoolSize();
+    }
+
+    /**
+     * Waits for a task submitted with {@link #submitEncode(Supplier)}.
+     *
+     * @param future The pending task.
+     * @return The result of the task.
+     */
+    public <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed.", e.getCause());
+        }
+    }
+
+    private <T> T execute(Supplier<T> task, Timer waitTimer, Timer hashTimer) {
+        return await(submit(task, waitTimer, hashTimer));
+    }
+
+    private <T> Future<T> submit(Supplier<T> task, Timer waitTimer, Timer hashTimer) {
+        long submittedAt = System.nanoTime();
+
+        Future<T> future;
+
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                waitTimer.record(startedAt - submittedAt, TimeUnit.NANOSECONDS);
+
+                try {
+                    return task.get();
+                } finally {
+                    hashTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new PasswordHashingRejectedException("Server is busy, please try again later.", retryAfter);
+        }
+
+        return future;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static Timer waitTimer(String operation, MeterRegistry meterRegistry) {
+        return Timer.builder("password.hashing.wait")
+                .description("Time a password hashing task spent in the queue")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    private static Timer hashTimer(String operation, MeterRegistry meterRegistry) {
+        return Timer.builder("password.hashing.duration")
+                .description("Time spent hashing or verifying a password")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    private static class HashingThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
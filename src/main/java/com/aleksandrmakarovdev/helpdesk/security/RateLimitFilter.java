@@ -0,0 +1,160 @@
+package com.aleksandrmakarovdev.helpdesk.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the request rate of the configured routes per client IP and per submitted email address.
+ * <p>
+ * Routes are matched against the decoded servlet path, the same path Spring MVC routes by,
+ * so percent-encoded variants of a route can not bypass its limit.
+ * The client IP is the remote address as resolved by the container, which takes it from
+ * {@code X-Forwarded-For} when the request comes through a trusted proxy ({@code server.forward-headers-strategy}).
+ * <p>
+ * Rejected requests are answered directly from the filter with {@code 429 Too Many Requests},
+ * without throwing an exception or reaching the controller advice.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    // Login and registration bodies are tiny, anything larger is not a legitimate request
+    private static final int MAX_BODY_BYTES = 4096;
+
+    private static final byte[] TOO_MANY_REQUESTS_BODY = """
+            {"type":"about:blank","title":"Too Many Requests","status":429,"detail":"Too many requests, please try again later."}"""
+            .getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] PAYLOAD_TOO_LARGE_BODY = """
+            {"type":"about:blank","title":"Payload Too Large","status":413,"detail":"Request body is too large."}"""
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final RateLimitProperties properties;
+    private final ObjectMapper objectMapper;
+    private final TokenBucketRateLimiter rateLimiter;
+    private final List<MatchedRoute> routes;
+
+    public RateLimitFilter(RateLimitProperties properties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.rateLimiter = new TokenBucketRateLimiter(properties.getMaxKeys(), properties.getIdleTimeout());
+        this.routes = properties.getRoutes()
+                .stream()
+                .map(route -> new MatchedRoute(AntPathRequestMatcher.antMatcher(HttpMethod.POST, route.getPath()), route))
+                .toList();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || findRoute(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        RateLimitProperties.Route route = findRoute(request);
+
+        // Check the IP limit first, it does not need the request body
+        if (route.getPerIp() != null) {
+            long wait = acquire(route.getPath() + "|ip|" + request.getRemoteAddr(), route.getPerIp());
+
+            if (wait > 0) {
+                reject(response, wait);
+                return;
+            }
+        }
+
+        if (route.getPerEmail() == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        byte[] body = request.getInputStream().readNBytes(MAX_BODY_BYTES + 1);
+
+        if (body.length > MAX_BODY_BYTES) {
+            write(response, HttpStatus.PAYLOAD_TOO_LARGE, PAYLOAD_TOO_LARGE_BODY);
+            return;
+        }
+
+        String email = extractEmail(body);
+
+        if (email != null) {
+            long wait = acquire(route.getPath() + "|email|" + email, route.getPerEmail());
+
+            if (wait > 0) {
+                reject(response, wait);
+                return;
+            }
+        }
+
+        // Let the controller read the body that has already been consumed
+        filterChain.doFilter(new CachedBodyHttpServletRequest(request, body), response);
+    }
+
+    private RateLimitProperties.Route findRoute(HttpServletRequest request) {
+        for (MatchedRoute route : routes) {
+            if (route.matcher().matches(request)) {
+                return route.route();
+            }
+        }
+
+        return null;
+    }
+
+    private long acquire(String key, RateLimitProperties.Limit limit) {
+        return rateLimiter.tryAcquire(key, limit.getCapacity(), limit.getPeriod());
+    }
+
+    /**
+     * Extracts the email address from a JSON body, normalized so that case variations share one bucket.
+     *
+     * @return The email address, or {@code null} if the body has none; validation rejects such requests later.
+     */
+    private String extractEmail(byte[] body) {
+        try {
+            JsonNode email = objectMapper.readTree(body).get("email");
+
+            return email != null && email.isTextual()
+                    ? email.asText().trim().toLowerCase(Locale.ROOT)
+                    : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        // Round up, so clients never retry before a token is available
+        long retryAfter = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        write(response, HttpStatus.TOO_MANY_REQUESTS, TOO_MANY_REQUESTS_BODY);
+    }
+
+    private static void write(HttpServletResponse response, HttpStatus status, byte[] body) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private record MatchedRoute(RequestMatcher matcher, RateLimitProperties.Route route) {
+    }
+}
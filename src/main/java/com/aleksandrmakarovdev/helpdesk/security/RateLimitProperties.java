@@ -0,0 +1,59 @@
+package com.aleksandrmakarovdev.helpdesk.security;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Maximum number of tracked keys across all routes, bounds the memory used by the limiter.
+     */
+    private long maxKeys = 100_000;
+
+    /**
+     * Keys without requests for this long are evicted; their bucket would be full again anyway.
+     */
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    private List<Route> routes = new ArrayList<>();
+
+    @Data
+    public static class Route {
+
+        private String path;
+
+        /**
+         * Limit per client IP address, or {@code null} for none.
+         */
+        private Limit perIp;
+
+        /**
+         * Limit per email address submitted in the JSON request body, or {@code null} for none.
+         */
+        private Limit perEmail;
+    }
+
+    @Data
+    public static class Limit {
+
+        /**
+         * Number of requests allowed in a burst.
+         */
+        private int capacity;
+
+        /**
+         * Time in which a fully drained bucket refills to its capacity.
+         */
+        private Duration period;
+    }
+}
@@ -0,0 +1,111 @@
+package com.aleksandrmakarovdev.helpdesk.security;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size Bloom filter over token ids.
+ * <p>
+ * Lookups hash the characters of the id directly and read the bit array without allocating.
+ * Adding is thread-safe and lookups may run concurrently with it. Entries can not be removed,
+ * expired ids are dropped by building a new filter.
+ */
+final class TokenBloomFilter {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * Sizes the filter for the expected number of entries and the acceptable false positive rate.
+     *
+     * @param expectedEntries   The number of entries the filter is sized for.
+     * @param falsePositiveRate The false positive rate at the expected number of entries.
+     */
+    TokenBloomFilter(int expectedEntries, double falsePositiveRate) {
+        int entries = Math.max(expectedEntries, 1);
+
+        long optimalBits = (long) Math.ceil(-entries * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.max(1, (optimalBits + 63) / 64);
+
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words * 64;
+        this.hashCount = (int) Math.max(1, Math.round((double) bitCount / entries * Math.log(2)));
+    }
+
+    void put(CharSequence tokenId) {
+        long hash1 = hash1(tokenId);
+        long hash2 = hash2(tokenId);
+
+        for (int i = 0; i < hashCount; i++) {
+            long bit = index(hash1, hash2, i);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+
+            long current;
+            do {
+                current = bits.get(word);
+            } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    /**
+     * @return {@code false} if the id was definitely never added, {@code true} if it probably was.
+     */
+    boolean mightContain(CharSequence tokenId) {
+        long hash1 = hash1(tokenId);
+        long hash2 = hash2(tokenId);
+
+        for (int i = 0; i < hashCount; i++) {
+            long bit = index(hash1, hash2, i);
+
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Derives the i-th bit index from two hashes (Kirsch-Mitzenmacher double hashing).
+     */
+    private long index(long hash1, long hash2, int i) {
+        return Math.floorMod(hash1 + i * hash2, bitCount);
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-16 code units.
+     */
+    private static long hash1(CharSequence value) {
+        long hash = FNV_OFFSET_BASIS;
+
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+
+        return hash;
+    }
+
+    /**
+     * Polynomial hash finished with the MurmurHash3 mixer, forced odd so that the probe step is never zero.
+     */
+    private static long hash2(CharSequence value) {
+        long hash = 0;
+
+        for (int i = 0; i < value.length(); i++) {
+            hash = 31 * hash + value.charAt(i);
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+
+        return hash | 1;
+    }
+}
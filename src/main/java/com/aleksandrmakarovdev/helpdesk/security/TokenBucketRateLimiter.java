@@ -0,0 +1,56 @@
+package com.aleksandrmakarovdev.helpdesk.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets keyed by string, implemented as a generic cell rate algorithm.
+ * <p>
+ * Each bucket is a single {@link AtomicLong} holding the theoretical arrival time of the next request,
+ * updated with compare-and-set, so acquiring a token never locks. The number of buckets is bounded and
+ * buckets that have not been used for the idle timeout are evicted.
+ */
+public class TokenBucketRateLimiter {
+
+    private final Cache<String, AtomicLong> buckets;
+
+    public TokenBucketRateLimiter(long maxKeys, Duration idleTimeout) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(idleTimeout)
+                .build();
+    }
+
+    /**
+     * Tries to take a token from the bucket of the given key.
+     *
+     * @param key      The bucket key.
+     * @param capacity Number of requests allowed in a burst.
+     * @param period   Time in which an empty bucket refills to its capacity.
+     * @return {@code 0} if a token was taken, otherwise the nanoseconds until the next token is available.
+     */
+    public long tryAcquire(String key, int capacity, Duration period) {
+        long now = System.nanoTime();
+        long interval = period.toNanos() / capacity;
+        long burst = interval * capacity;
+
+        AtomicLong bucket = buckets.get(key, k -> new AtomicLong(now));
+
+        while (true) {
+            long theoreticalArrival = bucket.get();
+            long next = Math.max(theoreticalArrival, now) + interval;
+            long wait = next - now - burst;
+
+            if (wait > 0) {
+                return wait;
+            }
+
+            if (bucket.compareAndSet(theoreticalArrival, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.aleksandrmakarovdev.helpdesk.security;
+
+import com.aleksandrmakarovdev.helpdesk.invalidation.InvalidationEvent;
+import com.aleksandrmakarovdev.helpdesk.invalidation.InvalidationHandler;
+import com.aleksandrmakarovdev.helpdesk.invalidation.InvalidationPublisher;
+import com.aleksandrmakarovdev.helpdesk.user.util.JwtUtil;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps track of revoked access tokens until they expire.
+ * <p>
+ * Single tokens are revoked by their {@code jti} in a denylist fronted by a {@link TokenBloomFilter},
+ * so checking a token that was not revoked, the common case, is one allocation-free filter lookup.
+ * All tokens of a user are revoked at once with a watermark: tokens issued at or before it are rejected.
+ * Because {@code iat} has a resolution of one second, tokens issued later in the same second as the watermark
+ * would be rejected as well, so {@link #issueTime} moves them to the next second.
+ * <p>
+ * Entries are dropped once every token they cover has expired, and the filter is rebuilt without them.
+ * Revocations are also stored in {@code token_revocations} and announced to the other nodes,
+ * which load the table again after a restart or after missing events.
+ */
+@Component
+public class TokenRevocationService implements InvalidationHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private static final String INSERT_TOKEN_SQL =
+            "insert into token_revocations (token_id, expires_at) values (?, ?)";
+    private static final String INSERT_USER_SQL =
+            "insert into token_revocations (user_id, watermark_millis, expires_at) values (?, ?, ?)";
+    private static final String SELECT_SQL =
+            "select token_id, user_id, watermark_millis, expires_at from token_revocations where expires_at > ?";
+    private static final String DELETE_EXPIRED_SQL =
+            "delete from token_revocations where expires_at <= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final InvalidationPublisher invalidationPublisher;
+
+    private final int expectedEntries;
+    private final double falsePositiveRate;
+    private final long accessTokenLifetimeMillis = JwtUtil.ACCESS_TOKEN_LIFETIME.toMillis();
+
+    // Token id to the token's expiration in epoch milliseconds
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+
+    // User id to the watermark in epoch milliseconds
+    private final Map<UUID, Long> issuedAfter = new ConcurrentHashMap<>();
+
+    private volatile TokenBloomFilter filter;
+
+    public TokenRevocationService(
+            JdbcTemplate jdbcTemplate,
+            InvalidationPublisher invalidationPublisher,
+            @Value("${security.revocation.expected-entries:100000}") int expectedEntries,
+            @Value("${security.revocation.false-positive-rate:0.01}") double falsePositiveRate,
+            MeterRegistry meterRegistry
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.invalidationPublisher = invalidationPublisher;
+        this.expectedEntries = expectedEntries;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new TokenBloomFilter(expectedEntries, falsePositiveRate);
+
+        Gauge.builder("security.revocation.tokens", revokedTokens, Map::size)
+                .description("Number of individually revoked access tokens that have not expired yet")
+                .register(meterRegistry);
+        Gauge.builder("security.revocation.users", issuedAfter, Map::size)
+                .description("Number of users with a revocation watermark")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Checks whether an access token has been revoked.
+     *
+     * @param tokenId        The {@code jti} claim, may be {@code null} for tokens issued without one.
+     * @param userId         The user id from the {@code sub} claim.
+     * @param issuedAtMillis The {@code iat} claim in epoch milliseconds.
+     * @return {@code true} if the token must be rejected.
+     */
+    public boolean isRevoked(String tokenId, UUID userId, long issuedAtMillis) {
+        if (!issuedAfter.isEmpty()) {
+            Long watermark = issuedAfter.get(userId);
+
+            if (watermark != null && issuedAtMillis <= watermark) {
+                return true;
+            }
+        }
+
+        // The filter rules out almost every token that was not revoked without touching the denylist
+        if (tokenId == null || !filter.mightContain(tokenId)) {
+            return false;
+        }
+
+        return revokedTokens.containsKey(tokenId);
+    }
+
+    /**
+     * Returns the issue time for a new access token of a user, so that it is not covered by the user's watermark.
+     * Tokens carry {@code iat} in whole seconds, so a token issued in the same second as the watermark
+     * is issued at the start of the next second instead.
+     *
+     * @param userId    The user id.
+     * @param nowMillis The current time in epoch milliseconds.
+     * @return The issue time in epoch milliseconds, {@code nowMillis} unless the watermark is in the same second.
+     */
+    public long issueTime(UUID userId, long nowMillis) {
+        Long watermark = issuedAfter.get(userId);
+
+        if (watermark == null || nowMillis / 1000 > watermark / 1000) {
+            return nowMillis;
+        }
+
+        return (watermark / 1000 + 1) * 1000;
+    }
+
+    /**
+     * Revokes a single access token until it expires, on all nodes.
+     * Call it inside a transaction to store and announce the revocation atomically.
+     *
+     * @param tokenId         The {@code jti} claim.
+     * @param expiresAtMillis The {@code exp} claim in epoch milliseconds.
+     */
+    public void revoke(String tokenId, long expiresAtMillis) {
+        applyRevoke(tokenId, expiresAtMillis);
+
+        jdbcTemplate.update(INSERT_TOKEN_SQL, tokenId, new Timestamp(expiresAtMillis));
+        invalidationPublisher.publish(new InvalidationEvent(
+                InvalidationEvent.Type.TOKEN, tokenId + ':' + expiresAtMillis
+        ));
+    }
+
+    /**
+     * Revokes every access token issued to a user up to now, on all nodes.
+     * Call it inside a transaction to store and announce the revocation atomically.
+     *
+     * @param userId The user id.
+     */
+    public void revokeAll(UUID userId) {
+        long watermark = System.currentTimeMillis();
+
+        applyWatermark(userId, watermark);
+
+        jdbcTemplate.update(INSERT_USER_SQL, userId, watermark, new Timestamp(watermark + accessTokenLifetimeMillis));
+        invalidationPublisher.publish(new InvalidationEvent(
+                InvalidationEvent.Type.USER_TOKENS, userId.toString() + ':' + watermark
+        ));
+    }
+
+    /**
+     * Applies a revocation announced by another node.
+     */
+    @Override
+    public void handle(InvalidationEvent event) {
+        if (event.type() != InvalidationEvent.Type.TOKEN && event.type() != InvalidationEvent.Type.USER_TOKENS) {
+            return;
+        }
+
+        int separator = event.key().lastIndexOf(':');
+
+        try {
+            String target = event.key().substring(0, separator);
+            long value = Long.parseLong(event.key().substring(separator + 1));
+
+            if (event.type() == InvalidationEvent.Type.TOKEN) {
+                applyRevoke(target, value);
+            } else {
+                applyWatermark(UUID.fromString(target), value);
+            }
+        } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+            log.warn("Ignoring malformed revocation event {}", event);
+        }
+    }
+
+    /**
+     * Loads all unexpired revocations from the database, including those announced while events were missed.
+     */
+    @Override
+    public void resync() {
+        jdbcTemplate.query(SELECT_SQL, resultSet -> {
+            String tokenId = resultSet.getString("token_id");
+
+            if (tokenId != null) {
+                applyRevoke(tokenId, resultSet.getTimestamp("expires_at").getTime());
+            } else {
+                applyWatermark(resultSet.getObject("user_id", UUID.class), resultSet.getLong("watermark_millis"));
+            }
+        }, new Timestamp(System.currentTimeMillis()));
+    }
+
+    private synchronized void applyRevoke(String tokenId, long expiresAtMillis) {
+        revokedTokens.put(tokenId, expiresAtMillis);
+        filter.put(tokenId);
+    }
+
+    private void applyWatermark(UUID userId, long watermark) {
+        issuedAfter.merge(userId, watermark, Math::max);
+    }
+
+    /**
+     * Drops entries that only cover expired tokens and rebuilds the filter without them,
+     * which also resets its false positive rate.
+     */
+    @Scheduled(fixedDelayString = "${security.revocation.cleanup-interval:1m}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+
+        // Every token issued before the watermark has expired once a full lifetime has passed
+        issuedAfter.values().removeIf(watermark -> watermark + accessTokenLifetimeMillis < now);
+
+        if (revokedTokens.values().removeIf(expiresAt -> expiresAt < now)) {
+            rebuildFilter();
+        }
+
+        try {
+            jdbcTemplate.update(DELETE_EXPIRED_SQL, new Timestamp(now));
+        } catch (RuntimeException e) {
+            // Expired rows are ignored on load, removing them can wait for the next run
+            log.warn("Failed to delete expired token revocations", e);
+        }
+    }
+
+    private synchronized void rebuildFilter() {
+        TokenBloomFilter rebuilt = new TokenBloomFilter(Math.max(expectedEntries, revokedTokens.size()), falsePositiveRate);
+
+        for (String tokenId : revokedTokens.keySet()) {
+            rebuilt.put(tokenId);
+        }
+
+        // Revocations wait for the lock, so none can be missing from the rebuilt filter
+        filter = rebuilt;
+    }
+}
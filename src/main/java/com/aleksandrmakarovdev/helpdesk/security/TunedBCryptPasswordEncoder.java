@@ -0,0 +1,45 @@
+package com.aleksandrmakarovdev.helpdesk.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt encoder that also reports hashes as outdated when their cost is higher than the configured strength.
+ * This lets an explicitly lowered strength propagate to stored hashes, not only a raised one.
+ */
+public class TunedBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+    private static final Pattern BCRYPT_PATTERN = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+
+    private final int strength;
+    private final boolean upgradeOnAnyDifference;
+
+    /**
+     * @param strength               The BCrypt strength used for new hashes.
+     * @param upgradeOnAnyDifference Whether hashes with a higher cost should be re-hashed as well.
+     *                               Only safe when the strength is pinned, otherwise nodes that tuned
+     *                               to different strengths would keep re-hashing each other's passwords.
+     */
+    public TunedBCryptPasswordEncoder(int strength, boolean upgradeOnAnyDifference) {
+        super(strength);
+        this.strength = strength;
+        this.upgradeOnAnyDifference = upgradeOnAnyDifference;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (!upgradeOnAnyDifference || encodedPassword == null) {
+            return super.upgradeEncoding(encodedPassword);
+        }
+
+        Matcher matcher = BCRYPT_PATTERN.matcher(encodedPassword);
+
+        if (!matcher.find()) {
+            throw new IllegalArgumentException("Encoded password does not look like BCrypt.");
+        }
+
+        return Integer.parseInt(matcher.group(1)) != strength;
+    }
+}
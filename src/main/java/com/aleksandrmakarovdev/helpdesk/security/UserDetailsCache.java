@@ -0,0 +1,99 @@
+package com.aleksandrmakarovdev.helpdesk.security;
+
+import com.aleksandrmakarovdev.helpdesk.invalidation.InvalidationEvent;
+import com.aleksandrmakarovdev.helpdesk.invalidation.InvalidationHandler;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Bounded cache of user authentication snapshots, consulted by the authentication provider
+ * before {@link WebUserDetailsService} queries the database.
+ * <p>
+ * Entries expire after a fixed time and the least used ones are evicted when the cache is full.
+ * Code that changes a user's password, roles or lockout state must invalidate the user's entry
+ * and publish an {@link InvalidationEvent.Type#USER} event for the other nodes.
+ * Revoking all tokens of a user drops the entry as well, on the other nodes through the
+ * {@link InvalidationEvent.Type#USER_TOKENS} event.
+ * Hit, miss and eviction statistics are published as {@code cache.*} metrics with {@code cache=userDetails}.
+ */
+@Component
+public class UserDetailsCache implements UserCache, InvalidationHandler {
+
+    private final Cache<String, UserDetails> cache;
+
+    public UserDetailsCache(
+            @Value("${security.user-details-cache.maximum-size:10000}") long maximumSize,
+            @Value("${security.user-details-cache.time-to-live:5m}") Duration timeToLive,
+            MeterRegistry meterRegistry
+    ) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "userDetails");
+    }
+
+    @Override
+    public UserDetails getUserFromCache(String username) {
+        return cache.getIfPresent(username);
+    }
+
+    @Override
+    public void putUserInCache(UserDetails user) {
+        cache.put(user.getUsername(), user);
+    }
+
+    @Override
+    public void removeUserFromCache(String username) {
+        cache.invalidate(username);
+    }
+
+    /**
+     * Removes the entry of a user by id, for callers that do not know the username.
+     * Scans all entries, so it is meant for rare changes such as revoking all tokens of a user.
+     *
+     * @param userId The user id.
+     */
+    public void removeUserFromCache(UUID userId) {
+        cache.asMap().values().removeIf(user -> user instanceof WebUserDetails webUserDetails
+                && userId.equals(webUserDetails.getId()));
+    }
+
+    /**
+     * Removes all entries, for changes that may affect every user such as reloaded roles.
+     */
+    public void removeAllUsersFromCache() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void handle(InvalidationEvent event) {
+        if (event.type() == InvalidationEvent.Type.USER) {
+            removeUserFromCache(event.key());
+        } else if (event.type() == InvalidationEvent.Type.USER_TOKENS) {
+            // The key starts with the user id, followed by the revocation watermark
+            removeUserFromCache(UUID.fromString(event.key().substring(0, event.key().lastIndexOf(':'))));
+        }
+    }
+
+    @Override
+    public void resync() {
+        removeAllUsersFromCache();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+}
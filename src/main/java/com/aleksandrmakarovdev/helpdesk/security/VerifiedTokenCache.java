@@ -0,0 +1,78 @@
+package com.aleksandrmakarovdev.helpdesk.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class VerifiedTokenCache {
+
+    private final Cache<String, VerifiedToken> cache;
+
+    public VerifiedTokenCache(@Value("${jwt.cache.maximum-size:10000}") long maximumSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new TokenExpiry())
+                .build();
+    }
+
+    /**
+     * Returns the authentication previously built for the given token,
+     * or {@code null} if the token has not been verified yet or has expired.
+     *
+     * @param token The raw bearer token.
+     * @return The cached authentication or {@code null}.
+     */
+    public Authentication get(String token) {
+        VerifiedToken verifiedToken = cache.getIfPresent(token);
+
+        // Entries are evicted lazily, so double-check the expiration on read
+        if (verifiedToken == null || !verifiedToken.expiresAt().isAfter(Instant.now())) {
+            return null;
+        }
+
+        return verifiedToken.authentication();
+    }
+
+    /**
+     * Stores the authentication built from a verified token until the token expires.
+     *
+     * @param token          The raw bearer token.
+     * @param authentication The authentication built from the token's claims.
+     * @param expiresAt      The token's expiration time.
+     */
+    public void put(String token, Authentication authentication, Instant expiresAt) {
+        cache.put(token, new VerifiedToken(authentication, expiresAt));
+    }
+
+    private record VerifiedToken(Authentication authentication, Instant expiresAt) {
+    }
+
+    /**
+     * Expires every entry exactly when the token it was built from expires.
+     */
+    private static class TokenExpiry implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            long millis = value.expiresAt().toEpochMilli() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(millis, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -1,8 +1,14 @@
 package com.aleksandrmakarovdev.helpdesk.security;
 
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
@@ -10,17 +16,33 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+
+import java.time.Duration;
+import java.util.Map;
 
 @Configuration
 @EnableWebSecurity
 @RequiredArgsConstructor
 public class WebSecurityConfiguration {
 
+    private static final Logger log = LoggerFactory.getLogger(WebSecurityConfiguration.class);
+
+    private static final String BCRYPT_ID = "bcrypt";
+
     private final UserDetailsService userDetailsService;
+    private final UserDetailsPasswordService userDetailsPasswordService;
+    private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final RateLimitFilter rateLimitFilter;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final UserDetailsCache userDetailsCache;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -30,17 +52,68 @@ public class WebSecurityConfiguration {
                 .authorizeHttpRequests(
                         configurer -> configurer
                                 .requestMatchers("/swagger-ui/**","/v3/api-docs/**").permitAll()
+                                // Actuator is only served on the internal management port, Prometheus scrapes it without a token
+                                .requestMatchers(EndpointRequest.to("health", "prometheus")).permitAll()
+                                .requestMatchers(EndpointRequest.toAnyEndpoint()).hasRole("ADMIN")
+                                .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                                .requestMatchers("/api/users/logout", "/api/users/profile").authenticated()
                                 .requestMatchers("/api/users/**").permitAll()
                                 .anyRequest().authenticated())
                 .sessionManagement(
                         configurer -> configurer
                                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .exceptionHandling(
+                        configurer -> configurer
+                                .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
+                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(rateLimitFilter, JwtAuthenticationFilter.class)
                 .build();
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public FilterRegistrationBean<JwtAuthenticationFilter> jwtAuthenticationFilterRegistration() {
+
+        // Run the filter only inside the security filter chain, not as a standalone servlet filter
+        FilterRegistrationBean<JwtAuthenticationFilter> registration = new FilterRegistrationBean<>(jwtAuthenticationFilter);
+        registration.setEnabled(false);
+
+        return registration;
+    }
+
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration() {
+
+        // Run the filter only inside the security filter chain, not as a standalone servlet filter
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(rateLimitFilter);
+        registration.setEnabled(false);
+
+        return registration;
+    }
+
+    @Bean
+    public ExecutorPasswordEncoder passwordEncoder(
+            @Value("${security.password-encoder.strength:auto}") String strength,
+            @Value("${security.password-encoder.target-duration:250ms}") Duration targetDuration,
+            @Value("${security.password-encoder.min-strength:10}") int minStrength,
+            @Value("${security.password-encoder.max-strength:14}") int maxStrength
+    ) {
+        boolean pinned = !"auto".equalsIgnoreCase(strength);
+
+        // Either use the configured strength or the highest one that fits the target latency on this machine
+        int bcryptStrength = pinned
+                ? Integer.parseInt(strength)
+                : BCryptStrengthTuner.tune(targetDuration, minStrength, maxStrength);
+
+        log.info("Using BCrypt strength {} ({})", bcryptStrength, pinned ? "configured" : "tuned for " + targetDuration);
+
+        DelegatingPasswordEncoder delegatingPasswordEncoder = new DelegatingPasswordEncoder(
+                BCRYPT_ID, Map.of(BCRYPT_ID, new TunedBCryptPasswordEncoder(bcryptStrength, pinned))
+        );
+
+        // Hashes stored before the {id} prefix was introduced are plain BCrypt, they are upgraded on login
+        delegatingPasswordEncoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+
+        return new ExecutorPasswordEncoder(delegatingPasswordEncoder, passwordHashingExecutor);
     }
 
     @Bean
@@ -50,14 +123,23 @@ public class WebSecurityConfiguration {
 
 
     @Bean
-    public DaoAuthenticationProvider authenticationProvider() {
+    public DaoAuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
 
         DaoAuthenticationProvider authenticationProvider = new DaoAuthenticationProvider();
 
         // Set passwordEncoder and userServiceProvider to AuthenticationProvider
-        authenticationProvider.setPasswordEncoder(passwordEncoder());
+        authenticationProvider.setPasswordEncoder(passwordEncoder);
         authenticationProvider.setUserDetailsService(userDetailsService);
 
+        // Let the login tell unknown usernames apart, so that it does not track failures for them
+        authenticationProvider.setHideUserNotFoundExceptions(false);
+
+        // Serve hot accounts from memory; a cached user with a mismatching password is reloaded once
+        authenticationProvider.setUserCache(userDetailsCache);
+
+        // Re-hash passwords whose stored parameters differ from the current encoder on successful login
+        authenticationProvider.setUserDetailsPasswordService(userDetailsPasswordService);
+
         return authenticationProvider;
     }
 }
@@ -1,39 +1,104 @@
 package com.aleksandrmakarovdev.helpdesk.security;
 
-import com.aleksandrmakarovdev.helpdesk.user.entity.User;
-import lombok.RequiredArgsConstructor;
+import com.aleksandrmakarovdev.helpdesk.user.model.UserAuthRow;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.time.Instant;
 import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
-@RequiredArgsConstructor
+/**
+ * Immutable snapshot of the user data needed for authentication.
+ * It does not reference the JPA entity, so it stays usable after the persistence context is closed
+ * and can be shared between threads.
+ */
 public class WebUserDetails implements UserDetails {
 
-    private final transient User user;
+    private final UUID id;
+    private final String username;
+    private final String passwordHash;
+    private final Instant lockoutExpiresAt;
+    private final List<GrantedAuthority> authorities;
+
+    public WebUserDetails(UUID id, String username, String passwordHash, Instant lockoutExpiresAt, Collection<String> roles) {
+        this.id = id;
+        this.username = username;
+        this.passwordHash = passwordHash;
+        this.lockoutExpiresAt = lockoutExpiresAt;
+        this.authorities = roles.stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(role))
+                .toList();
+    }
+
+    /**
+     * Builds the snapshot from the rows of the authentication query, one row per role.
+     *
+     * @param rows The non-empty rows of a single user.
+     * @return The user details.
+     */
+    public static WebUserDetails fromRows(List<UserAuthRow> rows) {
+        UserAuthRow first = rows.get(0);
+
+        // A user without roles yields a single row with a null role name
+        List<String> roles = rows.stream()
+                .map(UserAuthRow::roleName)
+                .filter(Objects::nonNull)
+                .toList();
+
+        return new WebUserDetails(
+                first.id(),
+                first.username(),
+                first.passwordHash(),
+                first.lockoutExpiresAt() != null ? first.lockoutExpiresAt().toInstant() : null,
+                roles
+        );
+    }
 
     public UUID getId() {
-        return user.getId();
+        return id;
+    }
+
+    public Instant getLockoutExpiresAt() {
+        return lockoutExpiresAt;
     }
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return user.getRoles()
-                .stream()
-                .map(role -> new SimpleGrantedAuthority(role.getName()))
-                .collect(Collectors.toList());
+        return authorities;
     }
 
     @Override
     public String getPassword() {
-        return user.getPasswordHash();
+        return passwordHash;
     }
 
     @Override
     public String getUsername() {
-        return user.getUsername();
+        return username;
+    }
+
+    /**
+     * Reports the lockout persisted in the database, which also covers lockouts recorded by other nodes
+     * or before a restart. Checked by the authentication provider before the password is verified.
+     */
+    @Override
+    public boolean isAccountNonLocked() {
+        return lockoutExpiresAt == null || lockoutExpiresAt.isBefore(Instant.now());
+    }
+
+    /**
+     * Creates a copy of these details with a new password hash.
+     *
+     * @param passwordHash The new password hash.
+     * @return The updated user details.
+     */
+    public WebUserDetails withPassword(String passwordHash) {
+        return new WebUserDetails(id, username, passwordHash, lockoutExpiresAt, authorities.stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList());
     }
 }
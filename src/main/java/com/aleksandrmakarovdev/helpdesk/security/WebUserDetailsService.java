@@ -1,31 +1,79 @@
 package com.aleksandrmakarovdev.helpdesk.security;
 
-import com.aleksandrmakarovdev.helpdesk.user.entity.User;
+import com.aleksandrmakarovdev.helpdesk.datasource.ReplicaRouting;
+import com.aleksandrmakarovdev.helpdesk.invalidation.InvalidationEvent;
+import com.aleksandrmakarovdev.helpdesk.invalidation.InvalidationPublisher;
+import com.aleksandrmakarovdev.helpdesk.user.model.UserAuthRow;
 import com.aleksandrmakarovdev.helpdesk.user.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Optional;
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
-public class WebUserDetailsService implements UserDetailsService {
+public class WebUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
+    private final UserDetailsCache userDetailsCache;
+    private final InvalidationPublisher invalidationPublisher;
+    private final AuthPhaseMetrics authPhaseMetrics;
+    private final ReplicaRouting replicaRouting;
 
+    /**
+     * Loads a user for authentication, from the replica if one is configured.
+     * A user missing on the replica is looked up on the primary again, since it may have registered
+     * moments ago and not been replicated yet.
+     *
+     * @param username The username.
+     * @return The user's credentials, lockout state and roles.
+     * @throws UsernameNotFoundException If the user does not exist.
+     */
     @Override
     @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        Optional<User> foundUser = userRepository.findByUsername(username);
+        // Credentials, lockout state and role names in a single query
+        long startedAt = System.nanoTime();
+        List<UserAuthRow> rows = userRepository.findAuthRowsByUsername(username);
 
-        if (foundUser.isEmpty()) {
+        // Read-your-writes after registration
+        if (rows.isEmpty() && replicaRouting.isEnabled()) {
+            rows = replicaRouting.readFromPrimary(() -> userRepository.findAuthRowsByUsername(username));
+        }
+
+        authPhaseMetrics.record(AuthPhaseMetrics.Phase.LOGIN_USER_LOAD, startedAt);
+
+        if (rows.isEmpty()) {
             throw new UsernameNotFoundException(String.format("User '%s' not found.", username));
         }
 
-        return new WebUserDetails(foundUser.get());
+        return WebUserDetails.fromRows(rows);
+    }
+
+    /**
+     * Stores a re-hashed password after a successful login with outdated hash parameters.
+     * Called by the authentication provider when the password encoder reports that an upgrade is needed.
+     *
+     * @param user        The authenticated user's details.
+     * @param newPassword The new password hash.
+     * @return The user details carrying the new password hash.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        WebUserDetails userDetails = (WebUserDetails) user;
+
+        userRepository.updatePasswordHash(userDetails.getId(), newPassword);
+
+        // The cached snapshot still carries the old hash
+        userDetailsCache.removeUserFromCache(userDetails.getUsername());
+        invalidationPublisher.publish(InvalidationEvent.user(userDetails.getUsername()));
+
+        return userDetails.withPassword(newPassword);
     }
 }
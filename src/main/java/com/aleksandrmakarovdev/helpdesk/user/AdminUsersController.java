@@ -0,0 +1,133 @@
+package com.aleksandrmakarovdev.helpdesk.user;
+
+import com.aleksandrmakarovdev.helpdesk.base.MessageResponse;
+import com.aleksandrmakarovdev.helpdesk.user.model.RoleName;
+import com.aleksandrmakarovdev.helpdesk.user.model.UserDirectoryCursor;
+import com.aleksandrmakarovdev.helpdesk.user.model.UserDirectoryPage;
+import com.aleksandrmakarovdev.helpdesk.user.model.UserDirectoryQuery;
+import com.aleksandrmakarovdev.helpdesk.user.model.UserImportFormat;
+import com.aleksandrmakarovdev.helpdesk.user.service.UserImportService;
+import com.aleksandrmakarovdev.helpdesk.user.service.UserService;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Tag(name = "Admin users", description = "Administrative endpoints for user accounts")
+@RestController
+@RequestMapping("/api/admin/users")
+@RequiredArgsConstructor
+public class AdminUsersController {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final UserService userService;
+    private final UserImportService userImportService;
+
+    /**
+     * Endpoint to list and search users, newest first.
+     * Pages are addressed by the opaque {@code nextCursor} of the previous page instead of an offset,
+     * so every page takes the same time.
+     *
+     * @param emailPrefix Case-insensitive prefix of the email address.
+     * @param role        A role the users must have.
+     * @param createdFrom Inclusive lower bound of the registration time.
+     * @param createdTo   Exclusive upper bound of the registration time.
+     * @param cursor      The {@code nextCursor} of the previous page, omitted for the first page.
+     * @param limit       The page size, at most 100.
+     * @return A ResponseEntity containing the page.
+     */
+    @GetMapping
+    public ResponseEntity<UserDirectoryPage> findUsers(
+            @RequestParam(required = false) String emailPrefix,
+            @RequestParam(required = false) RoleName role,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit
+    ) {
+        UserDirectoryQuery query = new UserDirectoryQuery(
+                emailPrefix == null || emailPrefix.isBlank() ? null : emailPrefix.trim(),
+                role,
+                createdFrom,
+                createdTo,
+                cursor == null || cursor.isBlank() ? null : UserDirectoryCursor.decode(cursor),
+                Math.min(Math.max(limit, 1), MAX_PAGE_SIZE)
+        );
+
+        return ResponseEntity.ok().body(userService.findUsers(query));
+    }
+
+    /**
+     * Endpoint to create users in bulk from NDJSON ({@code {"email": ..., "password": ...}} per line)
+     * or CSV ({@code email,password} per line). All users get the USER_ROLE.
+     * The upload is processed while it arrives, and the outcome of every line is streamed back as NDJSON,
+     * so neither the upload nor the results are held in memory.
+     *
+     * @param contentType {@code application/x-ndjson} or {@code text/csv}, UTF-8 unless a charset is given.
+     * @param request     The request to read the upload from.
+     * @param response    The response to stream the results to.
+     * @throws IOException If the upload can not be read or the results can not be written.
+     */
+    @PostMapping(
+            value = "import",
+            consumes = {MediaType.APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE
+    )
+    public void importUsers(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        UserImportFormat format = MediaType.APPLICATION_NDJSON.equalsTypeAndSubtype(contentType)
+                ? UserImportFormat.NDJSON
+                : UserImportFormat.CSV;
+        Charset charset = contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+
+        userImportService.importUsers(
+                new BufferedReader(new InputStreamReader(request.getInputStream(), charset)),
+                format,
+                response.getOutputStream()
+        );
+    }
+
+    /**
+     * Endpoint to revoke every access and refresh token issued to a user up to now.
+     * The user has to log in again.
+     *
+     * @param userId The user id.
+     * @return A ResponseEntity containing a success message.
+     */
+    @PostMapping("{userId}/revoke-tokens")
+    public ResponseEntity<?> revokeUserTokens(@PathVariable UUID userId) {
+
+        userService.revokeUserTokens(userId);
+
+        return ResponseEntity.ok().body(new MessageResponse(
+                String.format("Tokens of user '%s' have been revoked successfully.", userId)
+        ));
+    }
+}
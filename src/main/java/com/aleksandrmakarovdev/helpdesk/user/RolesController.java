@@ -0,0 +1,32 @@
+package com.aleksandrmakarovdev.helpdesk.user;
+
+import com.aleksandrmakarovdev.helpdesk.base.MessageResponse;
+import com.aleksandrmakarovdev.helpdesk.user.service.RoleRegistry;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@Tag(name = "Roles", description = "Administrative endpoints for roles")
+@RestController
+@RequestMapping("/api/admin/roles")
+@RequiredArgsConstructor
+public class RolesController {
+
+    private final RoleRegistry roleRegistry;
+
+    /**
+     * Endpoint to reload the role registry on all nodes after roles have been changed in the database.
+     *
+     * @return A ResponseEntity containing a success message.
+     */
+    @PostMapping("refresh")
+    public ResponseEntity<?> refreshRoles() {
+
+        roleRegistry.refreshAll();
+
+        return ResponseEntity.ok().body(new MessageResponse("Roles have been reloaded successfully."));
+    }
+}
@@ -3,6 +3,8 @@ package com.aleksandrmakarovdev.helpdesk.user;
 import com.aleksandrmakarovdev.helpdesk.base.MessageResponse;
 import com.aleksandrmakarovdev.helpdesk.user.model.CreateUserRequest;
 import com.aleksandrmakarovdev.helpdesk.user.model.LoginUserRequest;
+import com.aleksandrmakarovdev.helpdesk.user.model.Token;
+import com.aleksandrmakarovdev.helpdesk.user.model.TokenClaims;
 import com.aleksandrmakarovdev.helpdesk.user.model.TokensResponse;
 import com.aleksandrmakarovdev.helpdesk.user.model.UserProfileResponse;
 import com.aleksandrmakarovdev.helpdesk.user.service.UserService;
@@ -11,8 +13,13 @@ import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
@@ -24,6 +31,8 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class UsersController {
 
+    private static final String REFRESH_TOKEN_COOKIE = "refresh-token";
+
     private final UserService userService;
 
     /**
@@ -63,28 +72,122 @@ public class UsersController {
         // Authenticate the user and generate tokens
         TokensResponse tokensResponse = userService.loginUser(loginUserRequest);
 
+        // Store the refresh token in an HTTP-only cookie
+        response.addCookie(createRefreshTokenCookie(tokensResponse.refreshToken()));
+
+        // Return access token in response body and refresh token in cookie
+        return ResponseEntity.ok().body(tokensResponse.accessToken());
+    }
+
+    /**
+     * Endpoint to exchange the refresh token cookie for a new access token.
+     * The refresh token is rotated: the presented one is revoked and a new one replaces it in the cookie.
+     * No password verification takes place, so renewal is a single database round trip.
+     *
+     * @param refreshToken The refresh token from the {@code refresh-token} cookie.
+     * @param response     The HTTP response to add the new refresh token cookie.
+     * @return A ResponseEntity containing the new access token.
+     */
+    @PostMapping("refresh")
+    public ResponseEntity<?> refreshUser(@CookieValue(name = REFRESH_TOKEN_COOKIE, required = false) String refreshToken,
+                                         HttpServletResponse response) {
+
+        if (refreshToken == null || refreshToken.isBlank()) {
+            throw new BadCredentialsException("Refresh token is missing.");
+        }
+
+        // Rotate the refresh token and issue a new access token
+        TokensResponse tokensResponse = userService.refreshUser(refreshToken);
+
+        // Replace the refresh token cookie
+        response.addCookie(createRefreshTokenCookie(tokensResponse.refreshToken()));
+
+        return ResponseEntity.ok().body(tokensResponse.accessToken());
+    }
+
+    /**
+     * Endpoint to log the current user out.
+     * Revokes the presented access token and the refresh token from the cookie, then clears the cookie.
+     *
+     * @param authentication The authentication built from the access token.
+     * @param refreshToken   The refresh token from the {@code refresh-token} cookie, if present.
+     * @param response       The HTTP response to clear the refresh token cookie.
+     * @return A ResponseEntity containing a success message.
+     */
+    @PostMapping("logout")
+    public ResponseEntity<?> logoutUser(Authentication authentication,
+                                        @CookieValue(name = REFRESH_TOKEN_COOKIE, required = false) String refreshToken,
+                                        HttpServletResponse response) {
+
+        // Revoke the tokens of this session
+        userService.logoutUser((TokenClaims) authentication.getDetails(), refreshToken);
+
+        // Remove the refresh token cookie from the client
+        Cookie cookie = new Cookie(REFRESH_TOKEN_COOKIE, "");
+        cookie.setPath("/");
+        cookie.setSecure(true);
+        cookie.setHttpOnly(true);
+        cookie.setMaxAge(0);
+        response.addCookie(cookie);
+
+        return ResponseEntity.ok().body(new MessageResponse("User has been logged out successfully."));
+    }
+
+    /**
+     * Creates a secure, HTTP-only cookie holding the refresh token until it expires.
+     *
+     * @param refreshToken The refresh token.
+     * @return The cookie to add to the response.
+     */
+    private static Cookie createRefreshTokenCookie(Token refreshToken) {
+
         // Calculate the expiration time for the refresh token in seconds
-        int maxAge = (int) ChronoUnit.SECONDS.between(Instant.now(), tokensResponse.refreshToken().expiresAt().toInstant());
+        int maxAge = (int) ChronoUnit.SECONDS.between(Instant.now(), refreshToken.expiresAt().toInstant());
 
-        // Create a secure, HTTP-only cookie to store the refresh token
-        Cookie cookie = new Cookie("refresh-token", tokensResponse.refreshToken().token());
+        Cookie cookie = new Cookie(REFRESH_TOKEN_COOKIE, refreshToken.token());
         cookie.setPath("/");              // Set cookie path for the entire application
         cookie.setDomain(null);           // No specific domain; defaults to the request domain
         cookie.setSecure(true);           // Use secure cookie (requires HTTPS)
         cookie.setHttpOnly(true);         // Make cookie inaccessible via JavaScript
         cookie.setMaxAge(maxAge);         // Set cookie's max age
 
-        // Add the cookie to the HTTP response
-        response.addCookie(cookie);
-
-        // Return access token in response body and refresh token in cookie
-        return ResponseEntity.ok().body(tokensResponse.accessToken());
+        return cookie;
     }
 
+    /**
+     * Endpoint to get the profile of the current user, identified by the subject of the access token.
+     * The response carries an {@code ETag} derived from the profile version. A request whose
+     * {@code If-None-Match} still matches is answered with {@code 304 Not Modified} after a single-column
+     * lookup, without loading or serializing the profile.
+     *
+     * @param authentication The authentication built from the access token.
+     * @param webRequest     The request, to evaluate {@code If-None-Match}.
+     * @return A ResponseEntity containing the profile, or {@code null} once a 304 response has been prepared.
+     */
     @GetMapping("profile")
-    public ResponseEntity<?> getUserProfile() {
-        UserProfileResponse userProfileResponse = userService.getUserProfile(UUID.randomUUID());
+    public ResponseEntity<?> getUserProfile(Authentication authentication, WebRequest webRequest) {
+
+        UUID userId = UUID.fromString(((TokenClaims) authentication.getDetails()).subject());
+
+        // Polling clients usually still hold the current version
+        if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && webRequest.checkNotModified(profileETag(userId, userService.getUserProfileVersion(userId)))) {
+            return null;
+        }
 
-        return ResponseEntity.ok().body(userProfileResponse);
+        UserProfileResponse userProfileResponse = userService.getUserProfile(userId);
+
+        return ResponseEntity.ok()
+                .eTag(profileETag(userId, userProfileResponse.version()))
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(userProfileResponse);
+    }
+
+    /**
+     * Builds the entity tag of a profile version. The user id is part of it,
+     * because the same URL serves a different profile to every user.
+     */
+    private static String profileETag(UUID userId, long version) {
+        return "\"" + userId + '-' + version + "\"";
     }
 }
@@ -23,8 +23,12 @@ public class RefreshToken implements BaseEntity<UUID> {
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
 
-    @Column(name = "token", unique = true)
-    private String token;
+    /**
+     * SHA-256 digest of the token, see {@link com.aleksandrmakarovdev.helpdesk.user.util.TokenHasher}.
+     * The token itself is not stored.
+     */
+    @Column(name = "token_hash", unique = true)
+    private byte[] tokenHash;
 
     @Column(name = "created_at")
     private Date createdAt;
@@ -45,6 +45,10 @@ public class User implements BaseEntity<UUID> {
     @Column(name = "access_failed_count")
     private Integer accessFailedCount;
 
+    // Maintained by database triggers whenever the profile changes
+    @Column(name = "version", insertable = false, updatable = false)
+    private Long version;
+
     @ManyToMany
     @JoinTable(name = "users_roles", joinColumns = @JoinColumn(name = "user_id"), inverseJoinColumns = @JoinColumn(name = "role_id"))
     private List<Role> roles;
@@ -0,0 +1,15 @@
+package com.aleksandrmakarovdev.helpdesk.user.model;
+
+import java.util.UUID;
+
+/**
+ * One row of the refresh token rotation statement: the token owner joined with one role name.
+ */
+public interface RefreshTokenRotationRow {
+
+    UUID getUserId();
+
+    String getUsername();
+
+    String getRoleName();
+}
@@ -0,0 +1,16 @@
+package com.aleksandrmakarovdev.helpdesk.user.model;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Immutable view of the verified claims of a token.
+ *
+ * @param roles     The roles of an access token as an unmodifiable list, {@code null} for refresh tokens.
+ * @param issuedAt  The {@code iat} claim, or {@code null} if absent.
+ * @param expiresAt The {@code exp} claim, or {@code null} if absent.
+ */
+public record TokenClaims(
+        String subject, String tokenId, String username, List<String> roles, Instant issuedAt, Instant expiresAt
+) {
+}
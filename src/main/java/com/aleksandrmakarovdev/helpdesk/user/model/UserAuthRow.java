@@ -0,0 +1,12 @@
+package com.aleksandrmakarovdev.helpdesk.user.model;
+
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * One row of the authentication query: the user's credentials and lockout state joined with one role name.
+ */
+public record UserAuthRow(
+        UUID id, String username, String passwordHash, Date lockoutExpiresAt, String roleName
+) {
+}
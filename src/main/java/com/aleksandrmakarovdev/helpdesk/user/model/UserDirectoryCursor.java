@@ -0,0 +1,45 @@
+package com.aleksandrmakarovdev.helpdesk.user.model;
+
+import com.aleksandrmakarovdev.helpdesk.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position in the user directory: the sort key {@code (created_at, id)} of the last user on a page.
+ * Sent to clients as an opaque URL-safe string.
+ */
+public record UserDirectoryCursor(LocalDateTime createdAt, UUID id) {
+
+    private static final char SEPARATOR = ',';
+
+    public String encode() {
+        byte[] value = (createdAt.toString() + SEPARATOR + id).getBytes(StandardCharsets.UTF_8);
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value);
+    }
+
+    /**
+     * Reads a cursor returned by a previous page.
+     *
+     * @param cursor The encoded cursor.
+     * @return The decoded cursor.
+     * @throws InvalidCursorException If the cursor was not produced by {@link #encode()}.
+     */
+    public static UserDirectoryCursor decode(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.indexOf(SEPARATOR);
+
+            return new UserDirectoryCursor(
+                    LocalDateTime.parse(value.substring(0, separator)),
+                    UUID.fromString(value.substring(separator + 1))
+            );
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new InvalidCursorException("Invalid cursor.");
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.aleksandrmakarovdev.helpdesk.user.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public record UserDirectoryEntry(
+        UUID id, String email, List<String> roles, LocalDateTime createdAt, LocalDateTime lockoutExpiresAt
+) {
+}
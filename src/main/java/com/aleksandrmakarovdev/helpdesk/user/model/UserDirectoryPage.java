@@ -0,0 +1,12 @@
+package com.aleksandrmakarovdev.helpdesk.user.model;
+
+import java.util.List;
+
+/**
+ * One page of the user directory.
+ *
+ * @param users      The users, newest first.
+ * @param nextCursor The cursor of the next page, or {@code null} on the last page.
+ */
+public record UserDirectoryPage(List<UserDirectoryEntry> users, String nextCursor) {
+}
@@ -0,0 +1,23 @@
+package com.aleksandrmakarovdev.helpdesk.user.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filters and position of a user directory page. All filters are optional.
+ *
+ * @param emailPrefix Case-insensitive prefix of the email address.
+ * @param role        A role the users must have.
+ * @param createdFrom Inclusive lower bound of the registration time.
+ * @param createdTo   Exclusive upper bound of the registration time.
+ * @param cursor      The cursor of the previous page, or {@code null} for the first page.
+ * @param limit       The maximum number of users on the page.
+ */
+public record UserDirectoryQuery(
+        String emailPrefix,
+        RoleName role,
+        LocalDateTime createdFrom,
+        LocalDateTime createdTo,
+        UserDirectoryCursor cursor,
+        int limit
+) {
+}
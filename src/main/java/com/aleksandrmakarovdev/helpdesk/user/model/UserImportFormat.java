@@ -0,0 +1,17 @@
+package com.aleksandrmakarovdev.helpdesk.user.model;
+
+/**
+ * Formats accepted by the bulk user import, one user per line.
+ */
+public enum UserImportFormat {
+
+    /**
+     * One JSON object per line with {@code email} and {@code password}.
+     */
+    NDJSON,
+
+    /**
+     * {@code email,password} per line, with an optional header and RFC 4180 quoting.
+     */
+    CSV
+}
@@ -0,0 +1,25 @@
+package com.aleksandrmakarovdev.helpdesk.user.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * The outcome of importing one line of a bulk import, streamed back as one NDJSON line.
+ *
+ * @param line    The line number in the uploaded file, starting at 1.
+ * @param email   The email address read from the line, if any.
+ * @param status  The outcome.
+ * @param message Why the line was not imported, omitted for created users.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UserImportResult(long line, String email, Status status, String message) {
+
+    public enum Status {
+        CREATED,
+        DUPLICATE,
+        INVALID,
+        FAILED,
+
+        // The import stopped at this line, neither it nor any later line was imported
+        ABORTED
+    }
+}
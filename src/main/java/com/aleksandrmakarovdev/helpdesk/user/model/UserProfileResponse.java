@@ -1,9 +1,16 @@
 package com.aleksandrmakarovdev.helpdesk.user.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.util.UUID;
 import java.util.List;
 
+/**
+ * The profile of a user.
+ *
+ * @param version The profile version the response was built from, sent as the {@code ETag} instead of in the body.
+ */
 public record UserProfileResponse(
-        UUID id, String email, List<String> roles
+        UUID id, String email, List<String> roles, @JsonIgnore long version
 ) {
 }
@@ -0,0 +1,9 @@
+package com.aleksandrmakarovdev.helpdesk.user.model;
+
+import java.util.UUID;
+
+/**
+ * One row of the profile query: the user's profile fields and version joined with one role name.
+ */
+public record UserProfileRow(UUID id, String email, long version, String roleName) {
+}
@@ -1,10 +1,97 @@
 package com.aleksandrmakarovdev.helpdesk.user.repository;
 
 import com.aleksandrmakarovdev.helpdesk.user.entity.RefreshToken;
+import com.aleksandrmakarovdev.helpdesk.user.model.RefreshTokenRotationRow;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Date;
+import java.util.List;
 import java.util.UUID;
 
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, UUID> {
 
+    /**
+     * Revokes a refresh token and stores its replacement in a single statement.
+     * Only an unrevoked, unexpired token owned by the given user is rotated; the row lock taken
+     * by the update makes concurrent rotations of the same token succeed at most once.
+     *
+     * @param oldTokenHash The digest of the presented refresh token.
+     * @param userId       The user id from the subject of the presented token.
+     * @param oldExpiresAt The expiration of the presented token in whole seconds, as in its {@code exp} claim.
+     *                     Narrows the lookup to a single partition.
+     * @param newTokenHash The digest of the replacement refresh token.
+     * @param createdAt    Issue date of the replacement, also used as the revocation date.
+     * @param expiresAt    Expiration date of the replacement.
+     * @return One row per role of the token owner, a single row with a null role if the user has none,
+     * or no rows if the token could not be rotated.
+     */
+    @Query(nativeQuery = true, value = """
+            with revoked as (
+                update refresh_tokens
+                set revoked_at = :createdAt
+                where token_hash = :oldTokenHash
+                  and expires_at >= :oldExpiresAt
+                  and expires_at < cast(:oldExpiresAt as timestamp) + interval '1 second'
+                  and user_id = :userId
+                  and revoked_at is null
+                  and expires_at > :createdAt
+                returning user_id
+            ), inserted as (
+                insert into refresh_tokens (token_hash, created_at, expires_at, user_id)
+                select :newTokenHash, :createdAt, :expiresAt, user_id from revoked
+                returning user_id
+            )
+            select u.id as "userId", u.username as "username", r.name as "roleName"
+            from inserted i
+                     join users u on u.id = i.user_id
+                     left join users_roles ur on ur.user_id = u.id
+                     left join roles r on r.id = ur.role_id
+            """)
+    List<RefreshTokenRotationRow> rotate(@Param("oldTokenHash") byte[] oldTokenHash,
+                                         @Param("userId") UUID userId,
+                                         @Param("oldExpiresAt") Date oldExpiresAt,
+                                         @Param("newTokenHash") byte[] newTokenHash,
+                                         @Param("createdAt") Date createdAt,
+                                         @Param("expiresAt") Date expiresAt);
+
+    /**
+     * Revokes a single refresh token, for example on logout.
+     *
+     * @param tokenHash The digest of the token.
+     * @param expiresAt The expiration of the token in whole seconds, as in its {@code exp} claim.
+     * @param revokedAt The revocation date.
+     * @return The number of revoked tokens.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            update refresh_tokens
+            set revoked_at = :revokedAt
+            where token_hash = :tokenHash
+              and expires_at >= :expiresAt
+              and expires_at < cast(:expiresAt as timestamp) + interval '1 second'
+              and revoked_at is null
+            """)
+    int revoke(@Param("tokenHash") byte[] tokenHash,
+               @Param("expiresAt") Date expiresAt,
+               @Param("revokedAt") Date revokedAt);
+
+    /**
+     * Revokes all unexpired refresh tokens of a user.
+     *
+     * @param userId    The user id.
+     * @param revokedAt The revocation date.
+     * @return The number of revoked tokens.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            update refresh_tokens
+            set revoked_at = :revokedAt
+            where user_id = :userId
+              and expires_at > :revokedAt
+              and revoked_at is null
+            """)
+    int revokeAllByUserId(@Param("userId") UUID userId, @Param("revokedAt") Date revokedAt);
 }
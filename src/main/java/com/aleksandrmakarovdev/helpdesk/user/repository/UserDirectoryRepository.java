@@ -0,0 +1,124 @@
+package com.aleksandrmakarovdev.helpdesk.user.repository;
+
+import com.aleksandrmakarovdev.helpdesk.user.model.UserDirectoryCursor;
+import com.aleksandrmakarovdev.helpdesk.user.model.UserDirectoryEntry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Lists users for the admin directory with keyset pagination over {@code (created_at, id)}.
+ * <p>
+ * Each page continues right after the sort key of the previous page's last user, so the database
+ * seeks into {@code users_created_at_id_idx} instead of skipping rows, and page 10,000 costs the same as page 1.
+ * A role filter seeks {@code users_roles_role_id_created_at_idx} instead, which carries the same sort key,
+ * so a page of a rare role costs the same as a page of all users.
+ * Only the filters that are set become part of the statement, so each combination gets its own plan.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserDirectoryRepository {
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    /**
+     * Finds a page of users, newest first.
+     *
+     * @param emailPrefix Case-insensitive email prefix, or {@code null}.
+     * @param roleId      Id of a role the users must have, or {@code null}.
+     * @param createdFrom Inclusive lower bound of {@code created_at}, or {@code null}.
+     * @param createdTo   Exclusive upper bound of {@code created_at}, or {@code null}.
+     * @param after       Sort key of the last user of the previous page, or {@code null} for the first page.
+     * @param limit       The maximum number of users to return.
+     * @return The users, ordered by {@code created_at} and {@code id}, both descending.
+     */
+    public List<UserDirectoryEntry> findPage(String emailPrefix,
+                                             UUID roleId,
+                                             LocalDateTime createdFrom,
+                                             LocalDateTime createdTo,
+                                             UserDirectoryCursor after,
+                                             int limit) {
+
+        // A role filter drives the page from the role's entries, which carry the users' sort key
+        boolean byRole = roleId != null;
+        String createdAt = byRole ? "fr.user_created_at" : "u.created_at";
+        String id = byRole ? "fr.user_id" : "u.id";
+
+        StringBuilder sql = new StringBuilder("""
+                select u.id, u.email, u.created_at, u.lockout_expires_at,
+                       array(select r.name
+                             from users_roles ur
+                                      join roles r on r.id = ur.role_id
+                             where ur.user_id = u.id
+                             order by r.name) as roles
+                """);
+        MapSqlParameterSource parameters = new MapSqlParameterSource();
+
+        if (byRole) {
+            // Matches users_roles_role_id_created_at_idx, so a rare role does not walk most of users
+            sql.append(" from users_roles fr join users u on u.id = fr.user_id where fr.role_id = :roleId");
+            parameters.addValue("roleId", roleId);
+        } else {
+            sql.append(" from users u where true");
+        }
+
+        if (emailPrefix != null) {
+            // Matches users_email_lower_prefix_idx
+            sql.append(" and lower(u.email) like :emailPattern escape '\\'");
+            parameters.addValue("emailPattern", escapeLike(emailPrefix.toLowerCase(Locale.ROOT)) + '%');
+        }
+
+        if (createdFrom != null) {
+            sql.append(" and ").append(createdAt).append(" >= :createdFrom");
+            parameters.addValue("createdFrom", Timestamp.valueOf(createdFrom));
+        }
+
+        if (createdTo != null) {
+            sql.append(" and ").append(createdAt).append(" < :createdTo");
+            parameters.addValue("createdTo", Timestamp.valueOf(createdTo));
+        }
+
+        if (after != null) {
+            // A row comparison, so that the index can seek to the position in one step
+            sql.append(" and (").append(createdAt).append(", ").append(id).append(") < (:afterCreatedAt, :afterId)");
+            parameters.addValue("afterCreatedAt", Timestamp.valueOf(after.createdAt()));
+            parameters.addValue("afterId", after.id());
+        }
+
+        sql.append(" order by ").append(createdAt).append(" desc, ").append(id).append(" desc limit :limit");
+        parameters.addValue("limit", limit);
+
+        return namedParameterJdbcTemplate.query(sql.toString(), parameters, (resultSet, rowNum) -> {
+            Timestamp lockoutExpiresAt = resultSet.getTimestamp("lockout_expires_at");
+
+            return new UserDirectoryEntry(
+                    resultSet.getObject("id", UUID.class),
+                    resultSet.getString("email"),
+                    toList(resultSet.getArray("roles")),
+                    resultSet.getTimestamp("created_at").toLocalDateTime(),
+                    lockoutExpiresAt != null ? lockoutExpiresAt.toLocalDateTime() : null
+            );
+        });
+    }
+
+    private static List<String> toList(Array array) throws SQLException {
+        return array != null ? Arrays.asList((String[]) array.getArray()) : List.of();
+    }
+
+    /**
+     * Escapes the wildcards of a {@code like} pattern, so that the prefix is matched literally.
+     */
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,67 @@
+package com.aleksandrmakarovdev.helpdesk.user.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Inserts the users of a bulk import a batch at a time.
+ * <p>
+ * A batch is passed as two arrays and expanded with {@code unnest}, so it is a single statement and a single
+ * round trip however many users it contains. Users and their role are inserted together, and users whose
+ * email address is taken are skipped by {@code on conflict do nothing} instead of failing the whole batch.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserImportRepository {
+
+    private static final String INSERT_SQL = """
+            with inserted_users as (
+                insert into users (username, email, password_hash, created_at)
+                select u.email, u.email, u.password_hash, ?
+                from unnest(?::varchar[], ?::varchar[]) as u(email, password_hash)
+                on conflict do nothing
+                returning id, email, created_at
+            ), inserted_roles as (
+                insert into users_roles (user_id, role_id, user_created_at)
+                select id, ?, created_at from inserted_users
+            )
+            select email from inserted_users
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts users with a role, skipping those whose email address or username already exists.
+     * The statement commits on its own unless a transaction is active.
+     *
+     * @param emails         The email addresses, also used as usernames. Must not contain duplicates.
+     * @param passwordHashes The password hashes, in the same order as the email addresses.
+     * @param createdAt      The registration time of all users.
+     * @param roleId         The id of the role assigned to all users.
+     * @return The email addresses of the users that were inserted.
+     */
+    public Set<String> insertWithRole(List<String> emails, List<String> passwordHashes, Timestamp createdAt, UUID roleId) {
+        Set<String> inserted = new HashSet<>(emails.size() * 2);
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(INSERT_SQL);
+            statement.setTimestamp(1, createdAt);
+            statement.setArray(2, connection.createArrayOf("varchar", emails.toArray()));
+            statement.setArray(3, connection.createArrayOf("varchar", passwordHashes.toArray()));
+            statement.setObject(4, roleId);
+            return statement;
+        }, resultSet -> {
+            inserted.add(resultSet.getString("email"));
+        });
+
+        return inserted;
+    }
+}
@@ -1,9 +1,17 @@
 package com.aleksandrmakarovdev.helpdesk.user.repository;
 
 import com.aleksandrmakarovdev.helpdesk.user.entity.User;
+import com.aleksandrmakarovdev.helpdesk.user.model.UserAuthRow;
+import com.aleksandrmakarovdev.helpdesk.user.model.UserProfileRow;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -13,4 +21,69 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     Optional<User> findByUsername(String username);
 
     Optional<User> findByEmail(String email);
+
+    /**
+     * Loads everything needed to authenticate a user in one statement, without loading the entity.
+     *
+     * @param username The username.
+     * @return One row per role of the user, a single row with a null role if the user has none,
+     * or no rows if the user does not exist.
+     */
+    @Query("""
+            select new com.aleksandrmakarovdev.helpdesk.user.model.UserAuthRow(
+                u.id, u.username, u.passwordHash, u.lockoutExpiresAt, r.name)
+            from User u left join u.roles r
+            where u.username = :username
+            """)
+    List<UserAuthRow> findAuthRowsByUsername(@Param("username") String username);
+
+    /**
+     * Loads a user's profile in one statement, without loading the entity.
+     *
+     * @param id The user id.
+     * @return One row per role of the user, a single row with a null role if the user has none,
+     * or no rows if the user does not exist.
+     */
+    @Query("""
+            select new com.aleksandrmakarovdev.helpdesk.user.model.UserProfileRow(u.id, u.email, u.version, r.name)
+            from User u left join u.roles r
+            where u.id = :id
+            """)
+    List<UserProfileRow> findProfileRowsById(@Param("id") UUID id);
+
+    /**
+     * Reads only the profile version of a user, to answer conditional requests without loading the profile.
+     *
+     * @param id The user id.
+     * @return The version, or empty if the user does not exist.
+     */
+    @Query("select u.version from User u where u.id = :id")
+    Optional<Long> findVersionById(@Param("id") UUID id);
+
+    /**
+     * Inserts a user together with its role in a single statement.
+     * Relies on the unique constraints of {@code users} to reject duplicates.
+     *
+     * @return The number of inserted role assignments, {@code 1} on success.
+     */
+    @Modifying
+    @Transactional
+    @Query(nativeQuery = true, value = """
+            with inserted_user as (
+                insert into users (username, email, password_hash, created_at)
+                values (:username, :email, :passwordHash, :createdAt)
+                returning id, created_at
+            )
+            insert into users_roles (user_id, role_id, user_created_at)
+            select id, :roleId, created_at from inserted_user
+            """)
+    int insertWithRole(@Param("username") String username,
+                       @Param("email") String email,
+                       @Param("passwordHash") String passwordHash,
+                       @Param("createdAt") Date createdAt,
+                       @Param("roleId") UUID roleId);
+
+    @Modifying
+    @Query("update User u set u.passwordHash = :passwordHash where u.id = :id")
+    int updatePasswordHash(@Param("id") UUID id, @Param("passwordHash") String passwordHash);
 }
@@ -1,18 +1,28 @@
 package com.aleksandrmakarovdev.helpdesk.user.service;
 
+import com.aleksandrmakarovdev.helpdesk.security.AuthPhaseMetrics;
+import com.aleksandrmakarovdev.helpdesk.security.TokenRevocationService;
+import com.aleksandrmakarovdev.helpdesk.security.UserDetailsCache;
 import com.aleksandrmakarovdev.helpdesk.security.WebUserDetails;
 import com.aleksandrmakarovdev.helpdesk.user.entity.RefreshToken;
+import com.aleksandrmakarovdev.helpdesk.user.model.RefreshTokenRotationRow;
 import com.aleksandrmakarovdev.helpdesk.user.model.Token;
+import com.aleksandrmakarovdev.helpdesk.user.model.TokenClaims;
+import com.aleksandrmakarovdev.helpdesk.user.model.TokensResponse;
 import com.aleksandrmakarovdev.helpdesk.user.repository.RefreshTokenRepository;
 import com.aleksandrmakarovdev.helpdesk.user.util.JwtUtil;
+import com.aleksandrmakarovdev.helpdesk.user.util.TokenHasher;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.HashMap;
+import java.util.Date;
 import java.util.List;
-import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
@@ -20,10 +30,15 @@ public class DefaultTokenService implements TokenService {
 
     private final RefreshTokenRepository refreshTokenRepository;
     private final JwtUtil jwtUtil;
+    private final RefreshTokenWriteBuffer refreshTokenWriteBuffer;
+    private final TokenRevocationService tokenRevocationService;
+    private final UserDetailsCache userDetailsCache;
+    private final AuthPhaseMetrics authPhaseMetrics;
 
     /**
      * Creates and stores a refresh token for the given user.
-     * The token is saved to the database for later validation and tracking.
+     * The token is saved to the database for later validation and tracking, either right away
+     * or by the {@link RefreshTokenWriteBuffer} if write-behind is enabled.
      *
      * @param userDetails The authenticated user's details.
      * @return A {@link Token} object representing the issued refresh token.
@@ -33,21 +48,37 @@ public class DefaultTokenService implements TokenService {
     public Token createRefreshToken(WebUserDetails userDetails) {
 
         // Issue a refresh token
+        long issueStartedAt = System.nanoTime();
         Token issuedRefreshToken = issueRefreshToken(userDetails);
+        byte[] tokenHash = TokenHasher.hash(issuedRefreshToken.token());
+        authPhaseMetrics.record(AuthPhaseMetrics.Phase.LOGIN_REFRESH_TOKEN_ISSUE, issueStartedAt);
 
-        // Build and save the refresh token entity
+        long insertStartedAt = System.nanoTime();
+
+        // Leave the insert to the background writer if write-behind is enabled
+        if (refreshTokenWriteBuffer.isEnabled()) {
+            refreshTokenWriteBuffer.add(
+                    tokenHash, issuedRefreshToken.issuedAt(), issuedRefreshToken.expiresAt(), userDetails.getId()
+            );
+            authPhaseMetrics.record(AuthPhaseMetrics.Phase.LOGIN_REFRESH_TOKEN_INSERT, insertStartedAt);
+            return issuedRefreshToken;
+        }
+
+        // Build and save the refresh token entity, storing only the token's digest
         RefreshToken token = RefreshToken
                 .builder()
-                .token(issuedRefreshToken.token())
+                .tokenHash(tokenHash)
                 .createdAt(issuedRefreshToken.issuedAt())
                 .expiresAt(issuedRefreshToken.expiresAt())
                 .userId(userDetails.getId())
                 .build();
 
-        refreshTokenRepository.save(token);
+        // Flush right away, otherwise the insert would run at commit and escape the timer
+        refreshTokenRepository.saveAndFlush(token);
+        authPhaseMetrics.record(AuthPhaseMetrics.Phase.LOGIN_REFRESH_TOKEN_INSERT, insertStartedAt);
 
         // Return the token data
-        return new Token(token.getToken(), token.getCreatedAt(), token.getExpiresAt());
+        return issuedRefreshToken;
     }
 
     /**
@@ -58,13 +89,9 @@ public class DefaultTokenService implements TokenService {
      * @return A {@link Token} object representing the issued refresh token.
      */
     private Token issueRefreshToken(WebUserDetails userDetails) {
-        Map<String, Object> claims = new HashMap<>();
 
-        // Add the user ID as the subject claim
-        claims.put("sub", userDetails.getId().toString());
-
-        // Issue the refresh token using a predefined lifetime
-        return jwtUtil.issue(claims, JwtUtil.REFRESH_TOKEN_LIFETIME);
+        // Issue the refresh token with the user ID as the subject claim
+        return jwtUtil.issueRefreshToken(userDetails.getId().toString());
     }
 
     /**
@@ -76,7 +103,6 @@ public class DefaultTokenService implements TokenService {
      */
     @Override
     public Token createAccessToken(WebUserDetails userDetails) {
-        Map<String, Object> claims = new HashMap<>();
 
         // Extract user roles
         List<String> roles = userDetails.getAuthorities()
@@ -84,12 +110,152 @@ public class DefaultTokenService implements TokenService {
                 .map(GrantedAuthority::getAuthority)
                 .toList();
 
-        // Add user claims to the token
-        claims.put("sub", userDetails.getId().toString());
-        claims.put("username", userDetails.getUsername());
-        claims.put("roles", roles);
+        // Issue after the user's revocation watermark, which may fall into the current second
+        long issuedAt = tokenRevocationService.issueTime(userDetails.getId(), System.currentTimeMillis());
+
+        // Issue the access token with the user ID, username and roles
+        return jwtUtil.issueAccessToken(userDetails.getId().toString(), userDetails.getUsername(), roles, issuedAt);
+    }
+
+    /**
+     * Exchanges a refresh token for a new pair of tokens without loading the user entity or hashing a password.
+     * The token signature is verified in memory, then a single statement revokes the presented token,
+     * stores its replacement and returns the owner's username and roles for the new access token.
+     *
+     * @param refreshToken The presented refresh token.
+     * @return A {@link TokensResponse} object containing the new refresh and access tokens.
+     * @throws BadCredentialsException If the token is invalid, expired, revoked or unknown.
+     */
+    @Override
+    @Transactional
+    public TokensResponse rotateRefreshToken(String refreshToken) {
+
+        // Verify the signature and expiration before touching the database
+        TokenClaims claims;
+
+        try {
+            claims = jwtUtil.parse(refreshToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new BadCredentialsException("Invalid refresh token.");
+        }
+
+        UUID userId = parseUserId(claims.subject());
+
+        // The expiration locates the token's partition
+        if (claims.expiresAt() == null) {
+            throw new BadCredentialsException("Invalid refresh token.");
+        }
+
+        byte[] tokenHash = TokenHasher.hash(refreshToken);
+
+        // A token issued moments ago may still be waiting for the background writer
+        refreshTokenWriteBuffer.awaitPersisted(tokenHash);
+
+        // Issue the replacement for the same user
+        Token newRefreshToken = jwtUtil.issueRefreshToken(userId.toString());
+
+        // Revoke the old token, insert the new one and read the owner in one round trip
+        List<RefreshTokenRotationRow> rows = refreshTokenRepository.rotate(
+                tokenHash,
+                userId,
+                Date.from(claims.expiresAt()),
+                TokenHasher.hash(newRefreshToken.token()),
+                newRefreshToken.issuedAt(),
+                newRefreshToken.expiresAt()
+        );
+
+        if (rows.isEmpty()) {
+            throw new BadCredentialsException("Invalid refresh token.");
+        }
+
+        // A user without roles yields a single row with a null role name
+        List<String> roles = rows.stream()
+                .map(RefreshTokenRotationRow::getRoleName)
+                .filter(Objects::nonNull)
+                .toList();
+
+        WebUserDetails userDetails = new WebUserDetails(userId, rows.get(0).getUsername(), null, null, roles);
+
+        return new TokensResponse(newRefreshToken, createAccessToken(userDetails));
+    }
+
+    /**
+     * Revokes the presented access token until it expires and the session's refresh token.
+     * An invalid refresh token is ignored, it can not be used anyway.
+     *
+     * @param accessToken  The verified claims of the presented access token.
+     * @param refreshToken The refresh token of the session, or {@code null} if unknown.
+     */
+    @Override
+    @Transactional
+    public void revokeTokens(TokenClaims accessToken, String refreshToken) {
+
+        // Deny the access token for the rest of its lifetime
+        if (accessToken.tokenId() != null) {
+            tokenRevocationService.revoke(accessToken.tokenId(), accessToken.expiresAt().toEpochMilli());
+        }
+
+        if (refreshToken == null) {
+            return;
+        }
+
+        TokenClaims refreshClaims;
+
+        try {
+            refreshClaims = jwtUtil.parse(refreshToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            return;
+        }
+
+        // Only the owner of the access token may revoke the refresh token
+        if (!Objects.equals(accessToken.subject(), refreshClaims.subject()) || refreshClaims.expiresAt() == null) {
+            return;
+        }
+
+        byte[] tokenHash = TokenHasher.hash(refreshToken);
+
+        // A token issued moments ago may still be waiting for the background writer
+        refreshTokenWriteBuffer.awaitPersisted(tokenHash);
+
+        refreshTokenRepository.revoke(tokenHash, Date.from(refreshClaims.expiresAt()), new Date());
+    }
+
+    /**
+     * Revokes all tokens of a user: access tokens by a watermark on their issue time,
+     * refresh tokens in the database. The user's cached authentication snapshot is dropped as well.
+     *
+     * @param userId The user id.
+     */
+    @Override
+    @Transactional
+    public void revokeAllTokens(UUID userId) {
+        tokenRevocationService.revokeAll(userId);
+
+        // The next login reads the user from the database again
+        userDetailsCache.removeUserFromCache(userId);
+
+        // Flush pending inserts so that no refresh token escapes the update
+        refreshTokenWriteBuffer.flush();
+
+        refreshTokenRepository.revokeAllByUserId(userId, new Date());
+    }
+
+    /**
+     * Reads the user id from the subject of a verified refresh token.
+     *
+     * @param subject The subject claim.
+     * @return The user id.
+     * @throws BadCredentialsException If the subject is missing or not a UUID.
+     */
+    private static UUID parseUserId(String subject) {
+        if (subject == null) {
+            throw new BadCredentialsException("Invalid refresh token.");
+        }
 
-        // Issue the access token using a predefined lifetime
-        return jwtUtil.issue(claims, JwtUtil.ACCESS_TOKEN_LIFETIME);
+        try {
+            return UUID.fromString(subject);
+        } catch (IllegalArgumentException e) {
+            throw new BadCredentialsException("Invalid refresh token.");
+        }
     }
 }
@@ -3,111 +3,259 @@ package com.aleksandrmakarovdev.helpdesk.user.service;
 import com.aleksandrmakarovdev.helpdesk.exception.RoleNotFoundException;
 import com.aleksandrmakarovdev.helpdesk.exception.UserFoundException;
 import com.aleksandrmakarovdev.helpdesk.exception.UserNotFoundException;
+import com.aleksandrmakarovdev.helpdesk.security.AuthPhaseMetrics;
+import com.aleksandrmakarovdev.helpdesk.security.LoginAttemptTracker;
 import com.aleksandrmakarovdev.helpdesk.security.WebUserDetails;
 import com.aleksandrmakarovdev.helpdesk.user.model.*;
-import com.aleksandrmakarovdev.helpdesk.user.repository.RoleRepository;
+import com.aleksandrmakarovdev.helpdesk.user.repository.UserDirectoryRepository;
 import com.aleksandrmakarovdev.helpdesk.user.repository.UserRepository;
-import com.aleksandrmakarovdev.helpdesk.user.entity.Role;
-import com.aleksandrmakarovdev.helpdesk.user.entity.User;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.LockedException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.SQLException;
 import java.time.Instant;
 import java.util.Date;
 import java.util.List;
-import java.util.Optional;
+import java.util.Objects;
 import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 public class DefaultUserService implements UserService {
 
+    private static final String UNIQUE_VIOLATION_SQL_STATE = "23505";
+
     private final PasswordEncoder passwordEncoder;
-    private final RoleRepository roleRepository;
+    private final RoleRegistry roleRegistry;
     private final UserRepository userRepository;
+    private final UserDirectoryRepository userDirectoryRepository;
     private final AuthenticationManager authenticationManager;
     private final TokenService tokenService;
+    private final LoginAttemptTracker loginAttemptTracker;
+    private final AuthPhaseMetrics authPhaseMetrics;
 
     /**
      * Creates a new user in the system with the provided email and password.
-     * Ensures the user does not already exist, assigns the default USER_ROLE,
-     * hashes the password, and saves the user to the database.
+     * Hashes the password and inserts the user with the default USER_ROLE in a single statement.
+     * Duplicates are detected by the unique constraints instead of a preceding lookup,
+     * which also keeps concurrent registrations of the same email correct.
+     * The password is hashed before a connection is taken, the atomic insert needs no surrounding transaction.
      *
      * @param createUserRequest The user's registration details (email and password).
      * @throws UserFoundException    If a user with the same email already exists.
      * @throws RoleNotFoundException If the default user role cannot be found.
      */
     @Override
-    @Transactional
     public void createUser(CreateUserRequest createUserRequest) {
 
-        Optional<User> foundUser = userRepository.findByEmail(createUserRequest.getEmail());
+        // Get USER_ROLE id from the registry, no query needed
+        UUID userRoleId = roleRegistry.getId(RoleName.ROLE_USER);
 
-        // Check if email address is already registered
-        if (foundUser.isPresent()) {
-            throw new UserFoundException(String.format("User '%s' already exists.", createUserRequest.getEmail()));
-        }
+        // Encode password with Bcrypt Encoder
+        long hashStartedAt = System.nanoTime();
+        String passwordHash = passwordEncoder.encode(createUserRequest.getPassword());
+        authPhaseMetrics.record(AuthPhaseMetrics.Phase.REGISTER_PASSWORD_HASH, hashStartedAt);
 
-        // Get USER_ROLE entity by name
-        Optional<Role> userRole = roleRepository.findByName(RoleName.ROLE_USER.name());
+        // Insert the user and its role in one round trip
+        long insertStartedAt = System.nanoTime();
 
-        if (userRole.isEmpty()) {
-            throw new RoleNotFoundException(String.format("Role '%s' not found.", RoleName.ROLE_USER.name()));
+        try {
+            userRepository.insertWithRole(
+                    createUserRequest.getEmail(),
+                    createUserRequest.getEmail(),
+                    passwordHash,
+                    Date.from(Instant.now()),
+                    userRoleId
+            );
+        } catch (DataIntegrityViolationException e) {
+            if (!isUniqueViolation(e)) {
+                throw e;
+            }
+            throw new UserFoundException(String.format("User '%s' already exists.", createUserRequest.getEmail()));
+        } finally {
+            authPhaseMetrics.record(AuthPhaseMetrics.Phase.REGISTER_USER_INSERT, insertStartedAt);
         }
+    }
 
-        // Encode password with Bcrypt Encoder
-        String passwordHash = passwordEncoder.encode(createUserRequest.getPassword());
-
-        User userToCreate = User
-                .builder()
-                .email(createUserRequest.getEmail())
-                .username(createUserRequest.getEmail())
-                .passwordHash(passwordHash)
-                .roles(List.of(userRole.get()))
-                .createdAt(Date.from(Instant.now()))
-                .build();
-
-        // Save user to the database
-        userRepository.save(userToCreate);
+    /**
+     * Checks whether a data integrity violation was caused by a unique constraint.
+     *
+     * @param e The exception thrown by the repository.
+     * @return {@code true} if the database reported a unique violation.
+     */
+    private static boolean isUniqueViolation(DataIntegrityViolationException e) {
+        return NestedExceptionUtils.getMostSpecificCause(e) instanceof SQLException sqlException
+                && UNIQUE_VIOLATION_SQL_STATE.equals(sqlException.getSQLState());
     }
 
     /**
      * Authenticates a user with the provided email and password.
      * Issues a pair of tokens (refresh and access) upon successful authentication.
+     * Not transactional: the user is loaded and the refresh token stored in transactions of their own,
+     * so no connection is held while the password is verified.
      *
      * @param loginUserRequest The user's login credentials (email and password).
      * @return A {@link TokensResponse} object containing the refresh and access tokens.
      * @throws AuthenticationException If authentication fails.
+     * @throws LockedException         If the account is locked out after too many failed attempts.
      */
     @Override
-    @Transactional
     public TokensResponse loginUser(LoginUserRequest loginUserRequest) {
 
+        // Reject locked out accounts before loading the user or hashing the password
+        if (loginAttemptTracker.isLocked(loginUserRequest.getEmail())) {
+            throw new LockedException("User account is locked.");
+        }
+
+        Authentication authentication;
+
         // Try to authenticate user with email and password
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(loginUserRequest.getEmail(), loginUserRequest.getPassword())
-        );
+        long authenticateStartedAt = System.nanoTime();
+
+        try {
+            authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(loginUserRequest.getEmail(), loginUserRequest.getPassword())
+            );
+        } catch (UsernameNotFoundException e) {
+            // Unknown usernames are not tracked, and the response must not reveal that the user does not exist
+            throw new BadCredentialsException("Bad credentials");
+        } catch (BadCredentialsException e) {
+            loginAttemptTracker.recordFailure(loginUserRequest.getEmail());
+            throw e;
+        } finally {
+            authPhaseMetrics.record(AuthPhaseMetrics.Phase.LOGIN_AUTHENTICATE, authenticateStartedAt);
+        }
+
+        loginAttemptTracker.recordSuccess(loginUserRequest.getEmail());
 
         // Extract authenticated user's details
         WebUserDetails userDetails = (WebUserDetails) authentication.getPrincipal();
 
         // Generate tokens for the authenticated user
         Token refreshToken = tokenService.createRefreshToken(userDetails);
+
+        long accessTokenStartedAt = System.nanoTime();
         Token accessToken = tokenService.createAccessToken(userDetails);
+        authPhaseMetrics.record(AuthPhaseMetrics.Phase.LOGIN_ACCESS_TOKEN_ISSUE, accessTokenStartedAt);
 
         return new TokensResponse(refreshToken, accessToken);
     }
 
+    /**
+     * Exchanges a refresh token for a new pair of tokens.
+     *
+     * @param refreshToken The refresh token from the {@code refresh-token} cookie.
+     * @return A {@link TokensResponse} object containing the new refresh and access tokens.
+     * @throws AuthenticationException If the refresh token is invalid, expired, revoked or unknown.
+     */
+    @Override
+    public TokensResponse refreshUser(String refreshToken) {
+        return tokenService.rotateRefreshToken(refreshToken);
+    }
+
+    /**
+     * Revokes the tokens of the current session.
+     *
+     * @param accessToken  The verified claims of the presented access token.
+     * @param refreshToken The refresh token from the {@code refresh-token} cookie, or {@code null} if absent.
+     */
+    @Override
+    public void logoutUser(TokenClaims accessToken, String refreshToken) {
+        tokenService.revokeTokens(accessToken, refreshToken);
+    }
+
+    /**
+     * Revokes all access and refresh tokens issued to a user.
+     *
+     * @param userId The user id.
+     */
+    @Override
+    public void revokeUserTokens(UUID userId) {
+        tokenService.revokeAllTokens(userId);
+    }
+
+    /**
+     * Loads the profile of a user with a single projection query, without loading the entity or its roles.
+     *
+     * @param userId The user id.
+     * @return The profile, including the version it was built from.
+     * @throws UserNotFoundException If the user does not exist.
+     */
     @Override
+    @Transactional(readOnly = true)
     public UserProfileResponse getUserProfile(UUID userId) {
-        return userRepository.findById(userId)
-                .map(user -> new UserProfileResponse(user.getId(), user.getEmail(), user.getRoles().stream().map(Role::getName).toList()))
-                .orElseThrow(() -> new UserNotFoundException(String.format("User '%s' not found", userId.toString())));
+        List<UserProfileRow> rows = userRepository.findProfileRowsById(userId);
+
+        if (rows.isEmpty()) {
+            throw new UserNotFoundException(String.format("User '%s' not found", userId));
+        }
+
+        // A user without roles yields a single row with a null role name
+        List<String> roles = rows.stream()
+                .map(UserProfileRow::roleName)
+                .filter(Objects::nonNull)
+                .toList();
+
+        UserProfileRow row = rows.get(0);
+
+        return new UserProfileResponse(row.id(), row.email(), roles, row.version());
+    }
+
+    /**
+     * Reads the version of a user's profile with a primary key lookup of a single column.
+     *
+     * @param userId The user id.
+     * @return The profile version.
+     * @throws UserNotFoundException If the user does not exist.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long getUserProfileVersion(UUID userId) {
+        return userRepository.findVersionById(userId)
+                .orElseThrow(() -> new UserNotFoundException(String.format("User '%s' not found", userId)));
+    }
+
+    /**
+     * Lists users for the admin directory with keyset pagination.
+     * Fetches one user more than requested to find out whether another page follows, without counting.
+     *
+     * @param query The filters, the cursor of the previous page and the page size.
+     * @return The page, with the cursor of the next page if there is one.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public UserDirectoryPage findUsers(UserDirectoryQuery query) {
+
+        // Role ids come from the registry, so the role filter needs no join to roles
+        UUID roleId = query.role() != null ? roleRegistry.getId(query.role()) : null;
+
+        List<UserDirectoryEntry> users = userDirectoryRepository.findPage(
+                query.emailPrefix(),
+                roleId,
+                query.createdFrom(),
+                query.createdTo(),
+                query.cursor(),
+                query.limit() + 1
+        );
+
+        if (users.size() <= query.limit()) {
+            return new UserDirectoryPage(users, null);
+        }
+
+        List<UserDirectoryEntry> page = users.subList(0, query.limit());
+        UserDirectoryEntry last = page.get(page.size() - 1);
+
+        return new UserDirectoryPage(page, new UserDirectoryCursor(last.createdAt(), last.id()).encode());
     }
 }
@@ -0,0 +1,164 @@
+package com.aleksandrmakarovdev.helpdesk.user.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Maintains the daily partitions of {@code refresh_tokens}, which is range-partitioned by {@code expires_at}.
+ * <p>
+ * Partitions are created a number of days ahead, so inserts never miss a partition even if maintenance
+ * is delayed. Partitions whose tokens have all expired are detached and dropped as a whole,
+ * which costs the same regardless of the number of rows and leaves no dead tuples behind.
+ */
+@Component
+public class RefreshTokenPartitionMaintainer {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenPartitionMaintainer.class);
+
+    private static final String PARENT_TABLE = "refresh_tokens";
+    private static final String PARTITION_PREFIX = PARENT_TABLE + "_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private static final String PARTITIONS_SQL = """
+            select c.relname
+            from pg_inherits i
+                     join pg_class c on c.oid = i.inhrelid
+            where i.inhparent = 'refresh_tokens'::regclass
+            """;
+
+    private static final String ATTACHED_SQL = """
+            select exists(select 1
+                          from pg_inherits i
+                                   join pg_class c on c.oid = i.inhrelid
+                          where i.inhparent = 'refresh_tokens'::regclass
+                            and c.relname = ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int precreateDays;
+    private final int retentionDays;
+
+    public RefreshTokenPartitionMaintainer(
+            JdbcTemplate jdbcTemplate,
+            @Value("${refresh-tokens.partitions.precreate-days:7}") int precreateDays,
+            @Value("${refresh-tokens.partitions.retention-days:1}") int retentionDays
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.precreateDays = precreateDays;
+        this.retentionDays = retentionDays;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        maintain();
+    }
+
+    /**
+     * Creates the partitions for the coming days and drops the ones that only hold expired tokens.
+     * Safe to run concurrently on several nodes: each partition is handled on its own, so a partition
+     * another node is working on does not stop the rest of the run.
+     */
+    @Scheduled(fixedDelayString = "${refresh-tokens.partitions.maintenance-interval:1h}",
+            initialDelayString = "${refresh-tokens.partitions.maintenance-interval:1h}")
+    public void maintain() {
+        LocalDate today = LocalDate.now();
+
+        createPartitions(today);
+        dropExpiredPartitions(today);
+    }
+
+    private void createPartitions(LocalDate today) {
+
+        // Start a day back to tolerate clock and time zone differences between nodes and the database
+        for (LocalDate day = today.minusDays(1); !day.isAfter(today.plusDays(precreateDays)); day = day.plusDays(1)) {
+            String partition = partitionName(day);
+
+            try {
+                jdbcTemplate.execute(String.format(
+                        "create table if not exists %s partition of %s for values from ('%s') to ('%s')",
+                        partition, PARENT_TABLE, day, day.plusDays(1)
+                ));
+            } catch (RuntimeException e) {
+                // Partitions are created days ahead, so a failure is retried well before inserts are affected
+                log.warn("Failed to create partition {}", partition, e);
+            }
+        }
+    }
+
+    private void dropExpiredPartitions(LocalDate today) {
+        LocalDate oldestKept = today.minusDays(retentionDays);
+        List<String> partitions;
+
+        try {
+            partitions = jdbcTemplate.queryForList(PARTITIONS_SQL, String.class);
+        } catch (RuntimeException e) {
+            log.warn("Failed to list {} partitions", PARENT_TABLE, e);
+            return;
+        }
+
+        for (String partition : partitions) {
+            LocalDate day = partitionDay(partition);
+
+            // Every token in the partition expired before the oldest kept day
+            if (day == null || !day.isBefore(oldestKept)) {
+                continue;
+            }
+
+            try {
+                dropPartition(partition);
+            } catch (RuntimeException e) {
+                // Expired partitions are only ignored by lookups, dropping them can wait for the next run
+                log.warn("Failed to drop expired partition {}", partition, e);
+            }
+        }
+    }
+
+    private void dropPartition(String partition) {
+
+        // Another node may have detached or dropped the partition since it was listed
+        if (isAttached(partition)) {
+            // Detaching concurrently avoids blocking inserts into the parent table while the partition is dropped
+            jdbcTemplate.execute(String.format("alter table %s detach partition %s concurrently", PARENT_TABLE, partition));
+        }
+
+        jdbcTemplate.execute(String.format("drop table if exists %s", partition));
+
+        log.info("Dropped expired partition {}", partition);
+    }
+
+    private boolean isAttached(String partition) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(ATTACHED_SQL, Boolean.class, partition));
+    }
+
+    private static String partitionName(LocalDate day) {
+        return PARTITION_PREFIX + PARTITION_SUFFIX.format(day);
+    }
+
+    /**
+     * Reads the day covered by a partition from its name.
+     *
+     * @return The day, or {@code null} for partitions not created by this class.
+     */
+    private static LocalDate partitionDay(String partition) {
+        if (!partition.startsWith(PARTITION_PREFIX)) {
+            return null;
+        }
+
+        try {
+            return LocalDate.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.aleksandrmakarovdev.helpdesk.user.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Optional write-behind persistence of issued refresh tokens, enabled with
+ * {@code refresh-tokens.write-behind.enabled}.
+ * <p>
+ * Issued tokens are queued and inserted in JDBC batches by a background thread, either every
+ * {@code flush-interval} or as soon as {@code batch-size} tokens are waiting, so login does not wait for an insert.
+ * The queue is bounded: when it is full, the token is inserted synchronously by the caller instead.
+ * Before a token is rotated, {@link #awaitPersisted(byte[])} flushes it if it is still pending,
+ * so a token is always in the database by the time it is looked up on this node.
+ * <p>
+ * A batch that fails is retried, then its tokens are inserted one by one, so a single bad row or a transient
+ * error does not lose the whole batch. Tokens stay pending until they are written or their own insert fails.
+ */
+@Component
+public class RefreshTokenWriteBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenWriteBuffer.class);
+
+    private static final String INSERT_SQL =
+            "insert into refresh_tokens (token_hash, created_at, expires_at, user_id) values (?, ?, ?, ?)";
+
+    private static final int BATCH_ATTEMPTS = 2;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+
+    private final BlockingQueue<PendingToken> queue;
+    private final Map<ByteBuffer, PendingToken> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final ScheduledExecutorService scheduler;
+
+    private final DistributionSummary batchSizeSummary;
+    private final Timer flushTimer;
+    private final Counter synchronousCounter;
+    private final Counter retriedCounter;
+    private final Counter failedCounter;
+
+    public RefreshTokenWriteBuffer(
+            JdbcTemplate jdbcTemplate,
+            @Value("${refresh-tokens.write-behind.enabled:false}") boolean enabled,
+            @Value("${refresh-tokens.write-behind.batch-size:100}") int batchSize,
+            @Value("${refresh-tokens.write-behind.flush-interval:5ms}") Duration flushInterval,
+            @Value("${refresh-tokens.write-behind.queue-capacity:10000}") int queueCapacity,
+            MeterRegistry meterRegistry
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        if (enabled) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "refresh-token-writer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.scheduler.scheduleWithFixedDelay(
+                    this::flushSafely, flushInterval.toNanos(), flushInterval.toNanos(), TimeUnit.NANOSECONDS
+            );
+        } else {
+            this.scheduler = null;
+        }
+
+        Gauge.builder("refresh.tokens.write.queue.size", queue, BlockingQueue::size)
+                .description("Number of refresh tokens waiting to be written")
+                .register(meterRegistry);
+
+        this.batchSizeSummary = DistributionSummary.builder("refresh.tokens.write.batch.size")
+                .description("Number of refresh tokens written per batch")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("refresh.tokens.write.flush")
+                .description("Time spent writing a batch of refresh tokens")
+                .register(meterRegistry);
+        this.synchronousCounter = Counter.builder("refresh.tokens.write.synchronous")
+                .description("Number of refresh tokens written synchronously because the queue was full")
+                .register(meterRegistry);
+        this.retriedCounter = Counter.builder("refresh.tokens.write.retried")
+                .description("Number of refresh token batches that failed and were retried")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("refresh.tokens.write.failed")
+                .description("Number of refresh tokens that could not be written")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues a refresh token for insertion, or inserts it right away if the queue is full.
+     *
+     * @param tokenHash The digest of the token.
+     * @param createdAt The issue date.
+     * @param expiresAt The expiration date.
+     * @param userId    The id of the token owner.
+     */
+    public void add(byte[] tokenHash, Date createdAt, Date expiresAt, UUID userId) {
+        PendingToken token = new PendingToken(tokenHash, createdAt, expiresAt, userId);
+        ByteBuffer key = ByteBuffer.wrap(tokenHash);
+
+        pending.put(key, token);
+
+        // Back-pressure: the caller pays for the insert instead of growing the queue
+        if (!queue.offer(token)) {
+            pending.remove(key);
+            synchronousCounter.increment();
+            jdbcTemplate.update(INSERT_SQL, token.toRow());
+            return;
+        }
+
+        // Do not wait for the next interval once a full batch is available
+        if (queue.size() >= batchSize && flushRequested.compareAndSet(false, true)) {
+            scheduler.execute(this::flushSafely);
+        }
+    }
+
+    /**
+     * Makes sure a token is in the database before it is looked up.
+     * Returns immediately unless the token is still waiting in the queue or being written.
+     *
+     * @param tokenHash The digest of the token.
+     */
+    public void awaitPersisted(byte[] tokenHash) {
+        if (pending.containsKey(ByteBuffer.wrap(tokenHash))) {
+            // Waits for a flush in progress, then writes whatever is still queued
+            flush();
+        }
+    }
+
+    /**
+     * Writes all queued tokens in batches of at most {@code batch-size}.
+     */
+    public void flush() {
+        flushLock.lock();
+
+        try {
+            flushRequested.set(false);
+
+            List<PendingToken> batch = new ArrayList<>(batchSize);
+
+            while (queue.drainTo(batch, batchSize) > 0) {
+                write(batch);
+                batch.clear();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+
+        flush();
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // Keep the scheduled task alive, the next run picks up newly queued tokens
+            log.error("Failed to flush refresh tokens", e);
+        }
+    }
+
+    private void write(List<PendingToken> batch) {
+        long startedAt = System.nanoTime();
+
+        try {
+            if (writeBatch(batch)) {
+                batchSizeSummary.record(batch.size());
+                batch.forEach(this::release);
+                return;
+            }
+
+            // Isolate the failing rows, every other token of the batch still gets written
+            batch.forEach(this::writeRow);
+        } finally {
+            flushTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private boolean writeBatch(List<PendingToken> batch) {
+        List<Object[]> rows = batch.stream().map(PendingToken::toRow).toList();
+
+        for (int attempt = 1; attempt <= BATCH_ATTEMPTS; attempt++) {
+            try {
+                jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+                return true;
+            } catch (DuplicateKeyException e) {
+                // Part of the batch may already be committed, retrying it as a whole cannot succeed
+                log.warn("Batch of {} refresh tokens contains already written tokens", batch.size());
+                return false;
+            } catch (RuntimeException e) {
+                retriedCounter.increment();
+                log.warn("Failed to write a batch of {} refresh tokens, attempt {} of {}",
+                        batch.size(), attempt, BATCH_ATTEMPTS, e);
+            }
+        }
+
+        return false;
+    }
+
+    private void writeRow(PendingToken token) {
+        try {
+            jdbcTemplate.update(INSERT_SQL, token.toRow());
+        } catch (DuplicateKeyException e) {
+            // Written by an earlier attempt of the batch
+        } catch (RuntimeException e) {
+            // The affected user has to log in again to get a usable refresh token
+            failedCounter.increment();
+            log.error("Failed to write a refresh token of user {}", token.userId(), e);
+        } finally {
+            release(token);
+        }
+    }
+
+    private void release(PendingToken token) {
+        pending.remove(ByteBuffer.wrap(token.tokenHash()));
+    }
+
+    private record PendingToken(byte[] tokenHash, Date createdAt, Date expiresAt, UUID userId) {
+
+        Object[] toRow() {
+            return new Object[]{
+                    tokenHash, new Timestamp(createdAt.getTime()), new Timestamp(expiresAt.getTime()), userId
+            };
+        }
+    }
+}
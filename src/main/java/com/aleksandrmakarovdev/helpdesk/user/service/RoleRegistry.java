@@ -0,0 +1,99 @@
+package com.aleksandrmakarovdev.helpdesk.user.service;
+
+import com.aleksandrmakarovdev.helpdesk.exception.RoleNotFoundException;
+import com.aleksandrmakarovdev.helpdesk.invalidation.InvalidationEvent;
+import com.aleksandrmakarovdev.helpdesk.invalidation.InvalidationHandler;
+import com.aleksandrmakarovdev.helpdesk.invalidation.InvalidationPublisher;
+import com.aleksandrmakarovdev.helpdesk.security.UserDetailsCache;
+import com.aleksandrmakarovdev.helpdesk.user.entity.Role;
+import com.aleksandrmakarovdev.helpdesk.user.model.RoleName;
+import com.aleksandrmakarovdev.helpdesk.user.repository.RoleRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Holds the seeded roles in memory, so resolving a role does not need a query.
+ * Roles are loaded once at startup and reloaded only on an explicit {@link #refresh()},
+ * or when another node announces a reload.
+ */
+@Service
+@RequiredArgsConstructor
+public class RoleRegistry implements InvalidationHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(RoleRegistry.class);
+
+    private final RoleRepository roleRepository;
+    private final UserDetailsCache userDetailsCache;
+    private final InvalidationPublisher invalidationPublisher;
+
+    private volatile Map<RoleName, Role> roles = Collections.emptyMap();
+
+    /**
+     * Reloads all roles from the database and atomically replaces the registry contents.
+     * Roles whose name is not a {@link RoleName} are ignored.
+     */
+    @PostConstruct
+    public void refresh() {
+        Map<RoleName, Role> loadedRoles = new EnumMap<>(RoleName.class);
+
+        for (Role role : roleRepository.findAll()) {
+            try {
+                loadedRoles.put(RoleName.valueOf(role.getName()), role);
+            } catch (IllegalArgumentException e) {
+                log.warn("Ignoring unknown role '{}'", role.getName());
+            }
+        }
+
+        roles = Collections.unmodifiableMap(loadedRoles);
+
+        // Cached users may carry role names that no longer exist
+        userDetailsCache.removeAllUsersFromCache();
+
+        log.info("Loaded roles {}", roles.keySet());
+    }
+
+    /**
+     * Reloads all roles on this node and tells the other nodes to do the same.
+     */
+    public void refreshAll() {
+        refresh();
+        invalidationPublisher.publish(InvalidationEvent.roles());
+    }
+
+    @Override
+    public void handle(InvalidationEvent event) {
+        if (event.type() == InvalidationEvent.Type.ROLES) {
+            refresh();
+        }
+    }
+
+    @Override
+    public void resync() {
+        refresh();
+    }
+
+    /**
+     * Returns the id of a role.
+     *
+     * @param roleName The role name.
+     * @return The role id.
+     * @throws RoleNotFoundException If the role does not exist.
+     */
+    public UUID getId(RoleName roleName) {
+        Role role = roles.get(roleName);
+
+        if (role == null) {
+            throw new RoleNotFoundException(String.format("Role '%s' not found.", roleName.name()));
+        }
+
+        return role.getId();
+    }
+}
@@ -2,10 +2,40 @@ package com.aleksandrmakarovdev.helpdesk.user.service;
 
 import com.aleksandrmakarovdev.helpdesk.security.WebUserDetails;
 import com.aleksandrmakarovdev.helpdesk.user.model.Token;
+import com.aleksandrmakarovdev.helpdesk.user.model.TokenClaims;
+import com.aleksandrmakarovdev.helpdesk.user.model.TokensResponse;
+import org.springframework.security.core.AuthenticationException;
+
+import java.util.UUID;
 
 public interface TokenService {
 
     Token createRefreshToken(WebUserDetails webUserDetails);
 
     Token createAccessToken(WebUserDetails webUserDetails);
+
+    /**
+     * Exchanges a refresh token for a new pair of tokens.
+     * The presented refresh token is revoked and can not be used again.
+     *
+     * @param refreshToken The presented refresh token.
+     * @return A new pair of access and refresh tokens.
+     * @throws AuthenticationException If the token is invalid, expired, revoked or unknown.
+     */
+    TokensResponse rotateRefreshToken(String refreshToken);
+
+    /**
+     * Revokes the tokens of the current session.
+     *
+     * @param accessToken  The verified claims of the presented access token.
+     * @param refreshToken The refresh token of the session, or {@code null} if unknown.
+     */
+    void revokeTokens(TokenClaims accessToken, String refreshToken);
+
+    /**
+     * Revokes all access and refresh tokens issued to a user up to now.
+     *
+     * @param userId The user id.
+     */
+    void revokeAllTokens(UUID userId);
 }
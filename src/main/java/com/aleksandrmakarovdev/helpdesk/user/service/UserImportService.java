@@ -0,0 +1,392 @@
+package com.aleksandrmakarovdev.helpdesk.user.service;
+
+import com.aleksandrmakarovdev.helpdesk.exception.PasswordHashingRejectedException;
+import com.aleksandrmakarovdev.helpdesk.security.ExecutorPasswordEncoder;
+import com.aleksandrmakarovdev.helpdesk.user.model.CreateUserRequest;
+import com.aleksandrmakarovdev.helpdesk.user.model.RoleName;
+import com.aleksandrmakarovdev.helpdesk.user.model.UserImportFormat;
+import com.aleksandrmakarovdev.helpdesk.user.model.UserImportResult;
+import com.aleksandrmakarovdev.helpdesk.user.repository.UserImportRepository;
+import com.aleksandrmakarovdev.helpdesk.user.util.UserImportReader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Imports users in bulk from an upload with one user per line, reporting the outcome of every line as it goes.
+ * <p>
+ * The upload is read, hashed and inserted as a pipeline: lines are parsed one at a time, their passwords are
+ * hashed in parallel on the password hashing pool, and hashed users are inserted a batch at a time while the
+ * following passwords are still being hashed. At most {@code hashing-window} passwords of an import are hashed
+ * at once, by default half of the hashing threads, so logins keep the rest of the pool during an import.
+ * Lines that are done, invalid ones included, leave the window as soon as the lines before them are done,
+ * and no more than a batch of lines waits behind a password that is still hashing.
+ * <p>
+ * Every batch commits on its own, no transaction or connection is held for the length of the upload.
+ * If a batch fails, the import stops and reports the first line of that batch as aborted,
+ * so the upload can be resumed from there.
+ */
+@Service
+public class UserImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserImportService.class);
+
+    // Long enough for the longest valid email address and password, quoted
+    private static final int MAX_LINE_LENGTH = 1024;
+
+    private static final long REJECTED_BACKOFF_MILLIS = 10;
+
+    private final ExecutorPasswordEncoder passwordEncoder;
+    private final RoleRegistry roleRegistry;
+    private final UserImportRepository userImportRepository;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final int hashingWindow;
+
+    private final Map<UserImportResult.Status, Counter> rowCounters = new EnumMap<>(UserImportResult.Status.class);
+    private final Timer batchTimer;
+
+    public UserImportService(
+            ExecutorPasswordEncoder passwordEncoder,
+            RoleRegistry roleRegistry,
+            UserImportRepository userImportRepository,
+            Validator validator,
+            ObjectMapper objectMapper,
+            @Value("${user-import.batch-size:100}") int batchSize,
+            @Value("${user-import.hashing-window:0}") int hashingWindow,
+            MeterRegistry meterRegistry
+    ) {
+        this.passwordEncoder = passwordEncoder;
+        this.roleRegistry = roleRegistry;
+        this.userImportRepository = userImportRepository;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+
+        // Zero means half of the hashing threads
+        this.hashingWindow = hashingWindow > 0 ? hashingWindow : Math.max(1, passwordEncoder.getParallelism() / 2);
+
+        for (UserImportResult.Status status : UserImportResult.Status.values()) {
+            rowCounters.put(status, Counter.builder("user.import.rows")
+                    .description("Number of imported lines by outcome")
+                    .tag("status", status.name())
+                    .register(meterRegistry));
+        }
+
+        this.batchTimer = Timer.builder("user.import.batch")
+                .description("Time spent inserting a batch of imported users")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Imports the users of an upload with the default USER_ROLE and writes one {@link UserImportResult}
+     * per line as NDJSON, flushed after every batch.
+     *
+     * @param reader The upload, should be buffered.
+     * @param format The format of the upload.
+     * @param output Receives the results.
+     * @throws IOException If the upload can not be read or the results can not be written.
+     */
+    public void importUsers(Reader reader, UserImportFormat format, OutputStream output) throws IOException {
+        Import importRun = new Import(
+                new UserImportReader(reader, format, objectMapper, MAX_LINE_LENGTH),
+                output,
+                roleRegistry.getId(RoleName.ROLE_USER)
+        );
+
+        try {
+            importRun.run();
+        } finally {
+            importRun.cancel();
+        }
+    }
+
+    /**
+     * The state of a single import.
+     */
+    private class Import {
+
+        private final UserImportReader rows;
+        private final OutputStream output;
+        private final UUID roleId;
+
+        // Lines in upload order whose password may still be hashing
+        private final Deque<PendingRow> inFlight = new ArrayDeque<>();
+        private final List<HashedRow> batch = new ArrayList<>(batchSize);
+        private int hashing;
+
+        Import(UserImportReader rows, OutputStream output, UUID roleId) {
+            this.rows = rows;
+            this.output = output;
+            this.roleId = roleId;
+        }
+
+        void run() throws IOException {
+            UserImportReader.Row row;
+
+            while ((row = rows.next()) != null) {
+                inFlight.add(start(row));
+
+                // Lines that need no waiting, such as invalid ones, must not pile up until the upload ends
+                if (!completeDone()) {
+                    return;
+                }
+
+                // Keep at most a window of passwords hashing and a batch of lines waiting, in upload order
+                while (hashing >= hashingWindow || inFlight.size() > batchSize) {
+                    if (!completeOldest()) {
+                        return;
+                    }
+                }
+            }
+
+            while (!inFlight.isEmpty()) {
+                if (!completeOldest()) {
+                    return;
+                }
+            }
+
+            insertBatch();
+        }
+
+        /**
+         * Validates a line and queues its password for hashing.
+         */
+        private PendingRow start(UserImportReader.Row row) {
+            if (row.error() != null) {
+                return PendingRow.done(row.line(), null, UserImportResult.Status.INVALID, row.error());
+            }
+
+            CreateUserRequest request = row.request();
+            Set<ConstraintViolation<CreateUserRequest>> violations = validator.validate(request);
+
+            if (!violations.isEmpty()) {
+                String message = violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining(" "));
+                return PendingRow.done(row.line(), request.getEmail(), UserImportResult.Status.INVALID, message);
+            }
+
+            Future<String> pendingHash = submitHash(request.getPassword());
+            hashing++;
+
+            return new PendingRow(row.line(), request.getEmail(), pendingHash, null, null);
+        }
+
+        /**
+         * Queues a password for hashing. When the pool is busy, waits for a password of this import to finish
+         * or, if there is none, backs off, leaving the queue to logins.
+         */
+        private Future<String> submitHash(String password) {
+            while (true) {
+                try {
+                    return passwordEncoder.encodeAsync(password);
+                } catch (PasswordHashingRejectedException e) {
+                    if (hashing > 0) {
+                        completeUntilHashed();
+                    } else {
+                        backOff();
+                    }
+                }
+            }
+        }
+
+        private void completeUntilHashed() {
+            int before = hashing;
+
+            while (hashing == before && !inFlight.isEmpty()) {
+                completeOldestHash();
+            }
+        }
+
+        private void backOff() {
+            try {
+                TimeUnit.MILLISECONDS.sleep(REJECTED_BACKOFF_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for password hashing.", e);
+            }
+        }
+
+        /**
+         * Moves the oldest lines to the batch for as long as they are done, inserting full batches.
+         *
+         * @return Whether the import can continue.
+         */
+        private boolean completeDone() throws IOException {
+            while (!inFlight.isEmpty() && inFlight.peek().isDone()) {
+                if (!completeOldest()) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        /**
+         * Waits for the oldest line and moves it to the batch, inserting the batch once it is full.
+         *
+         * @return Whether the import can continue.
+         */
+        private boolean completeOldest() throws IOException {
+            completeOldestHash();
+
+            return batch.size() < batchSize || insertBatch();
+        }
+
+        /**
+         * Waits for the oldest line and moves it to the batch, without inserting.
+         * The batch may grow beyond its size, it is inserted by the next {@link #completeOldest()}.
+         */
+        private void completeOldestHash() {
+            PendingRow row = inFlight.poll();
+
+            if (row.pendingHash() == null) {
+                batch.add(new HashedRow(row.line(), row.email(), null, row.status(), row.message()));
+                return;
+            }
+
+            hashing--;
+
+            try {
+                String passwordHash = passwordEncoder.await(row.pendingHash());
+                batch.add(new HashedRow(row.line(), row.email(), passwordHash, null, null));
+            } catch (RuntimeException e) {
+                log.warn("Failed to hash the password of import line {}", row.line(), e);
+                batch.add(new HashedRow(
+                        row.line(), row.email(), null, UserImportResult.Status.FAILED, "Password could not be hashed."
+                ));
+            }
+        }
+
+        /**
+         * Inserts the hashed users of the batch and writes the results of all its lines.
+         *
+         * @return Whether the batch was inserted.
+         */
+        private boolean insertBatch() throws IOException {
+            if (batch.isEmpty()) {
+                return true;
+            }
+
+            // The first line with an email address wins, later lines of the batch are duplicates
+            Map<String, String> users = new LinkedHashMap<>();
+
+            for (HashedRow row : batch) {
+                if (row.status() == null) {
+                    users.putIfAbsent(row.email(), row.passwordHash());
+                }
+            }
+
+            Set<String> inserted;
+
+            if (users.isEmpty()) {
+                inserted = Set.of();
+            } else {
+                long startedAt = System.nanoTime();
+
+                try {
+                    inserted = new HashSet<>(userImportRepository.insertWithRole(
+                            List.copyOf(users.keySet()),
+                            List.copyOf(users.values()),
+                            Timestamp.from(Instant.now()),
+                            roleId
+                    ));
+                } catch (DataAccessException e) {
+                    log.error("Failed to insert a batch of {} imported users", users.size(), e);
+                    write(new UserImportResult(
+                            batch.get(0).line(), null, UserImportResult.Status.ABORTED,
+                            "Import stopped, this and the following lines were not imported."
+                    ));
+                    output.flush();
+                    return false;
+                } finally {
+                    batchTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            }
+
+            for (HashedRow row : batch) {
+                if (row.status() != null) {
+                    write(new UserImportResult(row.line(), row.email(), row.status(), row.message()));
+                } else if (inserted.remove(row.email())) {
+                    write(new UserImportResult(row.line(), row.email(), UserImportResult.Status.CREATED, null));
+                } else {
+                    write(new UserImportResult(
+                            row.line(), row.email(), UserImportResult.Status.DUPLICATE,
+                            String.format("User '%s' already exists.", row.email())
+                    ));
+                }
+            }
+
+            output.flush();
+            batch.clear();
+
+            return true;
+        }
+
+        private void write(UserImportResult result) throws IOException {
+            rowCounters.get(result.status()).increment();
+
+            output.write(objectMapper.writeValueAsBytes(result));
+            output.write('\n');
+        }
+
+        /**
+         * Drops the passwords still hashing when the import ends early.
+         */
+        void cancel() {
+            for (PendingRow row : inFlight) {
+                if (row.pendingHash() != null) {
+                    row.pendingHash().cancel(true);
+                }
+            }
+        }
+    }
+
+    private record PendingRow(
+            long line, String email, Future<String> pendingHash, UserImportResult.Status status, String message
+    ) {
+
+        static PendingRow done(long line, String email, UserImportResult.Status status, String message) {
+            return new PendingRow(line, email, null, status, message);
+        }
+
+        boolean isDone() {
+            return pendingHash == null || pendingHash.isDone();
+        }
+    }
+
+    private record HashedRow(
+            long line, String email, String passwordHash, UserImportResult.Status status, String message
+    ) {
+    }
+}
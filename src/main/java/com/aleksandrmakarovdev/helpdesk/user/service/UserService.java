@@ -2,9 +2,13 @@ package com.aleksandrmakarovdev.helpdesk.user.service;
 
 import com.aleksandrmakarovdev.helpdesk.exception.RoleNotFoundException;
 import com.aleksandrmakarovdev.helpdesk.exception.UserFoundException;
+import com.aleksandrmakarovdev.helpdesk.exception.UserNotFoundException;
 import com.aleksandrmakarovdev.helpdesk.user.model.CreateUserRequest;
 import com.aleksandrmakarovdev.helpdesk.user.model.LoginUserRequest;
+import com.aleksandrmakarovdev.helpdesk.user.model.TokenClaims;
 import com.aleksandrmakarovdev.helpdesk.user.model.TokensResponse;
+import com.aleksandrmakarovdev.helpdesk.user.model.UserDirectoryPage;
+import com.aleksandrmakarovdev.helpdesk.user.model.UserDirectoryQuery;
 import com.aleksandrmakarovdev.helpdesk.user.model.UserProfileResponse;
 import org.springframework.security.core.AuthenticationException;
 
@@ -14,8 +18,8 @@ public interface UserService {
 
     /**
      * Creates a new user with the given email address and password.
-     * This method checks if the email is already registered, fetches the
-     * default user role, encodes the password, and saves the user to the database.
+     * This method encodes the password and saves the user with the default user role
+     * to the database; an already registered email is rejected by the database.
      *
      * @param createUserRequest The credentials used to create the new user.
      * @throws UserFoundException    If a user with the same email already exists.
@@ -26,12 +30,62 @@ public interface UserService {
     /**
      * Authenticates a user with the provided email and password.
      * If authentication is successful, a JWT token is issued for the user.
+     * Accounts with too many consecutive failed attempts are locked out for a while.
      *
      * @param loginUserRequest The login credentials (email and password).
      * @return A pair of access and refresh tokens
-     * @throws AuthenticationException If authentication fails.
+     * @throws AuthenticationException If authentication fails or the account is locked out.
      */
     TokensResponse loginUser(LoginUserRequest loginUserRequest);
 
+    /**
+     * Issues a new pair of tokens in exchange for a valid refresh token, without verifying the password again.
+     * Each refresh token can be exchanged only once.
+     *
+     * @param refreshToken The refresh token from the {@code refresh-token} cookie.
+     * @return A new pair of access and refresh tokens
+     * @throws AuthenticationException If the refresh token is invalid, expired, revoked or unknown.
+     */
+    TokensResponse refreshUser(String refreshToken);
+
+    /**
+     * Logs a user out by revoking the presented access token and the session's refresh token.
+     *
+     * @param accessToken  The verified claims of the presented access token.
+     * @param refreshToken The refresh token from the {@code refresh-token} cookie, or {@code null} if absent.
+     */
+    void logoutUser(TokenClaims accessToken, String refreshToken);
+
+    /**
+     * Revokes all access and refresh tokens issued to a user, for example after the account was compromised.
+     *
+     * @param userId The user id.
+     */
+    void revokeUserTokens(UUID userId);
+
+    /**
+     * Loads the profile of a user.
+     *
+     * @param userId The user id.
+     * @return The profile, including the version it was built from.
+     * @throws UserNotFoundException If the user does not exist.
+     */
     UserProfileResponse getUserProfile(UUID userId);
+
+    /**
+     * Reads the version of a user's profile, which changes whenever the profile does.
+     *
+     * @param userId The user id.
+     * @return The profile version.
+     * @throws UserNotFoundException If the user does not exist.
+     */
+    long getUserProfileVersion(UUID userId);
+
+    /**
+     * Lists users for the admin directory, newest first, one page at a time.
+     *
+     * @param query The filters, the cursor of the previous page and the page size.
+     * @return The page, with the cursor of the next page if there is one.
+     */
+    UserDirectoryPage findUsers(UserDirectoryQuery query);
 }
@@ -0,0 +1,311 @@
+package com.aleksandrmakarovdev.helpdesk.user.util;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Mints HS256-signed JWTs for the fixed claim shapes issued by {@link JwtUtil}.
+ * <p>
+ * The output is byte-identical to what the jjwt builder produces for the same claims:
+ * header {@code {"alg":"HS256"}}, claims in jjwt's serialization order, timestamps in epoch seconds
+ * and Jackson-compatible string escaping. Each thread reuses its own {@link Mac} and buffers,
+ * so minting a token allocates little more than the resulting string.
+ */
+public final class Hs256TokenMinter {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int SIGNATURE_LENGTH = 32;
+
+    private static final byte[] BASE64_URL = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_"
+            .getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+    // Base64url of {"alg":"HS256"} followed by the header/payload separator
+    private static final byte[] HEADER = "eyJhbGciOiJIUzI1NiJ9.".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] SUB = ascii("{\"sub\":");
+    private static final byte[] ROLES = ascii(",\"roles\":[");
+    private static final byte[] JTI = ascii(",\"jti\":");
+    private static final byte[] USERNAME = ascii(",\"username\":");
+    private static final byte[] IAT = ascii(",\"iat\":");
+    private static final byte[] EXP = ascii(",\"exp\":");
+
+    private final SecretKeySpec key;
+    private final ThreadLocal<MintBuffer> buffers;
+
+    public Hs256TokenMinter(byte[] secret) {
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+        this.buffers = ThreadLocal.withInitial(() -> new MintBuffer(newMac()));
+
+        // Fail at startup rather than on the first login if the key is unusable
+        newMac();
+    }
+
+    /**
+     * Mints an access token with the claims {@code sub}, {@code roles}, {@code jti}, {@code username},
+     * {@code iat} and {@code exp}.
+     *
+     * @param subject   The user id.
+     * @param tokenId   The unique token id.
+     * @param username  The user name.
+     * @param roles     The user's role names.
+     * @param issuedAt  Issue time in epoch seconds.
+     * @param expiresAt Expiration time in epoch seconds.
+     * @return The compact, signed token.
+     */
+    public String mintAccessToken(String subject, String tokenId, String username, List<String> roles,
+                                  long issuedAt, long expiresAt) {
+        MintBuffer buffer = buffers.get();
+        buffer.reset();
+
+        buffer.write(SUB);
+        buffer.writeString(subject);
+        buffer.write(ROLES);
+        for (int i = 0; i < roles.size(); i++) {
+            if (i > 0) {
+                buffer.write((byte) ',');
+            }
+            buffer.writeString(roles.get(i));
+        }
+        buffer.write((byte) ']');
+        buffer.write(JTI);
+        buffer.writeString(tokenId);
+        buffer.write(USERNAME);
+        buffer.writeString(username);
+        writeTimestamps(buffer, issuedAt, expiresAt);
+
+        return buffer.sign();
+    }
+
+    /**
+     * Mints a refresh token with the claims {@code sub}, {@code jti}, {@code iat} and {@code exp}.
+     *
+     * @param subject   The user id.
+     * @param tokenId   The unique token id.
+     * @param issuedAt  Issue time in epoch seconds.
+     * @param expiresAt Expiration time in epoch seconds.
+     * @return The compact, signed token.
+     */
+    public String mintRefreshToken(String subject, String tokenId, long issuedAt, long expiresAt) {
+        MintBuffer buffer = buffers.get();
+        buffer.reset();
+
+        buffer.write(SUB);
+        buffer.writeString(subject);
+        buffer.write(JTI);
+        buffer.writeString(tokenId);
+        writeTimestamps(buffer, issuedAt, expiresAt);
+
+        return buffer.sign();
+    }
+
+    private static void writeTimestamps(MintBuffer buffer, long issuedAt, long expiresAt) {
+        buffer.write(IAT);
+        buffer.writeLong(issuedAt);
+        buffer.write(EXP);
+        buffer.writeLong(expiresAt);
+        buffer.write((byte) '}');
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new IllegalStateException("Unable to initialize " + ALGORITHM, e);
+        }
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Per-thread scratch space: the JSON payload and the compact token being assembled.
+     */
+    private static final class MintBuffer {
+
+        private final Mac mac;
+        private final byte[] signature = new byte[SIGNATURE_LENGTH];
+
+        private byte[] json = new byte[512];
+        private int jsonLength;
+
+        private byte[] token = new byte[1024];
+        private int tokenLength;
+
+        private MintBuffer(Mac mac) {
+            this.mac = mac;
+        }
+
+        void reset() {
+            jsonLength = 0;
+            tokenLength = 0;
+        }
+
+        void write(byte value) {
+            ensureJsonCapacity(1);
+            json[jsonLength++] = value;
+        }
+
+        void write(byte[] bytes) {
+            ensureJsonCapacity(bytes.length);
+            System.arraycopy(bytes, 0, json, jsonLength, bytes.length);
+            jsonLength += bytes.length;
+        }
+
+        /**
+         * Writes a non-negative number such as an epoch-seconds timestamp.
+         */
+        void writeLong(long value) {
+            int digits = 1;
+            for (long rest = value / 10; rest > 0; rest /= 10) {
+                digits++;
+            }
+
+            ensureJsonCapacity(digits);
+            for (int i = jsonLength + digits - 1; i >= jsonLength; i--) {
+                json[i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            jsonLength += digits;
+        }
+
+        /**
+         * Writes a JSON string literal, escaping it the same way Jackson does and encoding it as UTF-8.
+         */
+        void writeString(String value) {
+            // Worst case is a 6-byte escape per char, UTF-8 never needs more than 3 bytes per char
+            ensureJsonCapacity(value.length() * 6 + 2);
+
+            byte[] out = json;
+            int position = jsonLength;
+
+            out[position++] = '"';
+
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+
+                if (c == '"' || c == '\\') {
+                    out[position++] = '\\';
+                    out[position++] = (byte) c;
+                } else if (c < 0x20) {
+                    out[position++] = '\\';
+                    switch (c) {
+                        case '\b' -> out[position++] = 'b';
+                        case '\t' -> out[position++] = 't';
+                        case '\n' -> out[position++] = 'n';
+                        case '\f' -> out[position++] = 'f';
+                        case '\r' -> out[position++] = 'r';
+                        default -> {
+                            out[position++] = 'u';
+                            out[position++] = '0';
+                            out[position++] = '0';
+                            out[position++] = HEX[c >> 4];
+                            out[position++] = HEX[c & 0xF];
+                        }
+                    }
+                } else if (c < 0x80) {
+                    out[position++] = (byte) c;
+                } else if (c < 0x800) {
+                    out[position++] = (byte) (0xC0 | (c >> 6));
+                    out[position++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    // Jackson escapes characters outside the BMP as a pair of escaped surrogates
+                    out[position++] = '\\';
+                    out[position++] = 'u';
+                    out[position++] = HEX[c >> 12];
+                    out[position++] = HEX[(c >> 8) & 0xF];
+                    out[position++] = HEX[(c >> 4) & 0xF];
+                    out[position++] = HEX[c & 0xF];
+                } else {
+                    out[position++] = (byte) (0xE0 | (c >> 12));
+                    out[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    out[position++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+
+            out[position++] = '"';
+            jsonLength = position;
+        }
+
+        /**
+         * Assembles {@code header.payload.signature} from the written payload and returns it as a string.
+         */
+        String sign() {
+            // Header and payload, then room for the separator and the encoded signature
+            ensureTokenCapacity(HEADER.length + encodedLength(jsonLength) + 1 + encodedLength(SIGNATURE_LENGTH));
+
+            System.arraycopy(HEADER, 0, token, 0, HEADER.length);
+            tokenLength = HEADER.length;
+            tokenLength = encode(json, jsonLength, token, tokenLength);
+
+            try {
+                mac.update(token, 0, tokenLength);
+                mac.doFinal(signature, 0);
+            } catch (ShortBufferException e) {
+                throw new IllegalStateException(e);
+            }
+
+            token[tokenLength++] = '.';
+            tokenLength = encode(signature, SIGNATURE_LENGTH, token, tokenLength);
+
+            return new String(token, 0, tokenLength, StandardCharsets.US_ASCII);
+        }
+
+        private void ensureJsonCapacity(int additional) {
+            if (jsonLength + additional > json.length) {
+                json = Arrays.copyOf(json, Math.max(json.length * 2, jsonLength + additional));
+            }
+        }
+
+        private void ensureTokenCapacity(int capacity) {
+            if (capacity > token.length) {
+                token = new byte[Math.max(token.length * 2, capacity)];
+            }
+        }
+
+        private static int encodedLength(int length) {
+            return (length * 4 + 2) / 3;
+        }
+
+        /**
+         * Base64url-encodes {@code src[0, length)} without padding into {@code dst} starting at {@code offset}.
+         *
+         * @return The offset just past the encoded bytes.
+         */
+        private static int encode(byte[] src, int length, byte[] dst, int offset) {
+            int i = 0;
+
+            for (; i + 3 <= length; i += 3) {
+                int bits = (src[i] & 0xFF) << 16 | (src[i + 1] & 0xFF) << 8 | (src[i + 2] & 0xFF);
+                dst[offset++] = BASE64_URL[(bits >>> 18) & 0x3F];
+                dst[offset++] = BASE64_URL[(bits >>> 12) & 0x3F];
+                dst[offset++] = BASE64_URL[(bits >>> 6) & 0x3F];
+                dst[offset++] = BASE64_URL[bits & 0x3F];
+            }
+
+            int remaining = length - i;
+
+            if (remaining == 1) {
+                int bits = (src[i] & 0xFF) << 16;
+                dst[offset++] = BASE64_URL[(bits >>> 18) & 0x3F];
+                dst[offset++] = BASE64_URL[(bits >>> 12) & 0x3F];
+            } else if (remaining == 2) {
+                int bits = (src[i] & 0xFF) << 16 | (src[i + 1] & 0xFF) << 8;
+                dst[offset++] = BASE64_URL[(bits >>> 18) & 0x3F];
+                dst[offset++] = BASE64_URL[(bits >>> 12) & 0x3F];
+                dst[offset++] = BASE64_URL[(bits >>> 6) & 0x3F];
+            }
+
+            return offset;
+        }
+    }
+}
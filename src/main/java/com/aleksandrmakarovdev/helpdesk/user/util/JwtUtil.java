@@ -1,57 +1,73 @@
 package com.aleksandrmakarovdev.helpdesk.user.util;
 
-import com.aleksandrmakarovdev.helpdesk.security.WebUserDetails;
 import com.aleksandrmakarovdev.helpdesk.user.model.Token;
+import com.aleksandrmakarovdev.helpdesk.user.model.TokenClaims;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.ClaimsBuilder;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
-import java.time.LocalDateTime;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.List;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Service
 public class JwtUtil {
 
-    @Value("${jwt.secret}")
-    private String secret;
-
     public static final Duration ACCESS_TOKEN_LIFETIME = Duration.ofMinutes(30);
     public static final Duration REFRESH_TOKEN_LIFETIME = Duration.ofDays(1);
     public static final Duration EMAIL_CONFIRMATION_TOKEN_LIFETIME = Duration.ofDays(1);
 
+    private final SecretKey key;
+    private final JwtParser parser;
+    private final Hs256TokenMinter minter;
 
     /**
-     * Generates the SecretKey used for signing and verifying JWT tokens.
-     * The key is derived from the secret specified in the configuration.
+     * Derives the SecretKey used for signing and verifying JWT tokens once at startup.
+     * The parser built from it is immutable and thread-safe, so it is shared by all requests.
      *
-     * @return SecretKey for HMAC-SHA-based JWT operations.
+     * @param secret The secret specified in the configuration.
      */
-    private SecretKey getKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    public JwtUtil(@Value("${jwt.secret}") String secret) {
+        this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser()
+                .verifyWith(key)
+                .build();
+        this.minter = new Hs256TokenMinter(key.getEncoded());
     }
 
     /**
      * Extracts the roles from the JWT claims.
-     * <p>
-     * TODO: Make this method typesafe to avoid potential runtime type issues.
+     * Non-string elements are rejected instead of leaking into the returned list.
      *
      * @param claims JWT claims from which roles are to be extracted.
-     * @return List of roles extracted from the claims.
+     * @return List of roles extracted from the claims, or {@code null} if the claim is absent.
      */
     private List<String> extractRoles(Claims claims) {
-        return claims.get("roles", List.class);
+        List<?> roles = claims.get("roles", List.class);
+
+        if (roles == null) {
+            return null;
+        }
+
+        return roles.stream()
+                .map(role -> {
+                    if (!(role instanceof String name)) {
+                        throw new MalformedJwtException("Claim 'roles' must contain only strings.");
+                    }
+                    return name;
+                })
+                .toList();
     }
 
     /**
@@ -61,13 +77,36 @@ public class JwtUtil {
      * @return Claims object containing all claims from the token.
      */
     private Claims getlAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getKey())
-                .build()
+        return parser
                 .parseSignedClaims(token)
                 .getPayload();
     }
 
+    /**
+     * Verifies a JWT token once and returns an immutable view of its claims.
+     * Prefer this method over the single-claim accessors when more than one claim is needed.
+     *
+     * @param token The JWT token to parse.
+     * @return The verified claims of the token.
+     * @throws JwtException If the token is malformed, expired or has an invalid signature.
+     */
+    public TokenClaims parse(String token) {
+        final Claims claims = getlAllClaims(token);
+
+        return new TokenClaims(
+                claims.getSubject(),
+                claims.getId(),
+                claims.get("username", String.class),
+                extractRoles(claims),
+                toInstant(claims.getIssuedAt()),
+                toInstant(claims.getExpiration())
+        );
+    }
+
+    private static Instant toInstant(Date date) {
+        return date != null ? date.toInstant() : null;
+    }
+
     /**
      * Retrieves a specific claim from a JWT token using a resolver function.
      *
@@ -121,10 +160,60 @@ public class JwtUtil {
                 .claims(claims)
                 .issuedAt(issuedAt)
                 .expiration(expiresAt)
-                .signWith(getKey(), Jwts.SIG.HS256)
+                .signWith(key, Jwts.SIG.HS256)
                 .compact();
 
         return new Token(token, issuedAt, expiresAt);
     }
-}
 
+    /**
+     * Issues an access token carrying the user id, a random token id, username and roles.
+     * The token id allows revoking a single token.
+     * Uses the specialized minting path instead of the generic jjwt builder.
+     *
+     * @param subject  The user id.
+     * @param username The user name.
+     * @param roles    The user's role names.
+     * @return The issued token with its issue and expiration dates.
+     */
+    public Token issueAccessToken(String subject, String username, List<String> roles) {
+        return issueAccessToken(subject, username, roles, System.currentTimeMillis());
+    }
+
+    /**
+     * Issues an access token like {@link #issueAccessToken(String, String, List)} with the given issue time,
+     * which is stored in whole seconds.
+     *
+     * @param subject  The user id.
+     * @param username The user name.
+     * @param roles    The user's role names.
+     * @param issuedAt The issue time in epoch milliseconds.
+     * @return The issued token with its issue and expiration dates.
+     */
+    public Token issueAccessToken(String subject, String username, List<String> roles, long issuedAt) {
+        long expiresAt = issuedAt + ACCESS_TOKEN_LIFETIME.toMillis();
+
+        String token = minter.mintAccessToken(
+                subject, UUID.randomUUID().toString(), username, roles, issuedAt / 1000, expiresAt / 1000
+        );
+
+        return new Token(token, new Date(issuedAt), new Date(expiresAt));
+    }
+
+    /**
+     * Issues a refresh token carrying the user id and a random token id.
+     * The token id keeps tokens issued to the same user within the same second distinct,
+     * which rotation relies on. Uses the specialized minting path instead of the generic jjwt builder.
+     *
+     * @param subject The user id.
+     * @return The issued token with its issue and expiration dates.
+     */
+    public Token issueRefreshToken(String subject) {
+        long issuedAt = System.currentTimeMillis();
+        long expiresAt = issuedAt + REFRESH_TOKEN_LIFETIME.toMillis();
+
+        String token = minter.mintRefreshToken(subject, UUID.randomUUID().toString(), issuedAt / 1000, expiresAt / 1000);
+
+        return new Token(token, new Date(issuedAt), new Date(expiresAt));
+    }
+}
@@ -0,0 +1,35 @@
+package com.aleksandrmakarovdev.helpdesk.user.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Computes the SHA-256 digest under which a token is stored and looked up.
+ * <p>
+ * The digest has a fixed length of 32 bytes regardless of the token's claims, which keeps the unique
+ * index compact, and a leaked table does not reveal usable tokens. It matches
+ * {@code sha256(convert_to(token, 'UTF8'))} in PostgreSQL.
+ */
+public final class TokenHasher {
+
+    private static final String ALGORITHM = "SHA-256";
+
+    private TokenHasher() {
+    }
+
+    /**
+     * Hashes a token.
+     *
+     * @param token The compact token.
+     * @return The 32-byte SHA-256 digest of the token's UTF-8 bytes.
+     */
+    public static byte[] hash(String token) {
+        try {
+            return MessageDigest.getInstance(ALGORITHM).digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException("Unable to initialize " + ALGORITHM, e);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.aleksandrmakarovdev.helpdesk.user.util;
+
+import com.aleksandrmakarovdev.helpdesk.user.model.CreateUserRequest;
+import com.aleksandrmakarovdev.helpdesk.user.model.UserImportFormat;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the users of a bulk import one line at a time, so the upload is never held in memory as a whole.
+ * <p>
+ * A line that can not be parsed becomes a row with an error instead of failing the import.
+ * Lines are limited in length, so a file without line breaks can not exhaust the heap either.
+ */
+public final class UserImportReader {
+
+    private static final String CSV_HEADER = "email,password";
+
+    private final Reader reader;
+    private final UserImportFormat format;
+    private final ObjectMapper objectMapper;
+    private final int maxLineLength;
+
+    private final StringBuilder line = new StringBuilder();
+    private long lineNumber;
+    private boolean endOfInput;
+
+    /**
+     * @param reader        The upload, should be buffered.
+     * @param format        The format of the upload.
+     * @param objectMapper  Parses NDJSON lines.
+     * @param maxLineLength The maximum number of characters per line.
+     */
+    public UserImportReader(Reader reader, UserImportFormat format, ObjectMapper objectMapper, int maxLineLength) {
+        this.reader = reader;
+        this.format = format;
+        this.objectMapper = objectMapper;
+        this.maxLineLength = maxLineLength;
+    }
+
+    /**
+     * A parsed line.
+     *
+     * @param line    The line number, starting at 1.
+     * @param request The user, or {@code null} if the line could not be parsed.
+     * @param error   Why the line could not be parsed, or {@code null}.
+     */
+    public record Row(long line, CreateUserRequest request, String error) {
+    }
+
+    /**
+     * Reads the next user, skipping blank lines and the CSV header.
+     *
+     * @return The next row, or {@code null} at the end of the upload.
+     * @throws IOException If the upload can not be read.
+     */
+    public Row next() throws IOException {
+        while (!endOfInput) {
+            boolean truncated = readLine();
+            String text = stripCarriageReturn(line);
+
+            // Spreadsheets tend to start CSV exports with a byte order mark
+            if (lineNumber == 1 && text.startsWith("\uFEFF")) {
+                text = text.substring(1);
+            }
+
+            if (text.isBlank() && !truncated) {
+                continue;
+            }
+
+            if (truncated) {
+                return new Row(lineNumber, null, String.format("Line must not be longer than %d characters.", maxLineLength));
+            }
+
+            if (format == UserImportFormat.CSV && lineNumber == 1 && CSV_HEADER.equalsIgnoreCase(text.replace(" ", "").strip())) {
+                continue;
+            }
+
+            return format == UserImportFormat.CSV ? parseCsv(text) : parseJson(text);
+        }
+
+        return null;
+    }
+
+    /**
+     * Reads the next line into {@link #line}, dropping the characters beyond the maximum length.
+     *
+     * @return Whether the line was longer than the maximum length.
+     */
+    private boolean readLine() throws IOException {
+        line.setLength(0);
+        lineNumber++;
+
+        boolean truncated = false;
+        int c;
+
+        while ((c = reader.read()) != -1 && c != '\n') {
+            if (line.length() < maxLineLength) {
+                line.append((char) c);
+            } else {
+                truncated = true;
+            }
+        }
+
+        if (c == -1) {
+            endOfInput = true;
+        }
+
+        return truncated;
+    }
+
+    /**
+     * Drops the carriage return of CRLF line endings, but keeps other whitespace, which may be part of a password.
+     */
+    private static String stripCarriageReturn(StringBuilder text) {
+        int length = text.length();
+
+        return length > 0 && text.charAt(length - 1) == '\r' ? text.substring(0, length - 1) : text.toString();
+    }
+
+    private Row parseJson(String text) {
+        try {
+            CreateUserRequest request = objectMapper.readValue(text, CreateUserRequest.class);
+
+            if (request != null) {
+                return new Row(lineNumber, request, null);
+            }
+        } catch (JsonProcessingException e) {
+            // Reported below
+        }
+
+        return new Row(lineNumber, null, "Line is not a valid JSON object.");
+    }
+
+    private Row parseCsv(String text) {
+        List<String> fields = splitCsv(text);
+
+        if (fields == null || fields.size() != 2) {
+            return new Row(lineNumber, null, "Line must contain an email address and a password.");
+        }
+
+        CreateUserRequest request = new CreateUserRequest();
+        request.setEmail(fields.get(0));
+        request.setPassword(fields.get(1));
+
+        return new Row(lineNumber, request, null);
+    }
+
+    /**
+     * Splits a CSV line into fields. Quoted fields may contain commas and doubled quotes,
+     * but no line breaks.
+     *
+     * @return The fields, or {@code null} if a quoted field is not terminated.
+     */
+    static List<String> splitCsv(String text) {
+        List<String> fields = new ArrayList<>(2);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+
+        if (quoted) {
+            return null;
+        }
+
+        fields.add(field.toString());
+
+        return fields;
+    }
+}
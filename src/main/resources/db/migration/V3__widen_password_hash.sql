@@ -0,0 +1,2 @@
+alter table users
+    alter column password_hash type varchar(255)
@@ -0,0 +1,19 @@
+-- Look refresh tokens up by their fixed-size SHA-256 digest instead of the full JWT
+alter table refresh_tokens
+    add column token_hash bytea;
+
+update refresh_tokens
+set token_hash = sha256(convert_to(token, 'UTF8'));
+
+alter table refresh_tokens
+    alter column token_hash set not null,
+    add constraint refresh_tokens_token_hash_length check (octet_length(token_hash) = 32),
+    drop column token;
+
+create unique index refresh_tokens_token_hash_idx on refresh_tokens (token_hash);
+
+-- Per-user lookups such as revoking all tokens of a user
+create index refresh_tokens_user_id_idx on refresh_tokens (user_id);
+
+-- Scans for expired tokens
+create index refresh_tokens_expires_at_idx on refresh_tokens (expires_at);
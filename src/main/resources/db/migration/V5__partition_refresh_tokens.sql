@@ -0,0 +1,55 @@
+-- Range-partition refresh_tokens by expires_at, one partition per day, so that expired tokens
+-- are removed by dropping whole partitions instead of deleting rows.
+-- Partitions are created ahead of time by RefreshTokenPartitionMaintainer; there is no default partition.
+
+alter table refresh_tokens
+    rename to refresh_tokens_unpartitioned;
+
+alter index refresh_tokens_pkey rename to refresh_tokens_unpartitioned_pkey;
+drop index refresh_tokens_token_hash_idx;
+drop index refresh_tokens_user_id_idx;
+drop index refresh_tokens_expires_at_idx;
+
+create table refresh_tokens
+(
+    id         uuid      not null default gen_random_uuid(),
+    token_hash bytea     not null,
+    created_at timestamp not null default current_timestamp,
+    expires_at timestamp not null,
+    revoked_at timestamp,
+    user_id    uuid      not null references users (id),
+    -- Unique constraints of a partitioned table must include the partition key
+    primary key (id, expires_at),
+    constraint refresh_tokens_token_hash_length check (octet_length(token_hash) = 32)
+) partition by range (expires_at);
+
+create unique index refresh_tokens_token_hash_idx on refresh_tokens (token_hash, expires_at);
+create index refresh_tokens_user_id_idx on refresh_tokens (user_id);
+
+-- Daily partitions from today, covering every token that can still be used, plus a week ahead
+do
+$$
+    declare
+        day date;
+    begin
+        for day in
+            select generate_series(
+                           current_date,
+                           greatest(current_date, (select max(expires_at)::date from refresh_tokens_unpartitioned))
+                               + 7,
+                           interval '1 day')::date
+            loop
+                execute format(
+                        'create table %I partition of refresh_tokens for values from (%L) to (%L)',
+                        'refresh_tokens_p' || to_char(day, 'YYYYMMDD'), day, day + 1);
+            end loop;
+    end
+$$;
+
+-- Expired tokens can no longer be used and are not carried over
+insert into refresh_tokens (id, token_hash, created_at, expires_at, revoked_at, user_id)
+select id, token_hash, created_at, expires_at, revoked_at, user_id
+from refresh_tokens_unpartitioned
+where expires_at >= current_date;
+
+drop table refresh_tokens_unpartitioned;
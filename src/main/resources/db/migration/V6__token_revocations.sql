@@ -0,0 +1,15 @@
+-- Access token revocations, so that nodes can rebuild their in-memory denylist after a restart
+-- or after missing invalidation events. Rows are deleted once the revoked tokens have expired.
+create table if not exists token_revocations
+(
+    id                bigint generated always as identity primary key,
+    -- A single token by its jti
+    token_id         varchar(64),
+    -- Or all tokens of a user issued at or before the watermark, in epoch milliseconds
+    user_id          uuid,
+    watermark_millis bigint,
+    expires_at       timestamp not null,
+    constraint token_revocations_target check ((token_id is null) <> (user_id is null))
+);
+
+create index token_revocations_expires_at_idx on token_revocations (expires_at);
@@ -0,0 +1,84 @@
+-- Per-user version of the profile (username, email and roles), used as the profile ETag.
+-- Triggers keep it current for every write path, lockout updates do not change it.
+alter table users
+    add column version bigint not null default 0;
+
+create or replace function increment_user_version() returns trigger as
+$$
+begin
+    new.version := old.version + 1;
+    return new;
+end;
+$$ language plpgsql;
+
+create trigger users_profile_version
+    before update of username, email
+    on users
+    for each row
+    when (old.username is distinct from new.username or old.email is distinct from new.email)
+execute function increment_user_version();
+
+-- Statement level, so that bulk role assignments update each user once per statement.
+-- Registration and import insert a user and its role in one statement. A user still at version 0 whose row
+-- was written by the current transaction has never been served with its roles, so it is skipped.
+create or replace function increment_user_version_on_role_insert() returns trigger as
+$$
+begin
+    update users
+    set version = version + 1
+    where id in (select user_id from inserted_roles)
+      and not (version = 0 and xmin = pg_current_xact_id()::xid);
+    return null;
+end;
+$$ language plpgsql;
+
+create or replace function increment_user_version_on_role_delete() returns trigger as
+$$
+begin
+    update users set version = version + 1 where id in (select user_id from deleted_roles);
+    return null;
+end;
+$$ language plpgsql;
+
+create trigger users_roles_insert_version
+    after insert
+    on users_roles
+    referencing new table as inserted_roles
+    for each statement
+execute function increment_user_version_on_role_insert();
+
+create trigger users_roles_delete_version
+    after delete
+    on users_roles
+    referencing old table as deleted_roles
+    for each statement
+execute function increment_user_version_on_role_delete();
+
+-- The user directory filtered by role seeks users_roles_role_id_created_at_idx (V8), which carries the users' sort key.
+-- Registration and import insert a user and its role in one statement and set it themselves,
+-- other inserts take it from the user. created_at of a user never changes.
+alter table users_roles
+    add column user_created_at timestamp;
+
+update users_roles ur
+set user_created_at = u.created_at
+from users u
+where u.id = ur.user_id;
+
+alter table users_roles
+    alter column user_created_at set not null;
+
+create or replace function set_users_roles_user_created_at() returns trigger as
+$$
+begin
+    select created_at into new.user_created_at from users where id = new.user_id;
+    return new;
+end;
+$$ language plpgsql;
+
+create trigger users_roles_user_created_at
+    before insert
+    on users_roles
+    for each row
+    when (new.user_created_at is null)
+execute function set_users_roles_user_created_at();
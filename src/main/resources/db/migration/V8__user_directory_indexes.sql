@@ -0,0 +1,12 @@
+-- Indexes for the admin user directory, built concurrently so that writes to users are not blocked.
+-- Flyway runs a script of only concurrent statements outside a transaction.
+
+-- Keyset pagination walks this index backwards, newest users first
+create index concurrently if not exists users_created_at_id_idx on users (created_at, id);
+
+-- Case-insensitive email prefix search, text_pattern_ops supports "like 'prefix%'" under any collation
+create index concurrently if not exists users_email_lower_prefix_idx on users (lower(email) text_pattern_ops);
+
+-- Users by role, newest first. A role filter seeks this index instead of probing the roles of every user
+-- walked in users_created_at_id_idx, which reads most of users for a rare role
+create index concurrently if not exists users_roles_role_id_created_at_idx on users_roles (role_id, user_created_at, user_id);
@@ -0,0 +1,3 @@
+-- Failed logins older than the failure window no longer count towards a lockout
+alter table users
+    add column if not exists last_failed_at timestamp;
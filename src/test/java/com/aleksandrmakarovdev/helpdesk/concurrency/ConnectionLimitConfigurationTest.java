@@ -0,0 +1,87 @@
+package com.aleksandrmakarovdev.helpdesk.concurrency;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionLimitConfigurationTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withPropertyValues("connection-limit.enabled=true")
+            .withUserConfiguration(ConnectionLimitConfiguration.class, RoutingDataSources.class);
+
+    /**
+     * Test: Start a context with a primary and a replica pool behind a routing data source.
+     * This test ensures that each pool gets its own limiter sized to the pool, and the routing data source none.
+     */
+    @Test
+    @DisplayName("Each pool should get its own limiter")
+    void postProcessor_shouldLimitEveryPoolSeparately() {
+        contextRunner.run(context -> {
+            DataSource primary = context.getBean("primaryDataSource", DataSource.class);
+            DataSource replica = context.getBean("replicaDataSource", DataSource.class);
+            DataSource routing = context.getBean("dataSource", DataSource.class);
+
+            ConnectionLimitingDataSource primaryLimiter = assertInstanceOf(ConnectionLimitingDataSource.class, primary);
+            ConnectionLimitingDataSource replicaLimiter = assertInstanceOf(ConnectionLimitingDataSource.class, replica);
+
+            assertEquals(4, primaryLimiter.getAvailablePermits());
+            assertEquals(6, replicaLimiter.getAvailablePermits());
+            assertInstanceOf(LazyConnectionDataSourceProxy.class, routing);
+        });
+    }
+
+    /**
+     * Test: Close a context with limited pools.
+     * This test ensures that the pools behind the limiters are still closed with the context.
+     */
+    @Test
+    @DisplayName("Closing the context should close the limited pools")
+    void close_shouldClosePools() {
+        HikariDataSource[] pools = new HikariDataSource[1];
+
+        contextRunner.run(context -> pools[0] = context.getBean("primaryDataSource", DataSource.class)
+                .unwrap(HikariDataSource.class));
+
+        assertTrue(pools[0].isClosed());
+    }
+
+    @Configuration
+    static class RoutingDataSources {
+
+        @Bean
+        public HikariDataSource primaryDataSource() {
+            return pool("primary", 4);
+        }
+
+        @Bean
+        public HikariDataSource replicaDataSource() {
+            return pool("replica", 6);
+        }
+
+        @Bean
+        @Primary
+        public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource) {
+            return new LazyConnectionDataSourceProxy(primaryDataSource);
+        }
+
+        // Hikari connects on the first getConnection, so the pools never touch a database here
+        private static HikariDataSource pool(String name, int size) {
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName(name);
+            pool.setJdbcUrl("jdbc:postgresql://localhost/" + name);
+            pool.setMaximumPoolSize(size);
+            return pool;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.aleksandrmakarovdev.helpdesk.concurrency;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ConnectionLimitingDataSourceTest {
+
+    private final DataSource target = mock(DataSource.class);
+    private final Connection targetConnection = mock(Connection.class);
+
+    private final ConnectionLimitingDataSource dataSource =
+            new ConnectionLimitingDataSource(target, 1, Duration.ofMillis(10));
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(target.getConnection()).thenReturn(targetConnection);
+    }
+
+    /**
+     * Test: Take more connections than there are permits.
+     * This test ensures that the extra request times out without reaching the pool.
+     */
+    @Test
+    @DisplayName("Get connection should time out when all permits are taken")
+    void getConnection_whenPermitsTaken_shouldTimeOut() throws SQLException {
+        dataSource.getConnection();
+
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        verify(target, times(1)).getConnection();
+    }
+
+    /**
+     * Test: Close a connection twice.
+     * This test ensures that the permit is released exactly once and the target connection is closed.
+     */
+    @Test
+    @DisplayName("Closing a connection should release its permit once")
+    void close_shouldReleasePermitOnce() throws SQLException {
+        Connection connection = dataSource.getConnection();
+
+        connection.close();
+        connection.close();
+
+        assertEquals(1, dataSource.getAvailablePermits());
+        assertSame(targetConnection, ((ConnectionProxy) connection).getTargetConnection());
+        verify(targetConnection, times(2)).close();
+    }
+
+    /**
+     * Test: Fail to obtain a connection from the pool.
+     * This test ensures that the permit is returned when the target data source throws.
+     */
+    @Test
+    @DisplayName("Get connection should release the permit when the pool fails")
+    void getConnection_whenPoolFails_shouldReleasePermit() throws SQLException {
+        when(target.getConnection()).thenThrow(new SQLException("Pool exhausted"));
+
+        assertThrows(SQLException.class, dataSource::getConnection);
+        assertEquals(1, dataSource.getAvailablePermits());
+    }
+}
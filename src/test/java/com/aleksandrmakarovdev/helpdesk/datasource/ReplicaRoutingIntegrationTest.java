@@ -0,0 +1,231 @@
+package com.aleksandrmakarovdev.helpdesk.datasource;
+
+import com.aleksandrmakarovdev.helpdesk.security.UserDetailsCache;
+import com.aleksandrmakarovdev.helpdesk.user.model.CreateUserRequest;
+import com.aleksandrmakarovdev.helpdesk.user.service.UserService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs against two independent PostgreSQL instances standing in for a primary and its replica.
+ * Rows inserted into only one of them show which instance served a read.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Testcontainers
+@ActiveProfiles("test")
+class ReplicaRoutingIntegrationTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> PRIMARY = new PostgreSQLContainer<>(DockerImageName.parse("postgres:17.2"));
+
+    @Container
+    private static final PostgreSQLContainer<?> REPLICA = new PostgreSQLContainer<>(DockerImageName.parse("postgres:17.2"));
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoSpyBean
+    private ReplicaRouting replicaRouting;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @DynamicPropertySource
+    static void dataSourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", PRIMARY::getJdbcUrl);
+        registry.add("spring.datasource.username", PRIMARY::getUsername);
+        registry.add("spring.datasource.password", PRIMARY::getPassword);
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("datasource.replica.enabled", () -> "true");
+        registry.add("datasource.replica.url", REPLICA::getJdbcUrl);
+        registry.add("datasource.replica.username", REPLICA::getUsername);
+        registry.add("datasource.replica.password", REPLICA::getPassword);
+
+        // Checks are triggered by the tests, so that a scheduled one can not undo a simulated outage
+        registry.add("datasource.replica.check-interval", () -> "1h");
+    }
+
+    @BeforeAll
+    static void migrateReplica() {
+        // The application migrates the primary, a real replica would receive the schema through replication
+        Flyway.configure()
+                .dataSource(REPLICA.getJdbcUrl(), REPLICA.getUsername(), REPLICA.getPassword())
+                .configuration(Map.of("flyway.postgresql.transactional.lock", "false"))
+                .load()
+                .migrate();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userDetailsCache.removeAllUsersFromCache();
+        jdbcTemplate.update("delete from refresh_tokens");
+        jdbcTemplate.update("delete from users_roles");
+        jdbcTemplate.update("delete from users");
+        new JdbcTemplate(replicaDataSource).update("delete from refresh_tokens");
+        new JdbcTemplate(replicaDataSource).update("delete from users");
+        replicaLagMonitor.check();
+    }
+
+    /**
+     * Test: Load a user that only exists on the replica.
+     * This test ensures that read-only transactions are served by the replica.
+     */
+    @Test
+    @DisplayName("Read-only transactions should be served by the replica")
+    void loadUserByUsername_shouldReadFromReplica() {
+        insertUser(new JdbcTemplate(replicaDataSource), "replica@example.com");
+        replicaLagMonitor.check();
+
+        assertEquals("replica@example.com", userDetailsService.loadUserByUsername("replica@example.com").getUsername());
+    }
+
+    /**
+     * Test: Register a user and load it right away, before it reached the replica.
+     * This test ensures that a miss on the replica is retried on the primary.
+     */
+    @Test
+    @DisplayName("Load user right after registration should read from the primary")
+    void loadUserByUsername_afterRegistration_shouldReadYourWrites() {
+        CreateUserRequest request = new CreateUserRequest();
+        request.setEmail("registered@example.com");
+        request.setPassword("testpassword");
+        userService.createUser(request);
+
+        assertEquals("registered@example.com", userDetailsService.loadUserByUsername("registered@example.com").getUsername());
+    }
+
+    /**
+     * Test: Register a user through the API and log in right away, before it reached the replica.
+     * This test ensures that the login reads from the replica first and retries the miss on the primary,
+     * which only works while the login does not run in a read-write transaction.
+     */
+    @Test
+    @DisplayName("Login right after registration should fall back to the primary")
+    void login_afterRegistration_shouldReadYourWrites() throws Exception {
+        String credentials = """
+                {
+                "email": "loggedin@example.com",
+                "password": "testpassword"
+                }
+                """;
+
+        mockMvc.perform(post("/api/users/register").contentType(MediaType.APPLICATION_JSON).content(credentials))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/users/login").contentType(MediaType.APPLICATION_JSON).content(credentials))
+                .andExpect(status().isOk())
+                .andExpect(cookie().exists("refresh-token"));
+
+        verify(replicaRouting, times(1)).readFromPrimary(any());
+    }
+
+    /**
+     * Test: Log in a user present on both instances, so that the user is read from the replica.
+     * This test ensures that the refresh token is still written to the primary, not over the replica connection.
+     */
+    @Test
+    @DisplayName("Login reading from the replica should write the refresh token to the primary")
+    void login_whenUserOnReplica_shouldWriteRefreshTokenToPrimary() throws Exception {
+        String credentials = """
+                {
+                "email": "replicated@example.com",
+                "password": "testpassword"
+                }
+                """;
+
+        mockMvc.perform(post("/api/users/register").contentType(MediaType.APPLICATION_JSON).content(credentials))
+                .andExpect(status().isOk());
+
+        // Replicate the user with the same id, as streaming replication would
+        JdbcTemplate replica = new JdbcTemplate(replicaDataSource);
+        jdbcTemplate.query("select id, username, email, password_hash from users where username = 'replicated@example.com'",
+                resultSet -> {
+                    replica.update(
+                            "insert into users (id, username, email, password_hash) values (?, ?, ?, ?)",
+                            resultSet.getObject("id"), resultSet.getString("username"),
+                            resultSet.getString("email"), resultSet.getString("password_hash")
+                    );
+                });
+        replicaLagMonitor.check();
+
+        mockMvc.perform(post("/api/users/login").contentType(MediaType.APPLICATION_JSON).content(credentials))
+                .andExpect(status().isOk())
+                .andExpect(cookie().exists("refresh-token"));
+
+        verify(replicaRouting, never()).readFromPrimary(any());
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from refresh_tokens", Integer.class));
+        assertEquals(0, replica.queryForObject("select count(*) from refresh_tokens", Integer.class));
+    }
+
+    /**
+     * Test: Load users while the replica is out of rotation.
+     * This test ensures that reads fall back to the primary.
+     */
+    @Test
+    @DisplayName("Read-only transactions should use the primary when the replica is unavailable")
+    void loadUserByUsername_whenReplicaUnavailable_shouldReadFromPrimary() {
+        insertUser(jdbcTemplate, "primary@example.com");
+        insertUser(new JdbcTemplate(replicaDataSource), "replica@example.com");
+
+        replicaLagMonitor.markUnavailable(new IllegalStateException("Simulated outage"));
+
+        assertEquals("primary@example.com", userDetailsService.loadUserByUsername("primary@example.com").getUsername());
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("replica@example.com"));
+    }
+
+    private static void insertUser(JdbcTemplate target, String username) {
+        target.update(
+                "insert into users (username, email, password_hash) values (?, ?, ?)",
+                username, username, "{noop}password"
+        );
+    }
+}
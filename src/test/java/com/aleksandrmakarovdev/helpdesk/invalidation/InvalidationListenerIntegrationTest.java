@@ -0,0 +1,143 @@
+package com.aleksandrmakarovdev.helpdesk.invalidation;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the listener against a real PostgreSQL instance. The publishers stand in for this node and another node
+ * sharing the database.
+ */
+@Testcontainers
+class InvalidationListenerIntegrationTest {
+
+    private static final String CHANNEL = "test_invalidation";
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>(DockerImageName.parse("postgres:17.2"));
+
+    private final RecordingHandler handler = new RecordingHandler();
+
+    private JdbcTemplate jdbcTemplate;
+    private InvalidationPublisher localPublisher;
+    private InvalidationPublisher remotePublisher;
+    private InvalidationListener listener;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword()
+        ));
+        localPublisher = new InvalidationPublisher(jdbcTemplate, CHANNEL, true);
+        remotePublisher = new InvalidationPublisher(jdbcTemplate, CHANNEL, true);
+
+        DataSourceProperties dataSourceProperties = new DataSourceProperties();
+        dataSourceProperties.setUrl(POSTGRES.getJdbcUrl());
+        dataSourceProperties.setUsername(POSTGRES.getUsername());
+        dataSourceProperties.setPassword(POSTGRES.getPassword());
+
+        listener = new InvalidationListener(
+                dataSourceProperties, localPublisher, List.of(handler), true,
+                Duration.ofMillis(50), Duration.ofMillis(10), Duration.ofHours(1),
+                Duration.ofMillis(50), Duration.ofMillis(200)
+        );
+        listener.start();
+
+        // The initial resync runs once the channel is being listened on
+        assertTrue(handler.awaitResync(), "Listener did not start");
+    }
+
+    @AfterEach
+    void tearDown() {
+        listener.stop();
+    }
+
+    /**
+     * Test: Publish an event from another node.
+     * This test ensures that the notification is decoded and dispatched to the handlers.
+     */
+    @Test
+    @DisplayName("Notification from another node should be dispatched")
+    void listener_whenRemoteEventPublished_shouldDispatch() throws InterruptedException {
+        remotePublisher.publish(InvalidationEvent.user("user@example.com"));
+
+        assertEquals(InvalidationEvent.user("user@example.com"), handler.nextEvent());
+    }
+
+    /**
+     * Test: Publish an event from this node, then one from another node.
+     * This test ensures that events published by the node itself are not dispatched again.
+     */
+    @Test
+    @DisplayName("Notification from the same node should be skipped")
+    void listener_whenLocalEventPublished_shouldSkip() throws InterruptedException {
+        localPublisher.publish(InvalidationEvent.user("local@example.com"));
+        remotePublisher.publish(InvalidationEvent.user("remote@example.com"));
+
+        // Notifications are delivered in order, so the local one would have arrived first
+        assertEquals(InvalidationEvent.user("remote@example.com"), handler.nextEvent());
+        assertNull(handler.events.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Test: Terminate the listener connection on the server and publish afterwards.
+     * This test ensures that the listener reconnects, asks the handlers to resync and keeps dispatching.
+     */
+    @Test
+    @DisplayName("Killed connection should reconnect and resync")
+    void listener_whenConnectionKilled_shouldReconnectAndResync() throws InterruptedException {
+        Integer terminated = jdbcTemplate.queryForObject(
+                "select count(pg_terminate_backend(pid)) from pg_stat_activity " +
+                        "where pid <> pg_backend_pid() and query = ?",
+                Integer.class, "listen " + CHANNEL
+        );
+        assertEquals(1, terminated);
+
+        assertTrue(handler.awaitResync(), "Listener did not resync after reconnecting");
+
+        remotePublisher.publish(InvalidationEvent.roles());
+
+        assertEquals(InvalidationEvent.roles(), handler.nextEvent());
+    }
+
+    private static class RecordingHandler implements InvalidationHandler {
+
+        private final BlockingQueue<InvalidationEvent> events = new LinkedBlockingQueue<>();
+        private final Semaphore resyncs = new Semaphore(0);
+
+        @Override
+        public void handle(InvalidationEvent event) {
+            events.add(event);
+        }
+
+        @Override
+        public void resync() {
+            resyncs.release();
+        }
+
+        InvalidationEvent nextEvent() throws InterruptedException {
+            return events.poll(5, TimeUnit.SECONDS);
+        }
+
+        boolean awaitResync() throws InterruptedException {
+            return resyncs.tryAcquire(5, TimeUnit.SECONDS);
+        }
+    }
+}
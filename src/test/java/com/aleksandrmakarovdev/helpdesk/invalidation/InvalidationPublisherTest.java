@@ -0,0 +1,62 @@
+package com.aleksandrmakarovdev.helpdesk.invalidation;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class InvalidationPublisherTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final InvalidationPublisher publisher = new InvalidationPublisher(jdbcTemplate, "test_channel", true);
+
+    /**
+     * Test: Publish an event whose key contains the separator.
+     * This test ensures that the payload decodes to the same node id and event.
+     */
+    @Test
+    @DisplayName("Published payload should decode to the same event")
+    void publish_shouldEncodeDecodableEvent() {
+        InvalidationEvent event = InvalidationEvent.user("quote|pipe@example.com");
+
+        publisher.publish(event);
+
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), eq("test_channel"), payload.capture());
+
+        InvalidationPublisher.DecodedEvent decoded = InvalidationPublisher.decode((String) payload.getValue());
+        assertEquals(publisher.getNodeId(), decoded.nodeId());
+        assertEquals(event, decoded.event());
+    }
+
+    /**
+     * Test: Decode payloads that were not produced by the publisher.
+     * This test ensures that malformed payloads are rejected instead of throwing.
+     */
+    @Test
+    @DisplayName("Decode malformed payload should return null")
+    void decode_whenMalformed_shouldReturnNull() {
+        assertNull(InvalidationPublisher.decode("garbage"));
+        assertNull(InvalidationPublisher.decode("node|UNKNOWN|key"));
+    }
+
+    /**
+     * Test: Publish while the bus is disabled.
+     * This test ensures that no notification is sent.
+     */
+    @Test
+    @DisplayName("Disabled publisher should not notify")
+    void publish_whenDisabled_shouldNotNotify() {
+        new InvalidationPublisher(jdbcTemplate, "test_channel", false).publish(InvalidationEvent.roles());
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -0,0 +1,122 @@
+package com.aleksandrmakarovdev.helpdesk.recording;
+
+import com.aleksandrmakarovdev.helpdesk.recording.model.SlowRequest;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestRecorderTest {
+
+    private final RequestRecorder recorder = new RequestRecorder(
+            true, Duration.ofMillis(20), Duration.ofMinutes(5), DataSize.ofMegabytes(8)
+    );
+
+    private final RequestRecordingFilter filter = new RequestRecordingFilter();
+
+    @AfterEach
+    void tearDown() {
+        recorder.stop();
+    }
+
+    /**
+     * Test: Handle a slow request that records a phase, and a fast one.
+     * This test ensures that only the slow request is returned, together with its phase.
+     */
+    @Test
+    @DisplayName("Find slow requests should return slow requests with their phases")
+    void findSlowRequests_shouldReturnSlowRequestsWithPhases() throws Exception {
+        recorder.start();
+
+        handle("slow-request", () -> {
+            PhaseEvent.emit("login", "authenticate", Duration.ofMillis(30).toNanos());
+            sleep(50);
+        });
+        handle("fast-request", () -> {
+        });
+
+        List<SlowRequest> requests = recorder.findSlowRequests(Duration.ofMinutes(1), Duration.ofMillis(20), 10);
+
+        assertEquals(1, requests.size());
+        SlowRequest request = requests.get(0);
+        assertEquals("slow-request", request.requestId());
+        assertEquals("/api/users/login", request.path());
+        assertTrue(request.durationMillis() >= 50);
+        assertEquals(List.of(new SlowRequest.Phase("login", "authenticate", 30.0)), request.phases());
+    }
+
+    /**
+     * Test: Handle a fast request that records a phase while the recorder is running.
+     * This test ensures that phases of requests below the threshold are not written to the recording.
+     */
+    @Test
+    @DisplayName("Phases of fast requests should not be recorded")
+    void emit_whenRequestBelowThreshold_shouldNotRecordPhase() throws Exception {
+        recorder.start();
+
+        // A second recording only sees what is committed, the request threshold still comes from the recorder
+        try (Recording recording = new Recording()) {
+            recording.enable(PhaseEvent.class);
+            recording.start();
+
+            handle("fast-request", () -> PhaseEvent.emit("login", "authenticate", 1_000));
+            handle("slow-request", () -> {
+                PhaseEvent.emit("login", "authenticate", 1_000);
+                sleep(50);
+            });
+
+            recording.stop();
+            Path file = Files.createTempFile("phases", ".jfr");
+
+            try {
+                recording.dump(file);
+
+                List<String> requestIds = RecordingFile.readAllEvents(file).stream()
+                        .filter(event -> PhaseEvent.NAME.equals(event.getEventType().getName()))
+                        .map(event -> event.getString("requestId"))
+                        .toList();
+
+                assertEquals(List.of("slow-request"), requestIds);
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * Test: Query the recorder while recording is disabled.
+     * This test ensures that an exception is thrown instead of returning an empty result.
+     */
+    @Test
+    @DisplayName("Find slow requests should fail when recording is disabled")
+    void findSlowRequests_whenDisabled_shouldThrow() {
+        assertThrows(IllegalStateException.class,
+                () -> recorder.findSlowRequests(Duration.ofMinutes(1), Duration.ZERO, 10));
+    }
+
+    private void handle(String requestId, Runnable handler) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/users/login");
+        request.addHeader(RequestRecordingFilter.REQUEST_ID_HEADER, requestId);
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> handler.run());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
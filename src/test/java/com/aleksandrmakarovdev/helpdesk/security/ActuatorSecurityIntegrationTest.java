@@ -0,0 +1,79 @@
+package com.aleksandrmakarovdev.helpdesk.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "management.server.port=0"
+)
+@Testcontainers
+@ActiveProfiles("test")
+class ActuatorSecurityIntegrationTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @LocalServerPort
+    private int serverPort;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    /**
+     * Test: Scrape the Prometheus endpoint on the management port without a token.
+     * This test ensures that Prometheus can scrape the auth.phase histograms.
+     */
+    @Test
+    @DisplayName("Prometheus endpoint should be scraped without a token on the management port")
+    void prometheus_whenManagementPort_shouldReturnAuthPhaseHistograms() {
+        ResponseEntity<String> response = restTemplate.getForEntity(
+                "http://localhost:" + managementPort + "/actuator/prometheus", String.class
+        );
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertTrue(response.getBody().contains("auth_phase_seconds_bucket"));
+    }
+
+    /**
+     * Test: Request the metrics endpoint on the management port without a token.
+     * This test ensures that endpoints other than health and prometheus still require an admin.
+     */
+    @Test
+    @DisplayName("Other actuator endpoints should require authentication")
+    void metrics_whenNoToken_shouldReturnUnauthorized() {
+        ResponseEntity<String> response = restTemplate.getForEntity(
+                "http://localhost:" + managementPort + "/actuator/metrics", String.class
+        );
+
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+    }
+
+    /**
+     * Test: Request the Prometheus endpoint on the public port.
+     * This test ensures that actuator is not served to clients of the application.
+     */
+    @Test
+    @DisplayName("Prometheus endpoint should not be served on the public port")
+    void prometheus_whenPublicPort_shouldNotBeServed() {
+        ResponseEntity<String> response = restTemplate.getForEntity(
+                "http://localhost:" + serverPort + "/actuator/prometheus", String.class
+        );
+
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+    }
+}
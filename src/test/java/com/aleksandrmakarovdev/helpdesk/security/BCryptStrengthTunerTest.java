@@ -0,0 +1,31 @@
+package com.aleksandrmakarovdev.helpdesk.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BCryptStrengthTunerTest {
+
+    /**
+     * Test: Tune for a target that no strength can reach.
+     * This test ensures that the minimum strength is returned even though it is slower than the target.
+     */
+    @Test
+    @DisplayName("Tune should not go below the minimum strength")
+    void tune_whenTargetUnreachable_shouldReturnMinStrength() {
+        assertEquals(5, BCryptStrengthTuner.tune(Duration.ofNanos(1), 5, 8));
+    }
+
+    /**
+     * Test: Tune for a target that every strength fits into.
+     * This test ensures that the search stops at the maximum strength.
+     */
+    @Test
+    @DisplayName("Tune should not go above the maximum strength")
+    void tune_whenTargetGenerous_shouldReturnMaxStrength() {
+        assertEquals(6, BCryptStrengthTuner.tune(Duration.ofMinutes(1), 4, 6));
+    }
+}
@@ -0,0 +1,162 @@
+package com.aleksandrmakarovdev.helpdesk.security;
+
+import com.aleksandrmakarovdev.helpdesk.user.model.CreateUserRequest;
+import com.aleksandrmakarovdev.helpdesk.user.model.TokenClaims;
+import com.aleksandrmakarovdev.helpdesk.user.repository.UserRepository;
+import com.aleksandrmakarovdev.helpdesk.user.service.UserService;
+import com.aleksandrmakarovdev.helpdesk.user.util.JwtUtil;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Testcontainers
+@ActiveProfiles("test")
+class JwtAuthenticationFilterIntegrationTest {
+
+    private static final String EMAIL = "bearer@example.com";
+    private static final String CREDENTIALS = """
+            {
+            "email": "bearer@example.com",
+            "password": "testpassword"
+            }
+            """;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String accessToken;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        CreateUserRequest request = new CreateUserRequest();
+        request.setEmail(EMAIL);
+        request.setPassword("testpassword");
+        userService.createUser(request);
+
+        accessToken = JsonPath.read(mockMvc.perform(post("/api/users/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(CREDENTIALS))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(), "$.token");
+    }
+
+    /**
+     * Test: Get the profile with the access token issued at login, twice.
+     * This test ensures that the token authenticates the request, both when verified and when served from the cache.
+     */
+    @Test
+    @DisplayName("Valid bearer token should be accepted")
+    void filter_whenTokenValid_shouldAuthenticate() throws Exception {
+        getProfile(accessToken)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value(EMAIL));
+
+        getProfile(accessToken)
+                .andExpect(status().isOk());
+    }
+
+    /**
+     * Test: Get the profile with a correctly signed token that expired.
+     * This test ensures that the request is rejected as unauthorized.
+     */
+    @Test
+    @DisplayName("Expired bearer token should return unauthorized")
+    void filter_whenTokenExpired_shouldReturnUnauthorized() throws Exception {
+        TokenClaims claims = jwtUtil.parse(accessToken);
+        long issuedAt = System.currentTimeMillis() - JwtUtil.ACCESS_TOKEN_LIFETIME.plus(Duration.ofMinutes(1)).toMillis();
+
+        String expiredToken = jwtUtil.issueAccessToken(claims.subject(), claims.username(), claims.roles(), issuedAt).token();
+
+        getProfile(expiredToken)
+                .andExpect(status().isUnauthorized());
+    }
+
+    /**
+     * Test: Get the profile with a token whose signature was altered, and one with altered claims.
+     * This test ensures that both requests are rejected as unauthorized.
+     */
+    @Test
+    @DisplayName("Tampered bearer token should return unauthorized")
+    void filter_whenTokenTampered_shouldReturnUnauthorized() throws Exception {
+        int signatureStart = accessToken.lastIndexOf('.') + 1;
+        char signatureChar = accessToken.charAt(signatureStart);
+        String tamperedSignature = accessToken.substring(0, signatureStart)
+                + (signatureChar == 'A' ? 'B' : 'A')
+                + accessToken.substring(signatureStart + 1);
+
+        getProfile(tamperedSignature)
+                .andExpect(status().isUnauthorized());
+
+        // Claims granting another role, signed with a different key
+        JwtUtil otherKey = new JwtUtil(UUID.randomUUID() + "-" + UUID.randomUUID());
+        TokenClaims claims = jwtUtil.parse(accessToken);
+        String forgedToken = otherKey.issueAccessToken(claims.subject(), claims.username(), List.of("ROLE_ADMIN")).token();
+
+        getProfile(forgedToken)
+                .andExpect(status().isUnauthorized());
+    }
+
+    /**
+     * Test: Use the access token, revoke all tokens of the user, then use it again.
+     * This test ensures that revocation is checked even for tokens served from the verified token cache.
+     */
+    @Test
+    @DisplayName("Revoked bearer token should return unauthorized")
+    void filter_whenTokenRevoked_shouldReturnUnauthorized() throws Exception {
+        getProfile(accessToken)
+                .andExpect(status().isOk());
+
+        userService.revokeUserTokens(UUID.fromString(jwtUtil.parse(accessToken).subject()));
+
+        getProfile(accessToken)
+                .andExpect(status().isUnauthorized());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from refresh_tokens");
+        jdbcTemplate.update("delete from token_revocations");
+        userRepository.deleteAll();
+    }
+
+    private ResultActions getProfile(String token) throws Exception {
+        return mockMvc.perform(get("/api/users/profile").header(HttpHeaders.AUTHORIZATION, "Bearer " + token));
+    }
+}
@@ -0,0 +1,162 @@
+package com.aleksandrmakarovdev.helpdesk.security;
+
+import com.aleksandrmakarovdev.helpdesk.invalidation.InvalidationPublisher;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class LoginAttemptTrackerTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final LoginAttemptTracker tracker = new LoginAttemptTracker(
+            jdbcTemplate, mock(UserDetailsCache.class), mock(InvalidationPublisher.class),
+            3, Duration.ofMinutes(15), Duration.ofMinutes(15), 500, 2
+    );
+
+    /**
+     * Test: Fail to log in as many times as allowed.
+     * This test ensures that the account is locked out only once the maximum is reached.
+     */
+    @Test
+    @DisplayName("Reaching max failed attempts should lock account")
+    void recordFailure_whenMaxAttemptsReached_shouldLockAccount() {
+        tracker.recordFailure("testuser@example.com");
+        tracker.recordFailure("testuser@example.com");
+        assertFalse(tracker.isLocked("testuser@example.com"));
+
+        tracker.recordFailure("testuser@example.com");
+        assertTrue(tracker.isLocked("testuser@example.com"));
+        assertFalse(tracker.isLocked("otheruser@example.com"));
+    }
+
+    /**
+     * Test: Log in successfully after failed attempts.
+     * This test ensures that the failure counter starts over.
+     */
+    @Test
+    @DisplayName("Successful login should reset failed attempts")
+    void recordSuccess_shouldResetFailedAttempts() {
+        tracker.recordFailure("testuser@example.com");
+        tracker.recordFailure("testuser@example.com");
+        tracker.recordSuccess("testuser@example.com");
+        tracker.recordFailure("testuser@example.com");
+
+        assertFalse(tracker.isLocked("testuser@example.com"));
+    }
+
+    /**
+     * Test: Flush counters after many failed attempts for several users.
+     * This test ensures that all changes are written in a single statement with one row per user.
+     */
+    @Test
+    @DisplayName("Flush should persist changed counters in one statement")
+    void flush_shouldPersistCountersInOneStatement() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            tracker.recordFailure("first@example.com");
+            tracker.recordFailure("second@example.com");
+        }
+
+        tracker.flush();
+        tracker.flush();
+
+        ArgumentCaptor<PreparedStatementCreator> captor = ArgumentCaptor.forClass(PreparedStatementCreator.class);
+        verify(jdbcTemplate, times(1)).query(captor.capture(), any(RowCallbackHandler.class));
+
+        Connection connection = mock(Connection.class, RETURNS_MOCKS);
+        captor.getValue().createPreparedStatement(connection);
+
+        ArgumentCaptor<Object[]> elements = ArgumentCaptor.forClass(Object[].class);
+        verify(connection).createArrayOf(eq("integer"), elements.capture());
+        assertArrayEquals(new Integer[]{10, 10}, elements.getValue());
+    }
+
+    /**
+     * Test: Fail once for a user whose stored counter is one below the maximum.
+     * This test ensures that counters continue from the database, so a restart does not reset them.
+     */
+    @Test
+    @DisplayName("Failure should continue from the stored counter")
+    @SuppressWarnings("unchecked")
+    void recordFailure_whenCounterStored_shouldContinueFromIt() throws Exception {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getInt("access_failed_count")).thenReturn(2);
+        when(resultSet.getTimestamp("last_failed_at")).thenReturn(new Timestamp(System.currentTimeMillis()));
+
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq("testuser@example.com")))
+                .thenAnswer(invocation -> List.of(invocation.<RowMapper<?>>getArgument(1).mapRow(resultSet, 0)));
+
+        tracker.recordFailure("testuser@example.com");
+
+        assertTrue(tracker.isLocked("testuser@example.com"));
+    }
+
+    /**
+     * Test: Flush a failure while the database reports that other nodes locked the account.
+     * This test ensures that the merged lockout is applied to the local counter.
+     */
+    @Test
+    @DisplayName("Flush should apply a lockout merged from all nodes")
+    void flush_whenDatabaseLocksAccount_shouldApplyLockout() throws Exception {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getString("username")).thenReturn("testuser@example.com");
+        when(resultSet.getTimestamp("lockout_expires_at"))
+                .thenReturn(new Timestamp(System.currentTimeMillis() + 60_000));
+
+        doAnswer(invocation -> {
+            invocation.<RowCallbackHandler>getArgument(1).processRow(resultSet);
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+        tracker.recordFailure("testuser@example.com");
+        assertFalse(tracker.isLocked("testuser@example.com"));
+
+        tracker.flush();
+
+        assertTrue(tracker.isLocked("testuser@example.com"));
+    }
+
+    /**
+     * Test: Fail to log in as more users than may be tracked.
+     * This test ensures that the map stays bounded and the excess failures are still written to the database.
+     */
+    @Test
+    @DisplayName("Failures beyond the tracked users should only be persisted")
+    void recordFailure_whenMapFull_shouldOnlyPersist() throws Exception {
+        tracker.recordFailure("first@example.com");
+        tracker.recordFailure("second@example.com");
+
+        for (int i = 0; i < 3; i++) {
+            tracker.recordFailure("third@example.com");
+        }
+
+        assertFalse(tracker.isLocked("third@example.com"));
+
+        tracker.flush();
+
+        ArgumentCaptor<PreparedStatementCreator> captor = ArgumentCaptor.forClass(PreparedStatementCreator.class);
+        verify(jdbcTemplate).query(captor.capture(), any(RowCallbackHandler.class));
+
+        Connection connection = mock(Connection.class, RETURNS_MOCKS);
+        captor.getValue().createPreparedStatement(connection);
+
+        ArgumentCaptor<Object[]> elements = ArgumentCaptor.forClass(Object[].class);
+        verify(connection).createArrayOf(eq("varchar"), elements.capture());
+        assertEquals(3, elements.getValue().length);
+    }
+}
@@ -0,0 +1,88 @@
+package com.aleksandrmakarovdev.helpdesk.security;
+
+import com.aleksandrmakarovdev.helpdesk.exception.PasswordHashingRejectedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PasswordHashingExecutor executor = new PasswordHashingExecutor(1, 1, Duration.ofSeconds(2), meterRegistry);
+
+    /**
+     * Test: Submit more hashing work than the pool and queue can hold.
+     * This test ensures that the excess task is rejected immediately with the configured retry delay.
+     */
+    @Test
+    @DisplayName("Hashing when queue is full should be rejected with retry delay")
+    void encode_whenQueueIsFull_shouldRejectWithRetryAfter() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // Occupy the only hashing thread, then fill the only queue slot
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> executor.encode(() -> {
+            started.countDown();
+            await(release);
+            return "running";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> executor.encode(() -> "queued"));
+        waitForQueueSize(1);
+
+        PasswordHashingRejectedException exception = assertThrows(
+                PasswordHashingRejectedException.class,
+                () -> executor.encode(() -> "rejected")
+        );
+        assertEquals(Duration.ofSeconds(2), exception.getRetryAfter());
+        assertEquals(1.0, meterRegistry.get("password.hashing.rejected").counter().count());
+
+        release.countDown();
+        assertEquals("running", running.get(5, TimeUnit.SECONDS));
+        assertEquals("queued", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Test: Verify a password through the executor.
+     * This test ensures that the result is returned to the caller and the hashing time is recorded.
+     */
+    @Test
+    @DisplayName("Matching password should return result and record hashing time")
+    void matches_shouldReturnResultAndRecordTime() {
+        assertTrue(executor.matches(() -> true));
+
+        assertEquals(1, meterRegistry.get("password.hashing.duration").tag("operation", "matches").timer().count());
+        assertEquals(1, meterRegistry.get("password.hashing.wait").tag("operation", "matches").timer().count());
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    private void waitForQueueSize(int size) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+
+        while (meterRegistry.get("password.hashing.queue.size").gauge().value() < size) {
+            assertTrue(System.nanoTime() < deadline, "Task was not queued in time");
+            Thread.sleep(10);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.aleksandrmakarovdev.helpdesk.security;
+
+import com.aleksandrmakarovdev.helpdesk.user.model.CreateUserRequest;
+import com.aleksandrmakarovdev.helpdesk.user.repository.UserRepository;
+import com.aleksandrmakarovdev.helpdesk.user.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the strength one step above the lowest BCrypt cost, so that a stored hash can have a lower cost.
+ */
+@SpringBootTest(properties = "security.password-encoder.strength=5")
+@AutoConfigureMockMvc
+@Testcontainers
+@ActiveProfiles("test")
+class PasswordUpgradeIntegrationTest {
+
+    private static final String EMAIL = "upgraded@example.com";
+    private static final String PASSWORD = "testpassword";
+    private static final String CREDENTIALS = """
+            {
+            "email": "upgraded@example.com",
+            "password": "testpassword"
+            }
+            """;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoSpyBean
+    private WebUserDetailsService webUserDetailsService;
+
+    @BeforeEach
+    void setUp() {
+        CreateUserRequest request = new CreateUserRequest();
+        request.setEmail(EMAIL);
+        request.setPassword(PASSWORD);
+        userService.createUser(request);
+    }
+
+    /**
+     * Test: Log in a user whose password was hashed with a lower cost than the configured strength.
+     * This test ensures that the password is re-hashed with the configured strength and stored.
+     */
+    @Test
+    @DisplayName("Login with a lower-cost hash should re-hash the password")
+    void login_whenHashHasLowerCost_shouldUpdatePasswordHash() throws Exception {
+        jdbcTemplate.update(
+                "update users set password_hash = ? where email = ?",
+                "{bcrypt}" + new BCryptPasswordEncoder(4).encode(PASSWORD), EMAIL
+        );
+
+        mockMvc.perform(post("/api/users/login").contentType(MediaType.APPLICATION_JSON).content(CREDENTIALS))
+                .andExpect(status().isOk());
+
+        verify(webUserDetailsService).updatePassword(any(), anyString());
+        assertTrue(passwordHash().startsWith("{bcrypt}$2a$05$"));
+    }
+
+    /**
+     * Test: Log in a user whose password was hashed with the configured strength.
+     * This test ensures that the stored hash is left alone.
+     */
+    @Test
+    @DisplayName("Login with a current hash should keep the password hash")
+    void login_whenHashIsCurrent_shouldKeepPasswordHash() throws Exception {
+        String passwordHash = passwordHash();
+
+        mockMvc.perform(post("/api/users/login").contentType(MediaType.APPLICATION_JSON).content(CREDENTIALS))
+                .andExpect(status().isOk());
+
+        verify(webUserDetailsService, never()).updatePassword(any(), anyString());
+        assertEquals(passwordHash, passwordHash());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from refresh_tokens");
+        userRepository.deleteAll();
+    }
+
+    private String passwordHash() {
+        return jdbcTemplate.queryForObject("select password_hash from users where email = ?", String.class, EMAIL);
+    }
+}
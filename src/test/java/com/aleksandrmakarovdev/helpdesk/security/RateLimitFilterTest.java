@@ -0,0 +1,168 @@
+package com.aleksandrmakarovdev.helpdesk.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.catalina.filters.RemoteIpFilter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockFilterConfig;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+    private static final String LOGIN_PATH = "/api/users/login";
+
+    private final RateLimitFilter filter = new RateLimitFilter(properties(), new ObjectMapper());
+
+    /**
+     * Test: Send more login requests from one IP address than the route allows.
+     * This test ensures that the excess request is answered with 429 and a Retry-After header.
+     */
+    @Test
+    @DisplayName("Requests over the IP limit should be rejected with Retry-After")
+    void doFilter_whenIpLimitExceeded_shouldRejectWithRetryAfter() throws Exception {
+        assertEquals(HttpStatus.OK.value(), send(login(LOGIN_PATH, "10.0.0.1", "first@example.com")).getStatus());
+        assertEquals(HttpStatus.OK.value(), send(login(LOGIN_PATH, "10.0.0.1", "second@example.com")).getStatus());
+
+        MockHttpServletResponse response = send(login(LOGIN_PATH, "10.0.0.1", "third@example.com"));
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), response.getStatus());
+        assertEquals("60", response.getHeader(HttpHeaders.RETRY_AFTER));
+    }
+
+    /**
+     * Test: Send login requests to a percent-encoded variant of the route.
+     * This test ensures that they count against the same limit as the plain route.
+     */
+    @Test
+    @DisplayName("Percent-encoded path should not bypass the limit")
+    void doFilter_whenPathPercentEncoded_shouldApplyLimit() throws Exception {
+        send(login(LOGIN_PATH, "10.0.0.2", "first@example.com"));
+        send(login(LOGIN_PATH, "10.0.0.2", "second@example.com"));
+
+        // The container decodes the servlet path, the request URI stays encoded
+        MockHttpServletRequest request = login(LOGIN_PATH, "10.0.0.2", "third@example.com");
+        request.setRequestURI("/api/users/%6cogin");
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), send(request).getStatus());
+    }
+
+    /**
+     * Test: Send login requests for one email address from different IP addresses.
+     * This test ensures that the email address is read from the body, case-insensitively,
+     * and that the controller can still read the body of allowed requests.
+     */
+    @Test
+    @DisplayName("Requests over the email limit should be rejected and allowed bodies replayed")
+    void doFilter_whenEmailLimitExceeded_shouldReject() throws Exception {
+        MockHttpServletRequest allowed = login(LOGIN_PATH, "10.0.0.3", "agent@example.com");
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(allowed, new MockHttpServletResponse(), chain);
+
+        byte[] replayed = chain.getRequest().getInputStream().readAllBytes();
+        assertEquals(body("agent@example.com"), new String(replayed, StandardCharsets.UTF_8));
+
+        MockHttpServletResponse response = send(login(LOGIN_PATH, "10.0.0.4", " Agent@Example.com"));
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), response.getStatus());
+        assertNotNull(response.getHeader(HttpHeaders.RETRY_AFTER));
+    }
+
+    /**
+     * Test: Send requests to a route without a limit.
+     * This test ensures that they pass through untouched.
+     */
+    @Test
+    @DisplayName("Requests to other routes should not be limited")
+    void doFilter_whenRouteNotConfigured_shouldPassThrough() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(HttpStatus.OK.value(), send(login("/api/users/refresh", "10.0.0.5", "agent@example.com")).getStatus());
+        }
+    }
+
+    /**
+     * Test: Send login requests of two clients through the same load balancer.
+     * This test ensures that each forwarded client address gets its own limit, while a client that is not
+     * a trusted proxy can not pick its address through the header.
+     */
+    @Test
+    @DisplayName("Forwarded client addresses should be limited separately")
+    void doFilter_whenForwardedByProxy_shouldLimitPerClient() throws Exception {
+        // The same resolution Tomcat applies with server.forward-headers-strategy=native
+        RemoteIpFilter remoteIpFilter = new RemoteIpFilter();
+        remoteIpFilter.init(new MockFilterConfig());
+
+        for (int i = 0; i < 2; i++) {
+            assertEquals(HttpStatus.OK.value(), sendForwarded(remoteIpFilter, "10.0.0.10", "198.51.100.1", "a" + i + "@example.com"));
+            assertEquals(HttpStatus.OK.value(), sendForwarded(remoteIpFilter, "10.0.0.10", "198.51.100.2", "b" + i + "@example.com"));
+        }
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(),
+                sendForwarded(remoteIpFilter, "10.0.0.10", "198.51.100.1", "a2@example.com"));
+
+        // A public client is not a trusted proxy, every spoofed header still counts against its own address
+        for (int i = 0; i < 2; i++) {
+            sendForwarded(remoteIpFilter, "203.0.113.7", "198.51.100." + (10 + i), "c" + i + "@example.com");
+        }
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(),
+                sendForwarded(remoteIpFilter, "203.0.113.7", "198.51.100.20", "c2@example.com"));
+    }
+
+    private int sendForwarded(RemoteIpFilter remoteIpFilter, String proxyAddress, String clientAddress, String email)
+            throws Exception {
+
+        MockHttpServletRequest request = login(LOGIN_PATH, proxyAddress, email);
+        request.addHeader("X-Forwarded-For", clientAddress);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        remoteIpFilter.doFilter(request, response, (req, res) -> filter.doFilter(req, res, new MockFilterChain()));
+        return response.getStatus();
+    }
+
+    private MockHttpServletResponse send(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest login(String path, String remoteAddress, String email) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setServletPath(path);
+        request.setRemoteAddr(remoteAddress);
+        request.setContentType("application/json");
+        request.setContent(body(email).getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private static String body(String email) {
+        return "{\"email\":\"" + email + "\",\"password\":\"secret\"}";
+    }
+
+    private static RateLimitProperties properties() {
+        RateLimitProperties.Limit perIp = new RateLimitProperties.Limit();
+        perIp.setCapacity(2);
+        perIp.setPeriod(Duration.ofMinutes(2));
+
+        RateLimitProperties.Limit perEmail = new RateLimitProperties.Limit();
+        perEmail.setCapacity(1);
+        perEmail.setPeriod(Duration.ofMinutes(1));
+
+        RateLimitProperties.Route route = new RateLimitProperties.Route();
+        route.setPath(LOGIN_PATH);
+        route.setPerIp(perIp);
+        route.setPerEmail(perEmail);
+
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setRoutes(List.of(route));
+        return properties;
+    }
+}
@@ -0,0 +1,58 @@
+package com.aleksandrmakarovdev.helpdesk.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketRateLimiterTest {
+
+    private final TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(1000, Duration.ofMinutes(1));
+
+    /**
+     * Test: Send a burst of requests larger than the bucket capacity.
+     * This test ensures that exactly the capacity is allowed and the rest is rejected with a wait time.
+     */
+    @Test
+    @DisplayName("Burst over capacity should be rejected with wait time")
+    void tryAcquire_whenBurstExceedsCapacity_shouldReject() {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, rateLimiter.tryAcquire("ip|127.0.0.1", 5, Duration.ofMinutes(1)));
+        }
+
+        long wait = rateLimiter.tryAcquire("ip|127.0.0.1", 5, Duration.ofMinutes(1));
+
+        assertTrue(wait > 0);
+        assertTrue(wait <= Duration.ofSeconds(12).toNanos());
+    }
+
+    /**
+     * Test: Exhaust the bucket of one key.
+     * This test ensures that other keys keep their own buckets.
+     */
+    @Test
+    @DisplayName("Exhausted bucket should not affect other keys")
+    void tryAcquire_whenOtherKeyExhausted_shouldAllow() {
+        assertEquals(0, rateLimiter.tryAcquire("email|first@example.com", 1, Duration.ofMinutes(1)));
+        assertTrue(rateLimiter.tryAcquire("email|first@example.com", 1, Duration.ofMinutes(1)) > 0);
+
+        assertEquals(0, rateLimiter.tryAcquire("email|second@example.com", 1, Duration.ofMinutes(1)));
+    }
+
+    /**
+     * Test: Wait for a token to refill.
+     * This test ensures that requests are allowed again after the refill interval.
+     */
+    @Test
+    @DisplayName("Request after refill interval should be allowed")
+    void tryAcquire_afterRefillInterval_shouldAllow() throws InterruptedException {
+        assertEquals(0, rateLimiter.tryAcquire("ip|127.0.0.1", 1, Duration.ofMillis(50)));
+        assertTrue(rateLimiter.tryAcquire("ip|127.0.0.1", 1, Duration.ofMillis(50)) > 0);
+
+        Thread.sleep(60);
+
+        assertEquals(0, rateLimiter.tryAcquire("ip|127.0.0.1", 1, Duration.ofMillis(50)));
+    }
+}
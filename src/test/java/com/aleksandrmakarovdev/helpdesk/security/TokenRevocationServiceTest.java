@@ -0,0 +1,131 @@
+package com.aleksandrmakarovdev.helpdesk.security;
+
+import com.aleksandrmakarovdev.helpdesk.invalidation.InvalidationEvent;
+import com.aleksandrmakarovdev.helpdesk.invalidation.InvalidationPublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class TokenRevocationServiceTest {
+
+    private final TokenRevocationService revocationService = new TokenRevocationService(
+            mock(JdbcTemplate.class), mock(InvalidationPublisher.class), 1000, 0.01, new SimpleMeterRegistry()
+    );
+
+    private final UUID userId = UUID.randomUUID();
+
+    /**
+     * Test: Revoke a single token.
+     * This test ensures that only the revoked token is rejected.
+     */
+    @Test
+    @DisplayName("Revoked token should be rejected")
+    void isRevoked_whenTokenRevoked_shouldReturnTrue() {
+        String revokedTokenId = UUID.randomUUID().toString();
+        long now = System.currentTimeMillis();
+
+        revocationService.revoke(revokedTokenId, now + 60_000);
+
+        assertTrue(revocationService.isRevoked(revokedTokenId, userId, now));
+        assertFalse(revocationService.isRevoked(UUID.randomUUID().toString(), userId, now));
+    }
+
+    /**
+     * Test: Revoke all tokens of a user.
+     * This test ensures that tokens issued before the revocation are rejected,
+     * while tokens of other users and tokens issued later are accepted.
+     */
+    @Test
+    @DisplayName("Revoke all should reject tokens issued before the watermark")
+    void isRevoked_whenAllTokensRevoked_shouldRejectOlderTokens() {
+        long now = System.currentTimeMillis();
+
+        revocationService.revokeAll(userId);
+
+        assertTrue(revocationService.isRevoked(UUID.randomUUID().toString(), userId, now - 60_000));
+        assertFalse(revocationService.isRevoked(UUID.randomUUID().toString(), UUID.randomUUID(), now - 60_000));
+        assertFalse(revocationService.isRevoked(UUID.randomUUID().toString(), userId, now + 2_000));
+    }
+
+    /**
+     * Test: Issue a token in the same second as a revocation of all tokens of the user.
+     * This test ensures that the token is issued in the next second and accepted,
+     * while a token issued earlier in that second is still rejected.
+     */
+    @Test
+    @DisplayName("Token issued in the same second after revoke all should be accepted")
+    void issueTime_whenWatermarkInSameSecond_shouldIssueAfterWatermark() {
+        long second = System.currentTimeMillis() / 1000 * 1000;
+
+        revocationService.handle(new InvalidationEvent(InvalidationEvent.Type.USER_TOKENS, userId + ":" + (second + 500)));
+
+        long issuedAt = revocationService.issueTime(userId, second + 800);
+
+        assertEquals(second + 1000, issuedAt);
+        assertFalse(revocationService.isRevoked(UUID.randomUUID().toString(), userId, issuedAt / 1000 * 1000));
+        assertTrue(revocationService.isRevoked(UUID.randomUUID().toString(), userId, second));
+        assertEquals(second + 1800, revocationService.issueTime(userId, second + 1800));
+        assertEquals(second + 800, revocationService.issueTime(UUID.randomUUID(), second + 800));
+    }
+
+    /**
+     * Test: Revoke all tokens of a user and issue a new token right away.
+     * This test ensures that the new token is accepted once its issue time is truncated to whole seconds.
+     */
+    @Test
+    @DisplayName("Token issued right after revoke all should be accepted")
+    void isRevoked_whenIssuedRightAfterRevokeAll_shouldReturnFalse() {
+        revocationService.revokeAll(userId);
+
+        long issuedAt = revocationService.issueTime(userId, System.currentTimeMillis());
+
+        assertFalse(revocationService.isRevoked(UUID.randomUUID().toString(), userId, issuedAt / 1000 * 1000));
+    }
+
+    /**
+     * Test: Evict entries after the revoked token expired.
+     * This test ensures that expired entries are dropped while unexpired ones are kept in the rebuilt filter.
+     */
+    @Test
+    @DisplayName("Evict expired should keep unexpired revocations")
+    void evictExpired_shouldKeepUnexpiredRevocations() {
+        String expiredTokenId = UUID.randomUUID().toString();
+        String activeTokenId = UUID.randomUUID().toString();
+        long now = System.currentTimeMillis();
+
+        revocationService.revoke(expiredTokenId, now - 1);
+        revocationService.revoke(activeTokenId, now + 60_000);
+
+        revocationService.evictExpired();
+
+        assertFalse(revocationService.isRevoked(expiredTokenId, userId, now));
+        assertTrue(revocationService.isRevoked(activeTokenId, userId, now));
+    }
+
+    /**
+     * Test: Receive revocations announced by another node.
+     * This test ensures that both single-token and per-user revocations are applied.
+     */
+    @Test
+    @DisplayName("Handle should apply revocations from other nodes")
+    void handle_shouldApplyRevocationsFromOtherNodes() {
+        String tokenId = UUID.randomUUID().toString();
+        UUID otherUserId = UUID.randomUUID();
+        long now = System.currentTimeMillis();
+
+        revocationService.handle(new InvalidationEvent(InvalidationEvent.Type.TOKEN, tokenId + ":" + (now + 60_000)));
+        revocationService.handle(new InvalidationEvent(InvalidationEvent.Type.USER_TOKENS, otherUserId + ":" + now));
+
+        assertTrue(revocationService.isRevoked(tokenId, userId, now));
+        assertTrue(revocationService.isRevoked(UUID.randomUUID().toString(), otherUserId, now - 60_000));
+        assertFalse(revocationService.isRevoked(UUID.randomUUID().toString(), userId, now));
+    }
+}
@@ -0,0 +1,44 @@
+package com.aleksandrmakarovdev.helpdesk.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TunedBCryptPasswordEncoderTest {
+
+    private final String cost4Hash = new BCryptPasswordEncoder(4).encode("password");
+    private final String cost5Hash = new BCryptPasswordEncoder(5).encode("password");
+    private final String cost6Hash = new BCryptPasswordEncoder(6).encode("password");
+
+    /**
+     * Test: Check hashes against a pinned strength.
+     * This test ensures that hashes with a lower or a higher cost are upgraded, and hashes with the same cost are not.
+     */
+    @Test
+    @DisplayName("Pinned strength should upgrade hashes of any other cost")
+    void upgradeEncoding_whenPinned_shouldUpgradeAnyOtherCost() {
+        TunedBCryptPasswordEncoder encoder = new TunedBCryptPasswordEncoder(5, true);
+
+        assertTrue(encoder.upgradeEncoding(cost4Hash));
+        assertTrue(encoder.upgradeEncoding(cost6Hash));
+        assertFalse(encoder.upgradeEncoding(cost5Hash));
+    }
+
+    /**
+     * Test: Check hashes against a tuned strength.
+     * This test ensures that only hashes with a lower cost are upgraded,
+     * so that nodes tuned to different strengths do not re-hash each other's passwords.
+     */
+    @Test
+    @DisplayName("Tuned strength should only upgrade hashes of a lower cost")
+    void upgradeEncoding_whenTuned_shouldOnlyUpgradeLowerCost() {
+        TunedBCryptPasswordEncoder encoder = new TunedBCryptPasswordEncoder(5, false);
+
+        assertTrue(encoder.upgradeEncoding(cost4Hash));
+        assertFalse(encoder.upgradeEncoding(cost6Hash));
+        assertFalse(encoder.upgradeEncoding(cost5Hash));
+    }
+}
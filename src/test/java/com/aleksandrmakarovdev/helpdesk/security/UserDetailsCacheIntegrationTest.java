@@ -0,0 +1,149 @@
+package com.aleksandrmakarovdev.helpdesk.security;
+
+import com.aleksandrmakarovdev.helpdesk.user.model.CreateUserRequest;
+import com.aleksandrmakarovdev.helpdesk.user.repository.UserRepository;
+import com.aleksandrmakarovdev.helpdesk.user.service.RoleRegistry;
+import com.aleksandrmakarovdev.helpdesk.user.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Testcontainers
+@ActiveProfiles("test")
+class UserDetailsCacheIntegrationTest {
+
+    private static final String EMAIL = "cached@example.com";
+    private static final String CREDENTIALS = """
+            {
+            "email": "cached@example.com",
+            "password": "testpassword"
+            }
+            """;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRegistry roleRegistry;
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoSpyBean
+    private WebUserDetailsService webUserDetailsService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        CreateUserRequest request = new CreateUserRequest();
+        request.setEmail(EMAIL);
+        request.setPassword("testpassword");
+        userService.createUser(request);
+
+        // The first login loads the user from the database and caches it
+        login();
+        verify(webUserDetailsService, times(1)).loadUserByUsername(EMAIL);
+        clearInvocations(webUserDetailsService);
+    }
+
+    /**
+     * Test: Log in a second time.
+     * This test ensures that the user is served from the cache without querying the database.
+     */
+    @Test
+    @DisplayName("Second login should be served from the cache")
+    void login_whenUserCached_shouldNotLoadUser() throws Exception {
+        login();
+
+        verify(webUserDetailsService, never()).loadUserByUsername(EMAIL);
+    }
+
+    /**
+     * Test: Update the password hash of a cached user, then log in.
+     * This test ensures that the entry is evicted and the user is loaded again.
+     */
+    @Test
+    @DisplayName("Password update should evict the cached user")
+    void updatePassword_shouldEvictCachedUser() throws Exception {
+        WebUserDetails cached = (WebUserDetails) userDetailsCache.getUserFromCache(EMAIL);
+        assertNotNull(cached);
+
+        webUserDetailsService.updatePassword(cached, cached.getPassword());
+
+        assertNull(userDetailsCache.getUserFromCache(EMAIL));
+        login();
+        verify(webUserDetailsService, times(1)).loadUserByUsername(EMAIL);
+    }
+
+    /**
+     * Test: Reload the roles, then log in.
+     * This test ensures that cached users, which carry role names, are evicted and loaded again.
+     */
+    @Test
+    @DisplayName("Role change should evict the cached user")
+    void refreshRoles_shouldEvictCachedUser() throws Exception {
+        roleRegistry.refreshAll();
+
+        assertNull(userDetailsCache.getUserFromCache(EMAIL));
+        login();
+        verify(webUserDetailsService, times(1)).loadUserByUsername(EMAIL);
+    }
+
+    /**
+     * Test: Revoke all tokens of a cached user, then log in.
+     * This test ensures that the entry is evicted and the user is loaded again.
+     */
+    @Test
+    @DisplayName("Revoke all should evict the cached user")
+    void revokeUserTokens_shouldEvictCachedUser() throws Exception {
+        WebUserDetails cached = (WebUserDetails) userDetailsCache.getUserFromCache(EMAIL);
+        assertNotNull(cached);
+
+        userService.revokeUserTokens(cached.getId());
+
+        assertNull(userDetailsCache.getUserFromCache(EMAIL));
+        login();
+        verify(webUserDetailsService, times(1)).loadUserByUsername(EMAIL);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userDetailsCache.removeAllUsersFromCache();
+        jdbcTemplate.update("delete from refresh_tokens");
+        jdbcTemplate.update("delete from token_revocations");
+        userRepository.deleteAll();
+    }
+
+    private void login() throws Exception {
+        mockMvc.perform(post("/api/users/login").contentType(MediaType.APPLICATION_JSON).content(CREDENTIALS))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,75 @@
+package com.aleksandrmakarovdev.helpdesk.security;
+
+import com.aleksandrmakarovdev.helpdesk.invalidation.InvalidationEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserDetailsCacheTest {
+
+    private final UserDetailsCache userDetailsCache = new UserDetailsCache(100, Duration.ofMinutes(5), new SimpleMeterRegistry());
+
+    private final WebUserDetails alice = user("alice@example.com");
+    private final WebUserDetails bob = user("bob@example.com");
+
+    /**
+     * Test: Remove a user by id.
+     * This test ensures that only the entry of that user is removed.
+     */
+    @Test
+    @DisplayName("Remove by id should drop only that user")
+    void removeUserFromCache_whenRemovedById_shouldDropOnlyThatUser() {
+        userDetailsCache.putUserInCache(alice);
+        userDetailsCache.putUserInCache(bob);
+
+        userDetailsCache.removeUserFromCache(alice.getId());
+
+        assertNull(userDetailsCache.getUserFromCache(alice.getUsername()));
+        assertSame(bob, userDetailsCache.getUserFromCache(bob.getUsername()));
+    }
+
+    /**
+     * Test: Receive user and token revocation events from another node.
+     * This test ensures that both drop the entry of the user.
+     */
+    @Test
+    @DisplayName("Handle should drop users changed or revoked on other nodes")
+    void handle_whenUserChangedOrRevoked_shouldDropUser() {
+        userDetailsCache.putUserInCache(alice);
+        userDetailsCache.putUserInCache(bob);
+
+        userDetailsCache.handle(InvalidationEvent.user(alice.getUsername()));
+        userDetailsCache.handle(new InvalidationEvent(
+                InvalidationEvent.Type.USER_TOKENS, bob.getId() + ":" + System.currentTimeMillis()
+        ));
+
+        assertNull(userDetailsCache.getUserFromCache(alice.getUsername()));
+        assertNull(userDetailsCache.getUserFromCache(bob.getUsername()));
+    }
+
+    /**
+     * Test: Receive a single token revocation from another node.
+     * This test ensures that cached users are kept.
+     */
+    @Test
+    @DisplayName("Handle should keep users when a single token is revoked")
+    void handle_whenTokenRevoked_shouldKeepUsers() {
+        userDetailsCache.putUserInCache(alice);
+
+        userDetailsCache.handle(new InvalidationEvent(
+                InvalidationEvent.Type.TOKEN, UUID.randomUUID() + ":" + System.currentTimeMillis()
+        ));
+
+        assertSame(alice, userDetailsCache.getUserFromCache(alice.getUsername()));
+    }
+
+    private static WebUserDetails user(String username) {
+        return new WebUserDetails(UUID.randomUUID(), username, "{bcrypt}hash", null, List.of("ROLE_USER"));
+    }
+}
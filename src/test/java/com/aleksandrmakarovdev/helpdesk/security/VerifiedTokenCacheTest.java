@@ -0,0 +1,49 @@
+package com.aleksandrmakarovdev.helpdesk.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class VerifiedTokenCacheTest {
+
+    private final VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache(100);
+
+    private final Authentication authentication = UsernamePasswordAuthenticationToken.authenticated("user", null, List.of());
+
+    /**
+     * Test: Cache a token that expires shortly, read it before and after the expiration.
+     * This test ensures that the entry is served until the token expires and not afterwards.
+     */
+    @Test
+    @DisplayName("Cached token should not be served past its expiration")
+    void get_whenTokenExpired_shouldReturnNull() throws InterruptedException {
+        Instant expiresAt = Instant.now().plusMillis(200);
+
+        verifiedTokenCache.put("token", authentication, expiresAt);
+
+        assertSame(authentication, verifiedTokenCache.get("token"));
+
+        Thread.sleep(Math.max(expiresAt.toEpochMilli() - System.currentTimeMillis(), 0) + 50);
+
+        assertNull(verifiedTokenCache.get("token"));
+    }
+
+    /**
+     * Test: Cache a token that has already expired.
+     * This test ensures that it is never served.
+     */
+    @Test
+    @DisplayName("Already expired token should not be served")
+    void get_whenTokenAlreadyExpired_shouldReturnNull() {
+        verifiedTokenCache.put("token", authentication, Instant.now().minusSeconds(1));
+
+        assertNull(verifiedTokenCache.get("token"));
+    }
+}
@@ -0,0 +1,58 @@
+package com.aleksandrmakarovdev.helpdesk.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+
+class WebSecurityConfigurationTest {
+
+    private final PasswordHashingExecutor passwordHashingExecutor =
+            new PasswordHashingExecutor(1, 1, Duration.ofSeconds(1), new SimpleMeterRegistry());
+
+    private final WebSecurityConfiguration configuration = new WebSecurityConfiguration(
+            mock(UserDetailsService.class), mock(UserDetailsPasswordService.class), mock(JwtAuthenticationFilter.class),
+            mock(RateLimitFilter.class), passwordHashingExecutor, mock(UserDetailsCache.class)
+    );
+
+    @AfterEach
+    void tearDown() {
+        passwordHashingExecutor.shutdown();
+    }
+
+    /**
+     * Test: Create the password encoder with a fixed strength.
+     * This test ensures that the strength is used as configured without timing any hashes.
+     */
+    @Test
+    @DisplayName("Fixed strength should skip tuning")
+    void passwordEncoder_whenStrengthFixed_shouldSkipTuning() {
+        try (MockedStatic<BCryptStrengthTuner> tuner = mockStatic(BCryptStrengthTuner.class)) {
+            ExecutorPasswordEncoder passwordEncoder = configuration.passwordEncoder("5", Duration.ofMillis(250), 10, 14);
+
+            tuner.verifyNoInteractions();
+            assertTrue(passwordEncoder.encode("password").startsWith("{bcrypt}$2a$05$"));
+        }
+    }
+
+    /**
+     * Test: Create the password encoder with the strength set to auto.
+     * This test ensures that new hashes use the tuned strength.
+     */
+    @Test
+    @DisplayName("Auto strength should use the tuned strength")
+    void passwordEncoder_whenStrengthAuto_shouldUseTunedStrength() {
+        ExecutorPasswordEncoder passwordEncoder = configuration.passwordEncoder("auto", Duration.ofMinutes(1), 4, 4);
+
+        assertTrue(passwordEncoder.encode("password").startsWith("{bcrypt}$2a$04$"));
+    }
+}
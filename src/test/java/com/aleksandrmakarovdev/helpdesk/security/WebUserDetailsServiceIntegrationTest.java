@@ -0,0 +1,95 @@
+package com.aleksandrmakarovdev.helpdesk.security;
+
+import com.aleksandrmakarovdev.helpdesk.user.model.CreateUserRequest;
+import com.aleksandrmakarovdev.helpdesk.user.repository.UserRepository;
+import com.aleksandrmakarovdev.helpdesk.user.service.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Testcontainers
+@ActiveProfiles("test")
+class WebUserDetailsServiceIntegrationTest {
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        CreateUserRequest request = new CreateUserRequest();
+        request.setEmail("testuser@example.com");
+        request.setPassword("testpassword");
+        userService.createUser(request);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    /**
+     * Test: Load a user for authentication.
+     * This test ensures that credentials and roles are loaded with exactly one statement
+     * and that the roles are still readable after the transaction has ended.
+     */
+    @Test
+    @DisplayName("Load user by username should use exactly one statement")
+    void loadUserByUsername_shouldUseExactlyOneStatement() {
+        UserDetails userDetails = userDetailsService.loadUserByUsername("testuser@example.com");
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        List<String> authorities = userDetails.getAuthorities()
+                .stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+
+        assertEquals(List.of("ROLE_USER"), authorities);
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    /**
+     * Test: Load a user that does not exist.
+     * This test ensures that the lookup fails with a single statement.
+     */
+    @Test
+    @DisplayName("Load unknown user should throw not found")
+    void loadUserByUsername_whenUserDoesNotExist_shouldThrowNotFound() {
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("unknown@example.com"));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Clean up the database after each test to ensure test isolation
+        userRepository.deleteAll();
+    }
+}
@@ -0,0 +1,126 @@
+package com.aleksandrmakarovdev.helpdesk.user;
+
+import com.aleksandrmakarovdev.helpdesk.exception.UserFoundException;
+import com.aleksandrmakarovdev.helpdesk.user.model.CreateUserRequest;
+import com.aleksandrmakarovdev.helpdesk.user.repository.UserRepository;
+import com.aleksandrmakarovdev.helpdesk.user.service.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Testcontainers
+@ActiveProfiles("test")
+class UserRegistrationConcurrencyIntegrationTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    /**
+     * Test: Register the same email from many threads at once.
+     * This test ensures that exactly one registration succeeds and all others are reported as duplicates.
+     */
+    @Test
+    @DisplayName("Concurrent registrations of same email should create exactly one user")
+    void createUser_whenSameEmailConcurrently_shouldCreateExactlyOneUser() throws Exception {
+        List<Throwable> failures = registerConcurrently(i -> "sameuser@example.com");
+
+        long duplicates = failures.stream().filter(UserFoundException.class::isInstance).count();
+
+        assertEquals(THREADS - 1, failures.size());
+        assertEquals(THREADS - 1, duplicates);
+        assertEquals(1, userRepository.count());
+    }
+
+    /**
+     * Test: Register different emails from many threads at once.
+     * This test ensures that every registration succeeds with a single statement per signup.
+     */
+    @Test
+    @DisplayName("Concurrent registrations of different emails should use one statement each")
+    void createUser_whenDifferentEmailsConcurrently_shouldUseOneStatementEach() throws Exception {
+        List<Throwable> failures = registerConcurrently(i -> "user" + i + "@example.com");
+
+        assertTrue(failures.isEmpty());
+        assertEquals(THREADS, statistics.getPrepareStatementCount());
+
+        assertEquals(THREADS, userRepository.count());
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Clean up the database after each test to ensure test isolation
+        userRepository.deleteAll();
+    }
+
+    private List<Throwable> registerConcurrently(IntFunction<String> emailFactory) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < THREADS; i++) {
+            CreateUserRequest request = new CreateUserRequest();
+            request.setEmail(emailFactory.apply(i));
+            request.setPassword("testpassword");
+
+            futures.add(executor.submit((Callable<Void>) () -> {
+                start.await();
+                userService.createUser(request);
+                return null;
+            }));
+        }
+
+        // Release all threads at once to maximize contention
+        start.countDown();
+
+        List<Throwable> failures = new ArrayList<>();
+
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                failures.add(e.getCause());
+            }
+        }
+
+        executor.shutdown();
+
+        return failures;
+    }
+}
@@ -1,10 +1,14 @@
 package com.aleksandrmakarovdev.helpdesk.user;
 
+import com.aleksandrmakarovdev.helpdesk.user.repository.RefreshTokenRepository;
 import com.aleksandrmakarovdev.helpdesk.user.repository.UserRepository;
+import com.jayway.jsonpath.JsonPath;
+import jakarta.servlet.http.Cookie;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.DynamicPropertyRegistry;
@@ -16,8 +20,11 @@ import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 import org.testcontainers.utility.DockerImageName;
 
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -32,6 +39,9 @@ class UsersControllerIntegrationTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
     @BeforeEach
     void setUp() {
     }
@@ -117,9 +127,155 @@ class UsersControllerIntegrationTest {
                         """));
     }
 
+    /**
+     * Test: Exchange the refresh token cookie issued at login for new tokens.
+     * This test ensures that a new access token is returned and the cookie holds a different refresh token.
+     */
+    @Test
+    @DisplayName("Refresh with valid refresh token should rotate the token")
+    void refreshUser_whenValidRefreshToken_shouldRotateToken() throws Exception {
+        Cookie refreshToken = registerAndLogin();
+
+        Cookie rotatedToken = mockMvc.perform(MockMvcRequestBuilders.post("/api/users/refresh").cookie(refreshToken))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").isNotEmpty())
+                .andExpect(cookie().exists("refresh-token"))
+                .andReturn()
+                .getResponse()
+                .getCookie("refresh-token");
+
+        assertNotEquals(refreshToken.getValue(), rotatedToken.getValue());
+    }
+
+    /**
+     * Test: Present a refresh token that has already been rotated.
+     * This test ensures that each refresh token can be exchanged only once.
+     */
+    @Test
+    @DisplayName("Refresh with already rotated refresh token should return unauthorized")
+    void refreshUser_whenTokenAlreadyRotated_shouldReturnUnauthorized() throws Exception {
+        Cookie refreshToken = registerAndLogin();
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/users/refresh").cookie(refreshToken))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/users/refresh").cookie(refreshToken))
+                .andDo(print())
+                .andExpect(status().isUnauthorized())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON));
+    }
+
+    /**
+     * Test: Call the refresh endpoint without a refresh token cookie.
+     * This test ensures that an unauthorized response is returned.
+     */
+    @Test
+    @DisplayName("Refresh without refresh token should return unauthorized")
+    void refreshUser_whenNoRefreshToken_shouldReturnUnauthorized() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/users/refresh"))
+                .andDo(print())
+                .andExpect(status().isUnauthorized());
+    }
+
+    /**
+     * Test: Log out and reuse the same access token.
+     * This test ensures that the access token is revoked and no longer authenticates requests.
+     */
+    @Test
+    @DisplayName("Logout should revoke the access token")
+    void logoutUser_shouldRevokeAccessToken() throws Exception {
+        Cookie refreshToken = registerAndLogin();
+
+        String accessToken = JsonPath.read(mockMvc.perform(MockMvcRequestBuilders.post("/api/users/refresh").cookie(refreshToken))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(), "$.token");
+
+        var logoutRequest = MockMvcRequestBuilders.post("/api/users/logout")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken);
+
+        mockMvc.perform(logoutRequest)
+                .andDo(print())
+                .andExpect(status().isOk());
+
+        mockMvc.perform(logoutRequest)
+                .andDo(print())
+                .andExpect(status().isUnauthorized());
+    }
+
+    /**
+     * Test: Get the profile with an access token, then again with the returned ETag.
+     * This test ensures that the caller's own profile is returned and that an unchanged profile yields 304.
+     */
+    @Test
+    @DisplayName("Get profile should return the caller's profile and support conditional requests")
+    void getUserProfile_shouldReturnOwnProfileAndNotModified() throws Exception {
+        Cookie refreshToken = registerAndLogin();
+
+        String accessToken = JsonPath.read(mockMvc.perform(MockMvcRequestBuilders.post("/api/users/refresh").cookie(refreshToken))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(), "$.token");
+
+        String eTag = mockMvc.perform(MockMvcRequestBuilders.get("/api/users/profile")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value("testuser@example.com"))
+                .andExpect(jsonPath("$.roles[0]").value("ROLE_USER"))
+                .andExpect(jsonPath("$.version").doesNotExist())
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/users/profile")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andDo(print())
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    /**
+     * Test: Get the profile without an access token.
+     * This test ensures that the request is rejected as unauthorized.
+     */
+    @Test
+    @DisplayName("Get profile without access token should return unauthorized")
+    void getUserProfile_whenNotAuthenticated_shouldReturnUnauthorized() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/users/profile"))
+                .andDo(print())
+                .andExpect(status().isUnauthorized());
+    }
+
+    private Cookie registerAndLogin() throws Exception {
+        String credentials = """
+                {
+                "email": "testuser@example.com",
+                "password": "testpassword"
+                }
+                """;
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/users/register")
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .content(credentials));
+
+        return mockMvc.perform(MockMvcRequestBuilders.post("/api/users/login")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .content(credentials))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getCookie("refresh-token");
+    }
+
     @AfterEach
     void tearDown() {
         // Clean up the database after each test to ensure test isolation
+        refreshTokenRepository.deleteAll();
         userRepository.deleteAll();
     }
 }
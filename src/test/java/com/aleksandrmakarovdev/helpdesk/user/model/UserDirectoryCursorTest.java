@@ -0,0 +1,37 @@
+package com.aleksandrmakarovdev.helpdesk.user.model;
+
+import com.aleksandrmakarovdev.helpdesk.exception.InvalidCursorException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserDirectoryCursorTest {
+
+    /**
+     * Test: Encode a cursor and decode it again.
+     * This test ensures that the sort key survives the round trip with microsecond precision.
+     */
+    @Test
+    @DisplayName("Decode should return the encoded cursor")
+    void decode_shouldReturnEncodedCursor() {
+        UserDirectoryCursor cursor = new UserDirectoryCursor(LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123_456_000), UUID.randomUUID());
+
+        assertEquals(cursor, UserDirectoryCursor.decode(cursor.encode()));
+    }
+
+    /**
+     * Test: Decode strings that were not produced by encode.
+     * This test ensures that tampered cursors are rejected with a client error.
+     */
+    @Test
+    @DisplayName("Decode should reject malformed cursors")
+    void decode_whenMalformed_shouldThrow() {
+        assertThrows(InvalidCursorException.class, () -> UserDirectoryCursor.decode("not a cursor"));
+        assertThrows(InvalidCursorException.class, () -> UserDirectoryCursor.decode("bm8tc2VwYXJhdG9y"));
+        assertThrows(InvalidCursorException.class, () -> UserDirectoryCursor.decode(""));
+    }
+}
@@ -0,0 +1,148 @@
+package com.aleksandrmakarovdev.helpdesk.user.repository;
+
+import com.aleksandrmakarovdev.helpdesk.user.model.RoleName;
+import com.aleksandrmakarovdev.helpdesk.user.model.UserDirectoryCursor;
+import com.aleksandrmakarovdev.helpdesk.user.model.UserDirectoryEntry;
+import com.aleksandrmakarovdev.helpdesk.user.service.RoleRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Testcontainers
+@ActiveProfiles("test")
+class UserDirectoryRepositoryIntegrationTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Autowired
+    private UserDirectoryRepository userDirectoryRepository;
+
+    @Autowired
+    private RoleRegistry roleRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        // Five users, one per day, the last two share their registration time and are ordered by id
+        insertUser("alice@example.com", START, RoleName.ROLE_USER);
+        insertUser("bob@example.com", START.plusDays(1), RoleName.ROLE_USER);
+        insertUser("admin@example.com", START.plusDays(2), RoleName.ROLE_ADMIN);
+        insertUser("al_ex@example.com", START.plusDays(3), RoleName.ROLE_USER);
+        insertUser("carol@example.com", START.plusDays(3), RoleName.ROLE_USER);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from users_roles");
+        jdbcTemplate.update("delete from users");
+    }
+
+    /**
+     * Test: Page through all users two at a time.
+     * This test ensures that every user is returned exactly once, newest first, including users with equal timestamps.
+     */
+    @Test
+    @DisplayName("Find page should visit every user once in keyset order")
+    void findPage_shouldVisitEveryUserOnce() {
+        List<UserDirectoryEntry> visited = new ArrayList<>();
+        UserDirectoryCursor cursor = null;
+
+        do {
+            List<UserDirectoryEntry> page = userDirectoryRepository.findPage(null, null, null, null, cursor, 2);
+            visited.addAll(page);
+
+            UserDirectoryEntry last = page.isEmpty() ? null : page.get(page.size() - 1);
+            cursor = page.size() < 2 ? null : new UserDirectoryCursor(last.createdAt(), last.id());
+        } while (cursor != null);
+
+        assertEquals(5, visited.size());
+        assertEquals(5, visited.stream().map(UserDirectoryEntry::id).distinct().count());
+        assertEquals("alice@example.com", visited.get(4).email());
+
+        for (int i = 1; i < visited.size(); i++) {
+            assertFalse(visited.get(i).createdAt().isAfter(visited.get(i - 1).createdAt()));
+        }
+    }
+
+    /**
+     * Test: Page through the users of a role two at a time.
+     * This test ensures that the role's users are returned exactly once, newest first,
+     * including users with equal timestamps, and users of other roles are skipped.
+     */
+    @Test
+    @DisplayName("Find page by role should visit every user of the role once in keyset order")
+    void findPage_whenRoleFiltered_shouldVisitEveryUserOfRoleOnce() {
+        UUID roleId = roleRegistry.getId(RoleName.ROLE_USER);
+        List<UserDirectoryEntry> visited = new ArrayList<>();
+        UserDirectoryCursor cursor = null;
+
+        do {
+            List<UserDirectoryEntry> page = userDirectoryRepository.findPage(null, roleId, null, null, cursor, 2);
+            visited.addAll(page);
+
+            UserDirectoryEntry last = page.isEmpty() ? null : page.get(page.size() - 1);
+            cursor = page.size() < 2 ? null : new UserDirectoryCursor(last.createdAt(), last.id());
+        } while (cursor != null);
+
+        assertEquals(4, visited.size());
+        assertEquals(4, visited.stream().map(UserDirectoryEntry::id).distinct().count());
+        assertEquals(List.of("bob@example.com", "alice@example.com"), emails(visited.subList(2, 4)));
+
+        assertEquals(List.of("bob@example.com"), emails(
+                userDirectoryRepository.findPage(null, roleId, START.plusDays(1), START.plusDays(3), null, 10)));
+    }
+
+    /**
+     * Test: Combine the email prefix, role and registration time filters.
+     * This test ensures that only matching users are returned and that like wildcards in the prefix are literal.
+     */
+    @Test
+    @DisplayName("Find page should apply all filters")
+    void findPage_shouldApplyFilters() {
+        assertEquals(List.of("al_ex@example.com"), emails(
+                userDirectoryRepository.findPage("AL_", null, null, null, null, 10)));
+
+        assertEquals(List.of("admin@example.com"), emails(
+                userDirectoryRepository.findPage(null, roleRegistry.getId(RoleName.ROLE_ADMIN), null, null, null, 10)));
+
+        assertEquals(List.of("admin@example.com", "bob@example.com"), emails(
+                userDirectoryRepository.findPage(null, null, START.plusDays(1), START.plusDays(3), null, 10)));
+
+        UserDirectoryEntry entry = userDirectoryRepository.findPage("bob", null, null, null, null, 10).get(0);
+        assertEquals(List.of(RoleName.ROLE_USER.name()), entry.roles());
+    }
+
+    private void insertUser(String email, LocalDateTime createdAt, RoleName role) {
+        UUID id = UUID.randomUUID();
+
+        jdbcTemplate.update(
+                "insert into users (id, username, email, password_hash, created_at) values (?, ?, ?, ?, ?)",
+                id, email, email, "{noop}password", Timestamp.valueOf(createdAt)
+        );
+        jdbcTemplate.update(
+                "insert into users_roles (user_id, role_id) values (?, ?)",
+                id, roleRegistry.getId(role)
+        );
+    }
+
+    private static List<String> emails(List<UserDirectoryEntry> entries) {
+        return entries.stream().map(UserDirectoryEntry::email).toList();
+    }
+}
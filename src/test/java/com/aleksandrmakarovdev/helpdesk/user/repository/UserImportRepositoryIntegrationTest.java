@@ -0,0 +1,96 @@
+package com.aleksandrmakarovdev.helpdesk.user.repository;
+
+import com.aleksandrmakarovdev.helpdesk.user.model.RoleName;
+import com.aleksandrmakarovdev.helpdesk.user.service.RoleRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@Testcontainers
+@ActiveProfiles("test")
+class UserImportRepositoryIntegrationTest {
+
+    @Autowired
+    private UserImportRepository userImportRepository;
+
+    @Autowired
+    private RoleRegistry roleRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from users_roles");
+        jdbcTemplate.update("delete from users");
+    }
+
+    /**
+     * Test: Insert a batch of users, one of which already exists.
+     * This test ensures that the new users are inserted with their role and the existing one is skipped.
+     */
+    @Test
+    @DisplayName("Insert with role should skip existing users")
+    void insertWithRole_shouldSkipExistingUsers() {
+        UUID roleId = roleRegistry.getId(RoleName.ROLE_USER);
+        Timestamp createdAt = Timestamp.from(Instant.now());
+
+        userImportRepository.insertWithRole(List.of("alice@example.com"), List.of("hash1"), createdAt, roleId);
+
+        Set<String> inserted = userImportRepository.insertWithRole(
+                List.of("alice@example.com", "bob@example.com", "carol@example.com"),
+                List.of("hash2", "hash3", "hash4"),
+                createdAt,
+                roleId
+        );
+
+        assertEquals(Set.of("bob@example.com", "carol@example.com"), inserted);
+        assertEquals("hash1", jdbcTemplate.queryForObject(
+                "select password_hash from users where email = 'alice@example.com'", String.class
+        ));
+        assertEquals(3, jdbcTemplate.queryForObject(
+                "select count(*) from users_roles where role_id = ?", Integer.class, roleId
+        ));
+    }
+
+    /**
+     * Test: Insert users with their role, then give one of them another role.
+     * This test ensures that new users keep version 0 and only the role change of an existing user bumps it.
+     */
+    @Test
+    @DisplayName("Insert with role should keep version of new users")
+    void insertWithRole_shouldKeepVersionOfNewUsers() {
+        UUID roleId = roleRegistry.getId(RoleName.ROLE_USER);
+
+        userImportRepository.insertWithRole(
+                List.of("alice@example.com", "bob@example.com"), List.of("hash1", "hash2"),
+                Timestamp.from(Instant.now()), roleId
+        );
+
+        jdbcTemplate.update(
+                "insert into users_roles (user_id, role_id) select id, ? from users where email = 'alice@example.com'",
+                roleRegistry.getId(RoleName.ROLE_ADMIN)
+        );
+
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "select version from users where email = 'alice@example.com'", Integer.class
+        ));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "select version from users where email = 'bob@example.com'", Integer.class
+        ));
+    }
+}
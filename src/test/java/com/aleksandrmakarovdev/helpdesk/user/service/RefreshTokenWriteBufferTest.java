@@ -0,0 +1,159 @@
+package com.aleksandrmakarovdev.helpdesk.user.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class RefreshTokenWriteBufferTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    // A long interval and large batches, so that only explicit flushes write
+    private final RefreshTokenWriteBuffer buffer = new RefreshTokenWriteBuffer(
+            jdbcTemplate, true, 100, Duration.ofHours(1), 2, new SimpleMeterRegistry()
+    );
+
+    @AfterEach
+    void tearDown() {
+        buffer.shutdown();
+    }
+
+    /**
+     * Test: Queue several tokens and flush.
+     * This test ensures that the queued tokens are written in a single batch.
+     */
+    @Test
+    @DisplayName("Flush should write queued tokens in one batch")
+    @SuppressWarnings("unchecked")
+    void flush_shouldWriteQueuedTokensInOneBatch() {
+        buffer.add(hash(1), new Date(), new Date(), UUID.randomUUID());
+        buffer.add(hash(2), new Date(), new Date(), UUID.randomUUID());
+
+        buffer.flush();
+        buffer.flush();
+
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), captor.capture());
+        assertEquals(2, captor.getValue().size());
+    }
+
+    /**
+     * Test: Wait for a token that is still queued.
+     * This test ensures that the token is written before the method returns.
+     */
+    @Test
+    @DisplayName("Await persisted should flush a pending token")
+    void awaitPersisted_whenTokenPending_shouldFlush() {
+        buffer.add(hash(1), new Date(), new Date(), UUID.randomUUID());
+
+        buffer.awaitPersisted(hash(1));
+
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+    }
+
+    /**
+     * Test: Wait for a token that is not queued.
+     * This test ensures that nothing is written.
+     */
+    @Test
+    @DisplayName("Await persisted should not flush when token is not pending")
+    void awaitPersisted_whenTokenNotPending_shouldNotFlush() {
+        buffer.add(hash(1), new Date(), new Date(), UUID.randomUUID());
+
+        buffer.awaitPersisted(hash(2));
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    /**
+     * Test: Add more tokens than the queue can hold.
+     * This test ensures that the overflowing token is inserted synchronously.
+     */
+    @Test
+    @DisplayName("Full queue should insert synchronously")
+    void add_whenQueueFull_shouldInsertSynchronously() {
+        buffer.add(hash(1), new Date(), new Date(), UUID.randomUUID());
+        buffer.add(hash(2), new Date(), new Date(), UUID.randomUUID());
+        buffer.add(hash(3), new Date(), new Date(), UUID.randomUUID());
+
+        verify(jdbcTemplate, times(1)).update(anyString(), any(Object[].class));
+    }
+
+    /**
+     * Test: Flush while the first batch insert fails.
+     * This test ensures that the same batch is retried instead of being dropped.
+     */
+    @Test
+    @DisplayName("Failed batch should be retried")
+    void flush_whenBatchFails_shouldRetryBatch() {
+        buffer.add(hash(1), new Date(), new Date(), UUID.randomUUID());
+        buffer.add(hash(2), new Date(), new Date(), UUID.randomUUID());
+
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new TransientDataAccessResourceException("Connection reset"))
+                .thenReturn(new int[]{1, 1});
+
+        buffer.flush();
+
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList());
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+
+        // Nothing is pending anymore once the retry succeeded
+        buffer.awaitPersisted(hash(1));
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList());
+    }
+
+    /**
+     * Test: Flush while every batch insert attempt fails.
+     * This test ensures that the tokens are inserted one by one and a failing row does not affect the others.
+     */
+    @Test
+    @DisplayName("Failed batch should fall back to row inserts")
+    void flush_whenBatchKeepsFailing_shouldInsertRowByRow() {
+        UUID failingUser = UUID.randomUUID();
+
+        buffer.add(hash(1), new Date(), new Date(), failingUser);
+        buffer.add(hash(2), new Date(), new Date(), UUID.randomUUID());
+
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataIntegrityViolationException("Foreign key violation"));
+        when(jdbcTemplate.update(anyString(), any(Object[].class)))
+                .thenAnswer(invocation -> {
+                    if (failingUser.equals(invocation.getArgument(4))) {
+                        throw new DataIntegrityViolationException("Foreign key violation");
+                    }
+                    return 1;
+                });
+
+        buffer.flush();
+
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList());
+        verify(jdbcTemplate, times(2)).update(anyString(), any(Object[].class));
+
+        // The failed token is given up on, it does not block later lookups
+        buffer.awaitPersisted(hash(1));
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList());
+    }
+
+    private static byte[] hash(int value) {
+        byte[] hash = new byte[32];
+        hash[0] = (byte) value;
+        return hash;
+    }
+}
@@ -0,0 +1,213 @@
+package com.aleksandrmakarovdev.helpdesk.user.service;
+
+import com.aleksandrmakarovdev.helpdesk.security.ExecutorPasswordEncoder;
+import com.aleksandrmakarovdev.helpdesk.security.PasswordHashingExecutor;
+import com.aleksandrmakarovdev.helpdesk.user.model.RoleName;
+import com.aleksandrmakarovdev.helpdesk.user.model.UserImportFormat;
+import com.aleksandrmakarovdev.helpdesk.user.model.UserImportResult;
+import com.aleksandrmakarovdev.helpdesk.user.repository.UserImportRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class UserImportServiceTest {
+
+    private static final UUID ROLE_ID = UUID.randomUUID();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ValidatorFactory validatorFactory = Validation.buildDefaultValidatorFactory();
+    private final PasswordHashingExecutor hashingExecutor = new PasswordHashingExecutor(
+            2, 8, Duration.ofSeconds(1), new SimpleMeterRegistry()
+    );
+    private final RoleRegistry roleRegistry = mock(RoleRegistry.class);
+    private final UserImportRepository userImportRepository = mock(UserImportRepository.class);
+
+    // Batches of two, so that a handful of lines spans several batches
+    @SuppressWarnings("deprecation")
+    private final UserImportService userImportService = new UserImportService(
+            new ExecutorPasswordEncoder(NoOpPasswordEncoder.getInstance(), hashingExecutor),
+            roleRegistry,
+            userImportRepository,
+            validatorFactory.getValidator(),
+            objectMapper,
+            2,
+            0,
+            new SimpleMeterRegistry()
+    );
+
+    @AfterEach
+    void tearDown() {
+        hashingExecutor.shutdown();
+        validatorFactory.close();
+    }
+
+    /**
+     * Test: Import NDJSON with valid, invalid, malformed and repeated lines.
+     * This test ensures that every line gets a result in upload order and only valid users are inserted, once.
+     */
+    @Test
+    @DisplayName("Import should report every line in order and insert only valid users")
+    void importUsers_shouldReportEveryLineInOrder() throws IOException {
+        Set<String> existing = new HashSet<>();
+
+        // Like the database, skip users inserted by an earlier batch
+        when(roleRegistry.getId(RoleName.ROLE_USER)).thenReturn(ROLE_ID);
+        when(userImportRepository.insertWithRole(any(), any(), any(), eq(ROLE_ID)))
+                .thenAnswer(invocation -> invocation.<List<String>>getArgument(0).stream()
+                        .filter(existing::add)
+                        .collect(Collectors.toSet()));
+
+        List<UserImportResult> results = importUsers(UserImportFormat.NDJSON, """
+                {"email": "alice@example.com", "password": "secret1"}
+                {"email": "not-an-email", "password": "secret2"}
+
+                {"email": "bob@example.com"
+                {"email": "carol@example.com", "password": "secret3"}
+                {"email": "carol@example.com", "password": "secret4"}
+                """);
+
+        assertEquals(List.of(1L, 2L, 4L, 5L, 6L), results.stream().map(UserImportResult::line).toList());
+        assertEquals(List.of(
+                UserImportResult.Status.CREATED,
+                UserImportResult.Status.INVALID,
+                UserImportResult.Status.INVALID,
+                UserImportResult.Status.CREATED,
+                UserImportResult.Status.DUPLICATE
+        ), results.stream().map(UserImportResult::status).toList());
+
+        verify(userImportRepository).insertWithRole(
+                eq(List.of("alice@example.com")), eq(List.of("secret1")), any(), eq(ROLE_ID)
+        );
+        verify(userImportRepository).insertWithRole(
+                eq(List.of("carol@example.com")), eq(List.of("secret3")), any(), eq(ROLE_ID)
+        );
+        verify(userImportRepository).insertWithRole(
+                eq(List.of("carol@example.com")), eq(List.of("secret4")), any(), eq(ROLE_ID)
+        );
+    }
+
+    /**
+     * Test: Import CSV with a header, a quoted password and a user that already exists.
+     * This test ensures that quoted fields are unescaped and users skipped by the database are reported as duplicates.
+     */
+    @Test
+    @DisplayName("Import of CSV should report users that already exist as duplicates")
+    void importUsers_whenUserExists_shouldReportDuplicate() throws IOException {
+        when(roleRegistry.getId(RoleName.ROLE_USER)).thenReturn(ROLE_ID);
+        when(userImportRepository.insertWithRole(any(), any(), any(), eq(ROLE_ID)))
+                .thenReturn(Set.of("bob@example.com"));
+
+        List<UserImportResult> results = importUsers(UserImportFormat.CSV, """
+                email,password\r
+                alice@example.com,secret1\r
+                bob@example.com,"se,""cret"\r
+                """);
+
+        assertEquals(List.of(UserImportResult.Status.DUPLICATE, UserImportResult.Status.CREATED),
+                results.stream().map(UserImportResult::status).toList());
+        assertEquals(2, results.get(0).line());
+
+        verify(userImportRepository).insertWithRole(
+                eq(List.of("alice@example.com", "bob@example.com")), eq(List.of("secret1", "se,\"cret")), any(), eq(ROLE_ID)
+        );
+    }
+
+    /**
+     * Test: Import users while the database fails on the second batch.
+     * This test ensures that the first line of the failed batch is reported as aborted and the import stops.
+     */
+    @Test
+    @DisplayName("Import should stop at the first line of a failed batch")
+    void importUsers_whenBatchFails_shouldAbort() throws IOException {
+        when(roleRegistry.getId(RoleName.ROLE_USER)).thenReturn(ROLE_ID);
+        when(userImportRepository.insertWithRole(any(), any(), any(), eq(ROLE_ID)))
+                .thenAnswer(invocation -> new HashSet<>(invocation.<List<String>>getArgument(0)))
+                .thenThrow(new DataAccessResourceFailureException("Connection lost"));
+
+        List<UserImportResult> results = importUsers(UserImportFormat.CSV, """
+                user1@example.com,secret1
+                user2@example.com,secret2
+                user3@example.com,secret3
+                user4@example.com,secret4
+                user5@example.com,secret5
+                user6@example.com,secret6
+                """);
+
+        assertEquals(3, results.size());
+        assertEquals(UserImportResult.Status.ABORTED, results.get(2).status());
+        assertEquals(3, results.get(2).line());
+        verify(userImportRepository, times(2)).insertWithRole(any(), any(), any(), any());
+    }
+
+    /**
+     * Test: Import an upload of invalid lines only.
+     * This test ensures that their results are written while the upload is still being read, not at its end.
+     */
+    @Test
+    @DisplayName("Import should write results of invalid lines before the upload ends")
+    void importUsers_whenLinesInvalid_shouldWriteResultsBeforeEnd() throws IOException {
+        when(roleRegistry.getId(RoleName.ROLE_USER)).thenReturn(ROLE_ID);
+
+        int lines = 10;
+        String upload = "not-an-email,secret\n".repeat(lines);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        int[] writtenAtEnd = {-1};
+
+        // Remembers how many results had been written when the end of the upload was reached
+        StringReader reader = new StringReader(upload) {
+            @Override
+            public int read() throws IOException {
+                int c = super.read();
+                if (c == -1 && writtenAtEnd[0] < 0) {
+                    writtenAtEnd[0] = output.toString(StandardCharsets.UTF_8).split("\n", -1).length - 1;
+                }
+                return c;
+            }
+        };
+
+        userImportService.importUsers(reader, UserImportFormat.CSV, output);
+
+        // Every full batch of two is written right away, the reader only hits the end after the last line
+        assertEquals(lines, writtenAtEnd[0]);
+        verifyNoInteractions(userImportRepository);
+    }
+
+    private List<UserImportResult> importUsers(UserImportFormat format, String upload) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        userImportService.importUsers(new StringReader(upload), format, output);
+
+        return Arrays.stream(output.toString(StandardCharsets.UTF_8).split("\n"))
+                .map(line -> {
+                    try {
+                        return objectMapper.readValue(line, UserImportResult.class);
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .toList();
+    }
+}
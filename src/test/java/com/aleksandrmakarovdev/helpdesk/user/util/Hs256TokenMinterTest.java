@@ -0,0 +1,110 @@
+package com.aleksandrmakarovdev.helpdesk.user.util;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class Hs256TokenMinterTest {
+
+    private static final SecretKey KEY = Keys.hmacShaKeyFor(
+            "test-secret-test-secret-test-secret-test-secret".getBytes(StandardCharsets.UTF_8)
+    );
+
+    private static final long ISSUED_AT = 1_700_000_000L;
+    private static final long EXPIRES_AT = ISSUED_AT + JwtUtil.ACCESS_TOKEN_LIFETIME.toSeconds();
+
+    private final Hs256TokenMinter minter = new Hs256TokenMinter(KEY.getEncoded());
+
+    /**
+     * Test: Mint access tokens for usernames that need JSON escaping or multibyte UTF-8.
+     * This test ensures that the minted token is byte-identical to the jjwt builder output.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "agent@example.com",
+            "quote\"back\\slash/solidus",
+            "control\b\t\n\f\r\u0001\u001f",
+            "unicode-é中😀"
+    })
+    @DisplayName("Mint access token should match jjwt output")
+    void mintAccessToken_shouldMatchJjwtOutput(String username) {
+        String subject = UUID.randomUUID().toString();
+        String tokenId = UUID.randomUUID().toString();
+        List<String> roles = List.of("ROLE_USER", "ROLE_ADMIN");
+
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("sub", subject);
+        claims.put("jti", tokenId);
+        claims.put("username", username);
+        claims.put("roles", roles);
+
+        assertEquals(
+                jjwt(claims),
+                minter.mintAccessToken(subject, tokenId, username, roles, ISSUED_AT, EXPIRES_AT)
+        );
+    }
+
+    /**
+     * Test: Mint access token for a user without roles.
+     * This test ensures that an empty roles array is serialized the same way as jjwt does.
+     */
+    @Test
+    @DisplayName("Mint access token without roles should match jjwt output")
+    void mintAccessToken_whenNoRoles_shouldMatchJjwtOutput() {
+        String subject = UUID.randomUUID().toString();
+        String tokenId = UUID.randomUUID().toString();
+
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("sub", subject);
+        claims.put("jti", tokenId);
+        claims.put("username", "agent@example.com");
+        claims.put("roles", List.of());
+
+        assertEquals(
+                jjwt(claims),
+                minter.mintAccessToken(subject, tokenId, "agent@example.com", List.of(), ISSUED_AT, EXPIRES_AT)
+        );
+    }
+
+    /**
+     * Test: Mint a refresh token.
+     * This test ensures that the minted token is byte-identical to the jjwt builder output.
+     */
+    @Test
+    @DisplayName("Mint refresh token should match jjwt output")
+    void mintRefreshToken_shouldMatchJjwtOutput() {
+        String subject = UUID.randomUUID().toString();
+        String tokenId = UUID.randomUUID().toString();
+
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("sub", subject);
+        claims.put("jti", tokenId);
+
+        assertEquals(
+                jjwt(claims),
+                minter.mintRefreshToken(subject, tokenId, ISSUED_AT, EXPIRES_AT)
+        );
+    }
+
+    private static String jjwt(Map<String, Object> claims) {
+        return Jwts.builder()
+                .claims(claims)
+                .issuedAt(new Date(ISSUED_AT * 1000))
+                .expiration(new Date(EXPIRES_AT * 1000))
+                .signWith(KEY, Jwts.SIG.HS256)
+                .compact();
+    }
+}